@@ -0,0 +1,82 @@
+package com.app.auth.benchmark;
+
+import com.app.auth.config.SlotCodec;
+import com.app.auth.dto.UserAppointmentsResponseDto;
+import com.app.auth.entity.Appointment;
+import com.app.auth.repository.AppointmentRepository;
+import com.app.auth.service.impl.EnhancedAppointmentServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * GET /api/user/{id}/appointments/all without the database: Appointment -> UserAppointmentDto
+ * mapping (convertToUserAppointmentDto) and grouping by date for a patient with N stored appointments,
+ * half of them upcoming. The repository returns only the upcoming half, as the query filters by day.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentMappingBenchmark {
+
+    private static final long USER_ID = 77L;
+
+    @Param({"20", "200"})
+    public int appointments;
+
+    private EnhancedAppointmentServiceImpl service;
+
+    @Setup
+    public void setUp() {
+        LocalDate firstDay = LocalDate.now().minusDays(appointments / 4);
+        List<Appointment> rows = new ArrayList<>(appointments);
+        for (int i = 0; i < appointments; i++) {
+            LocalDate day = firstDay.plusDays(i / 2);
+            int startMinute = 9 * 60 + (i % 2) * 20;
+            Appointment a = new Appointment();
+            a.setId((long) i + 1);
+            a.setUserId(USER_ID);
+            a.setDoctorId(100L + i % 5);
+            a.setDoctorName("Dr. Doctor " + i % 5);
+            a.setDoctorSpecialization("General Physician");
+            a.setWorkplaceId(200L + i % 5);
+            a.setWorkplaceName("Clinic " + i % 5);
+            a.setWorkplaceType("CLINIC");
+            a.setWorkplaceAddress("12 Main Road, Bengaluru");
+            a.setAppointmentDate(SlotCodec.formatDate(day));
+            a.setSlot(SlotCodec.label(startMinute, 20));
+            a.setAppointmentTime(OffsetDateTime.of(day.atTime(SlotCodec.timeOf(startMinute)), ZoneOffset.UTC));
+            a.setDurationMinutes(20);
+            a.setQueuePosition(i % 30 + 1);
+            a.setStatus(i % 7 == 0 ? "CANCELLED" : "BOOKED");
+            a.setPatientName("Patient " + USER_ID);
+            rows.add(a);
+        }
+        rows.sort((x, y) -> y.getAppointmentTime().compareTo(x.getAppointmentTime()));
+        String today = SlotCodec.formatDate(LocalDate.now());
+        rows.removeIf(a -> a.getAppointmentDate().compareTo(today) < 0);
+
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+        when(appointmentRepository.findByUserIdFromDay(eq(USER_ID), any(LocalDate.class))).thenReturn(rows);
+        service = new EnhancedAppointmentServiceImpl(appointmentRepository, null, null, null, null, null,
+                null, null, null, null, null);
+    }
+
+    @Benchmark
+    public UserAppointmentsResponseDto userAppointments() {
+        return service.getUserAppointments(USER_ID);
+    }
+}
@@ -0,0 +1,178 @@
+package com.app.auth.benchmark;
+
+import com.app.auth.config.SlotCodec;
+import com.app.auth.dto.AvailableSlotsResponseDto;
+import com.app.auth.entity.Appointment;
+import com.app.auth.entity.BlockedSlot;
+import com.app.auth.entity.DoctorDetails;
+import com.app.auth.entity.DoctorWorkplace;
+import com.app.auth.repository.AppointmentRepository;
+import com.app.auth.repository.BlockedSlotRepository;
+import com.app.auth.repository.DoctorDetailsRepository;
+import com.app.auth.repository.DoctorWorkplaceRepository;
+import com.app.auth.service.DoctorCatalogCache;
+import com.app.auth.service.SlotAvailabilityIndex;
+import com.app.auth.service.impl.EnhancedAppointmentServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * getAvailableSlots on a warm and a cold slot index, plus slot label formatting/parsing with SlotCodec against the
+ * per-call DateTimeFormatter code it replaced. Compare the gc.alloc.rate.norm (bytes/op) columns:
+ *
+ *   mvn -Pbenchmark -DskipTests package exec:exec -Djmh.args="AvailableSlotsBenchmark -prof gc"
+ *
+ * Clinic shape: 10 minute slots 8AM-1PM and 4PM-9PM (60 a day), a third of them booked, one partial block.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailableSlotsBenchmark {
+
+    private static final long DOCTOR_ID = 1L;
+    private static final long WORKPLACE_ID = 10L;
+    private static final int DURATION = 10;
+
+    private EnhancedAppointmentServiceImpl service;
+    private SlotAvailabilityIndex slotIndex;
+    private DoctorWorkplace workplace;
+    private List<String> bookedLabels;
+
+    @Setup
+    public void setUp() {
+        DoctorDetails doctor = new DoctorDetails();
+        doctor.setId(DOCTOR_ID);
+        doctor.setFullName("Dr. Benchmark");
+
+        workplace = new DoctorWorkplace();
+        workplace.setId(WORKPLACE_ID);
+        workplace.setDoctor(doctor);
+        workplace.setWorkplaceName("City Clinic");
+        workplace.setCheckingDurationMinutes(DURATION);
+        workplace.setMorningStartTime(LocalTime.of(8, 0));
+        workplace.setMorningEndTime(LocalTime.of(13, 0));
+        workplace.setEveningStartTime(LocalTime.of(16, 0));
+        workplace.setEveningEndTime(LocalTime.of(21, 0));
+
+        DoctorDetailsRepository doctorRepository = mock(DoctorDetailsRepository.class);
+        DoctorWorkplaceRepository workplaceRepository = mock(DoctorWorkplaceRepository.class);
+        when(doctorRepository.findById(DOCTOR_ID)).thenReturn(Optional.of(doctor));
+        when(workplaceRepository.findById(WORKPLACE_ID)).thenReturn(Optional.of(workplace));
+        DoctorCatalogCache catalogCache = new DoctorCatalogCache(doctorRepository, workplaceRepository, 100, 86400);
+
+        LocalDate today = LocalDate.now();
+        List<Appointment> appointments = new ArrayList<>();
+        bookedLabels = new ArrayList<>();
+        for (int day = 0; day < 3; day++) {
+            for (int start = 8 * 60; start + DURATION <= 13 * 60; start += 3 * DURATION) {
+                appointments.add(appointment(today.plusDays(day), start));
+            }
+            for (int start = 16 * 60; start + DURATION <= 21 * 60; start += 3 * DURATION) {
+                appointments.add(appointment(today.plusDays(day), start));
+            }
+        }
+        appointments.forEach(a -> bookedLabels.add(a.getSlot()));
+
+        BlockedSlot block = new BlockedSlot();
+        block.setDoctorId(DOCTOR_ID);
+        block.setWorkplaceId(WORKPLACE_ID);
+        block.setBlockDate(today.plusDays(1));
+        block.setStartTime(LocalTime.of(11, 0));
+        block.setEndTime(LocalTime.of(12, 0));
+        block.setIsFullDay(false);
+        block.setReason("Surgery");
+
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+        BlockedSlotRepository blockedSlotRepository = mock(BlockedSlotRepository.class);
+        when(appointmentRepository.findByDoctorIdAndWorkplaceIdAndAppointmentDayBetween(anyLong(), anyLong(), any(), any()))
+                .thenReturn(appointments);
+        when(blockedSlotRepository.findActiveBlockedSlotsByWorkplaceAndDateRange(anyLong(), anyLong(), any(), any()))
+                .thenReturn(List.of(block));
+        slotIndex = new SlotAvailabilityIndex(appointmentRepository, blockedSlotRepository,
+                catalogCache, 86400);
+
+        // Only the catalog cache and slot index are used by getAvailableSlots
+        service = new EnhancedAppointmentServiceImpl(appointmentRepository, catalogCache, null, null, null,
+                slotIndex, null, null, null, null, null);
+        service.getAvailableSlots(DOCTOR_ID, WORKPLACE_ID, null);
+    }
+
+    private static Appointment appointment(LocalDate date, int startMinute) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctorId(DOCTOR_ID);
+        appointment.setWorkplaceId(WORKPLACE_ID);
+        appointment.setAppointmentDate(SlotCodec.formatDate(date));
+        appointment.setSlot(SlotCodec.label(startMinute, DURATION));
+        appointment.setStatus("BOOKED");
+        return appointment;
+    }
+
+    @Benchmark
+    public AvailableSlotsResponseDto availableSlotsThreeDays() {
+        return service.getAvailableSlots(DOCTOR_ID, WORKPLACE_ID, null);
+    }
+
+    /**
+     * Index miss: rebuild the workplace schedule (slot generation), load the days and filter booked/blocked
+     * slots. The repositories are mocks, so this is the CPU side of a cold request only.
+     */
+    @Benchmark
+    public AvailableSlotsResponseDto availableSlotsColdIndex() {
+        slotIndex.evictDoctor(DOCTOR_ID);
+        return service.getAvailableSlots(DOCTOR_ID, WORKPLACE_ID, null);
+    }
+
+    @Benchmark
+    public void slotLabelsCodec(Blackhole bh) {
+        int end = SlotCodec.minuteOf(workplace.getMorningEndTime());
+        for (int m = SlotCodec.minuteOf(workplace.getMorningStartTime()); m + DURATION <= end; m += DURATION) {
+            bh.consume(SlotCodec.label(m, DURATION));
+        }
+        for (String label : bookedLabels) {
+            bh.consume(SlotCodec.parseStartMinute(label));
+        }
+    }
+
+    @Benchmark
+    public void slotLabelsLegacy(Blackhole bh) {
+        int end = SlotCodec.minuteOf(workplace.getMorningEndTime());
+        for (int m = SlotCodec.minuteOf(workplace.getMorningStartTime()); m + DURATION <= end; m += DURATION) {
+            bh.consume(legacyLabel(m) + " - " + legacyLabel(m + DURATION));
+        }
+        for (String label : bookedLabels) {
+            bh.consume(legacyParseSlotTime(label));
+        }
+    }
+
+    // The formatting and parsing code SlotCodec replaced, kept here as the baseline
+
+    private static String legacyLabel(int minute) {
+        return LocalTime.of((minute / 60) % 24, minute % 60).format(DateTimeFormatter.ofPattern("h:mma", Locale.ENGLISH));
+    }
+
+    private static LocalTime legacyParseSlotTime(String slot) {
+        try {
+            String timeStr = slot.split(" - ")[0].trim().toUpperCase();
+            return LocalTime.parse(timeStr, DateTimeFormatter.ofPattern("h:mma", Locale.ENGLISH));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.app.auth.benchmark;
+
+import com.app.auth.config.EncryptedStringConverter;
+import com.app.auth.config.JwtClaimsCache;
+import com.app.auth.config.JwtUtil;
+import com.app.auth.config.QueryParamIdCrypto;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request work done before a controller runs: JWT verification, encoded id decoding, and the
+ * AES-GCM converter on medical fields (one decrypt per field per loaded row).
+ *
+ * EncryptedStringConverter reads APP_MEDICAL_DATA_KEY_BASE64 at class load; the benchmark profile sets a
+ * throwaway key for the forked JVMs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityPathBenchmark {
+
+    // Same scheme as the mobile app's id encoder (QueryParamIdCrypto only decodes)
+    private static final byte[] ID_KEY = "KEDULZ_QUERY_ID_V1".getBytes(StandardCharsets.UTF_8);
+
+    private JwtUtil jwtUtil;
+    private String token;
+    private String encodedId;
+    private EncryptedStringConverter converter;
+    private String medicalPlain;
+    private String medicalCipher;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil("benchmark-secret-benchmark-secret-benchmark-secret!", 3_600_000L,
+                new JwtClaimsCache(10_000, 300));
+        token = jwtUtil.generateToken("9876543210", 4242L, "USER");
+        encodedId = encodeId(123456789L);
+
+        converter = new EncryptedStringConverter();
+        medicalPlain = "Type 2 diabetes, hypertension; metformin 500mg twice daily, amlodipine 5mg";
+        medicalCipher = converter.convertToDatabaseColumn(medicalPlain);
+    }
+
+    private static String encodeId(long id) {
+        byte[] plain = ("v1:" + id).getBytes(StandardCharsets.UTF_8);
+        byte[] out = new byte[plain.length];
+        for (int i = 0; i < plain.length; i++) {
+            out[i] = (byte) (plain[i] ^ ID_KEY[i % ID_KEY.length]);
+        }
+        return "qid_" + Base64.getUrlEncoder().withoutPadding().encodeToString(out);
+    }
+
+    @Benchmark
+    public Jws<Claims> jwtParseToken() {
+        return jwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public Claims jwtVerifiedClaimsCached() {
+        return jwtUtil.getVerifiedClaims(token);
+    }
+
+    @Benchmark
+    public Long decodeEncodedId() {
+        return QueryParamIdCrypto.decodeLong(encodedId);
+    }
+
+    @Benchmark
+    public String encryptMedicalField() {
+        return converter.convertToDatabaseColumn(medicalPlain);
+    }
+
+    @Benchmark
+    public String decryptMedicalField() {
+        return converter.convertToEntityAttribute(medicalCipher);
+    }
+}
@@ -0,0 +1,537 @@
+package com.app.auth.loadtest;
+
+import com.app.auth.AppointmentAuthServiceApplication;
+import com.app.auth.config.SlotCodec;
+import com.app.auth.entity.DoctorDetails;
+import com.app.auth.entity.DoctorWorkplace;
+import com.app.auth.entity.UserDetails;
+import com.app.auth.repository.DoctorDetailsRepository;
+import com.app.auth.repository.DoctorWorkplaceRepository;
+import com.app.auth.repository.UserDetailsRepository;
+import com.app.auth.service.DoctorSearchEngine;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * "9 AM rush" load test: a popular doctor opens the day's slots and every patient tries to book at once.
+ *
+ * The driver starts Postgres (Testcontainers, or an existing database via -Dloadtest.jdbc-url), a stub Expo
+ * push endpoint and the application itself on a random port with the production Hikari pool size. It seeds
+ * doctors and patients, applies db/migrations, then releases all virtual users at the same moment. Each one
+ * logs in, searches, loads available slots and books one of the first free slots (re-reading slots when it
+ * loses the race); afterwards the doctor marks the day's bookings COMPLETED through update-status.
+ *
+ * Reports p50/p95/p99 latency and status counts per flow, and Hikari connection-acquire time and the
+ * largest number of threads seen waiting for a connection.
+ *
+ * Run: mvn -Ploadtest compile exec:exec -Dloadtest.users=500 -Dloadtest.concurrency=200
+ */
+public final class BookingRushLoadTest {
+
+    private static final String PIN = "1234";
+    private static final String POPULAR_SPECIALIZATION = "Cardiologist";
+    private static final String[] SPECIALIZATIONS = {
+            "Cardiologist", "Dermatologist", "Pediatrician", "Orthopedic Surgeon", "General Physician",
+            "Gynecologist", "Neurologist", "ENT Specialist", "Ophthalmologist", "Dentist"
+    };
+    private static final String[] CITIES = {"Hyderabad", "Bengaluru", "Chennai", "Pune", "Mumbai"};
+
+    private final int users = Integer.getInteger("loadtest.users", 300);
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 100);
+    private final int doctors = Integer.getInteger("loadtest.doctors", 200);
+    private final int poolSize = Integer.getInteger("loadtest.pool-size", 3);
+    private final int hotSlots = Integer.getInteger("loadtest.hot-slots", 10);
+    private final int bookAttempts = Integer.getInteger("loadtest.book-attempts", 3);
+    private final long expoLatencyMillis = Long.getLong("loadtest.expo-latency-ms", 150);
+    private final int busyRetries = Integer.getInteger("loadtest.busy-retries", 3);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final Map<String, List<Long>> bookedUsersByDate = new ConcurrentHashMap<>();
+    private final AtomicInteger failedUsers = new AtomicInteger();
+
+    private HttpClient http;
+    private String baseUrl;
+    private long popularDoctorId;
+    private long popularWorkplaceId;
+    private String popularDoctorMobile;
+
+    public static void main(String[] args) throws Exception {
+        new BookingRushLoadTest().run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        PostgreSQLContainer<?> postgres = null;
+        String jdbcUrl = System.getProperty("loadtest.jdbc-url", "");
+        String dbUser = System.getProperty("loadtest.db-username", "postgres");
+        String dbPassword = System.getProperty("loadtest.db-password", "postgres");
+        if (jdbcUrl.isBlank()) {
+            postgres = new PostgreSQLContainer<>(System.getProperty("loadtest.postgres-image", "postgres:16-alpine"));
+            postgres.start();
+            jdbcUrl = postgres.getJdbcUrl();
+            dbUser = postgres.getUsername();
+            dbPassword = postgres.getPassword();
+        }
+
+        initializeFirebase();
+        try (StubExpoServer expo = new StubExpoServer(expoLatencyMillis)) {
+            ConfigurableApplicationContext context = startApplication(jdbcUrl, dbUser, dbPassword, expo.url());
+            try {
+                applyMigrations(context.getBean(JdbcTemplate.class));
+                seed(context);
+
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                baseUrl = "http://127.0.0.1:" + port;
+                ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+                // Own executor for the client: its response handling must not queue behind blocked workers
+                ExecutorService clientExecutor = Executors.newCachedThreadPool();
+                http = HttpClient.newBuilder()
+                        .executor(clientExecutor)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+
+                HikariWatch hikari = new HikariWatch(context);
+                long started = System.nanoTime();
+                runRush(workers);
+                runDoctorStatusUpdates();
+                long elapsed = System.nanoTime() - started;
+                long drainNanos = drainOutbox(context.getBean(JdbcTemplate.class));
+                long doubleBooked = countDoubleBookedSlots(context.getBean(JdbcTemplate.class));
+                hikari.stop();
+                workers.shutdownNow();
+                clientExecutor.shutdownNow();
+
+                printReport(elapsed, drainNanos, doubleBooked, hikari, expo);
+            } finally {
+                context.close();
+            }
+        } finally {
+            if (postgres != null) {
+                postgres.stop();
+            }
+        }
+    }
+
+    // ==================== ENVIRONMENT ====================
+
+    /**
+     * FirebaseConfigSecure skips its credential lookup when an app already exists; push goes through the
+     * Expo stub, so a placeholder app is enough.
+     */
+    private static void initializeFirebase() {
+        if (FirebaseApp.getApps().isEmpty()) {
+            FirebaseApp.initializeApp(FirebaseOptions.builder()
+                    .setCredentials(GoogleCredentials.create(new AccessToken("loadtest", null)))
+                    .setProjectId("loadtest")
+                    .build());
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(String jdbcUrl, String user, String password,
+                                                            String expoUrl) {
+        // Command-line arguments win over application.properties, so its ${ENV} placeholders are never resolved
+        return new SpringApplicationBuilder(AppointmentAuthServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=" + user,
+                "--spring.datasource.password=" + password,
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--app.jwt.secret=loadtest-secret-loadtest-secret-loadtest-secret-0123",
+                "--swagger.auth.username=loadtest",
+                "--swagger.auth.password=loadtest",
+                "--app.notifications.expo.url=" + expoUrl,
+                "--management.metrics.distribution.percentiles.hikaricp.connections.acquire=0.5,0.95,0.99",
+                "--logging.level.root=WARN",
+                "--logging.level.com.app.auth=WARN",
+                "--logging.level.com.app.auth.interceptor.ApiLoggingInterceptor=WARN");
+    }
+
+    /**
+     * Hibernate creates the entity tables; the hand-written migrations add counters, triggers and indexes.
+     * CONCURRENTLY is dropped because a multi-statement script runs inside one implicit transaction.
+     */
+    private static void applyMigrations(JdbcTemplate jdbc) throws IOException {
+        Resource[] scripts = new PathMatchingResourcePatternResolver().getResources("classpath:db/migrations/*.sql");
+        Arrays.sort(scripts, Comparator.comparing(Resource::getFilename));
+        for (Resource script : scripts) {
+            String sql = script.getContentAsString(StandardCharsets.UTF_8).replace(" CONCURRENTLY", "");
+            jdbc.execute(sql);
+        }
+    }
+
+    private void seed(ConfigurableApplicationContext context) {
+        DoctorDetailsRepository doctorRepository = context.getBean(DoctorDetailsRepository.class);
+        DoctorWorkplaceRepository workplaceRepository = context.getBean(DoctorWorkplaceRepository.class);
+        UserDetailsRepository userRepository = context.getBean(UserDetailsRepository.class);
+        // One bcrypt hash for everybody: login still pays the full verify on the server
+        String pinHash = context.getBean(PasswordEncoder.class).encode(PIN);
+
+        for (int i = 0; i < doctors; i++) {
+            boolean popular = i == 0;
+            DoctorDetails doctor = new DoctorDetails();
+            doctor.setFullName(popular ? "Dr Asha Rao" : "Dr Load " + i);
+            doctor.setEmail("doctor" + i + "@loadtest.local");
+            doctor.setMobileNumber(String.format("7%09d", i));
+            doctor.setSpecialization(popular ? POPULAR_SPECIALIZATION : SPECIALIZATIONS[i % SPECIALIZATIONS.length]);
+            doctor.setCity(CITIES[i % CITIES.length]);
+            doctor.setVerified(true);
+            doctor.setRole("DOCTOR");
+            doctor.setPinHash(pinHash);
+            doctor = doctorRepository.save(doctor);
+
+            DoctorWorkplace workplace = new DoctorWorkplace();
+            workplace.setDoctor(doctor);
+            workplace.setWorkplaceName(popular ? "Rush Heart Clinic" : "Clinic " + i);
+            workplace.setWorkplaceType("CLINIC");
+            workplace.setCity(doctor.getCity());
+            workplace.setMorningStartTime(LocalTime.of(0, 0));
+            workplace.setMorningEndTime(LocalTime.NOON);
+            workplace.setEveningStartTime(LocalTime.NOON);
+            workplace.setEveningEndTime(LocalTime.of(23, 50));
+            workplace.setCheckingDurationMinutes(10);
+            workplace.setIsPrimary(true);
+            workplace = workplaceRepository.save(workplace);
+
+            if (popular) {
+                popularDoctorId = doctor.getId();
+                popularWorkplaceId = workplace.getId();
+                popularDoctorMobile = doctor.getMobileNumber();
+            }
+        }
+
+        List<UserDetails> patients = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            UserDetails user = new UserDetails();
+            user.setFullName("Patient " + i);
+            user.setMobileNumber(String.format("9%09d", i));
+            user.setCity(CITIES[i % CITIES.length]);
+            user.setRole("USER");
+            user.setPinHash(pinHash);
+            user.setFcmToken("ExponentPushToken[loadtest-" + i + "]");
+            user.setNotificationsEnabled(true);
+            patients.add(user);
+        }
+        userRepository.saveAll(patients);
+
+        // The search index was built at startup, before the doctors existed
+        context.getBean(DoctorSearchEngine.class).rebuild();
+    }
+
+    // ==================== SCENARIO ====================
+
+    private void runRush(ExecutorService workers) throws Exception {
+        CountDownLatch nineAm = new CountDownLatch(1);
+        List<Future<?>> patients = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            String mobile = String.format("9%09d", i);
+            patients.add(workers.submit(() -> {
+                nineAm.await();
+                try {
+                    patient(mobile);
+                } catch (Exception e) {
+                    failedUsers.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        nineAm.countDown();
+        for (Future<?> patient : patients) {
+            patient.get();
+        }
+    }
+
+    private void patient(String mobile) throws Exception {
+        Optional<JsonNode> session = login(mobile);
+        if (session.isEmpty()) {
+            failedUsers.incrementAndGet();
+            return;
+        }
+        String token = session.get().path("accessToken").asText();
+        long userId = session.get().path("id").asLong();
+
+        send("search", get("/api/doctors/search/enhanced?keyword=" + encode(POPULAR_SPECIALIZATION), token));
+
+        for (int attempt = 0; attempt < bookAttempts; attempt++) {
+            HttpResponse<String> slots = send("available-slots", get("/api/user/available-slots?doctorId="
+                    + popularDoctorId + "&workplaceId=" + popularWorkplaceId, token));
+            if (slots == null || slots.statusCode() != 200) {
+                return;
+            }
+            Optional<Map.Entry<String, String>> pick = pickSlot(mapper.readTree(slots.body()));
+            if (pick.isEmpty()) {
+                return;
+            }
+
+            String date = pick.get().getKey();
+            String slot = pick.get().getValue();
+            SlotCodec.Slot parsed = SlotCodec.parse(slot, 10);
+            OffsetDateTime requestedTime = LocalDate.parse(date).atTime(parsed.startTime())
+                    .atZone(ZoneId.systemDefault()).toOffsetDateTime();
+
+            ObjectNode body = mapper.createObjectNode()
+                    .put("doctorId", popularDoctorId)
+                    .put("workplaceId", popularWorkplaceId)
+                    .put("requestedTime", requestedTime.toString())
+                    .put("slot", slot)
+                    .put("notes", "9 AM rush");
+            HttpResponse<String> booked = send("book", post("/api/user/" + userId + "/appointments/book", token, body));
+            if (booked != null && booked.statusCode() == 201) {
+                bookedUsersByDate.computeIfAbsent(date, d -> new ArrayList<>());
+                List<Long> booking = bookedUsersByDate.get(date);
+                synchronized (booking) {
+                    booking.add(userId);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Random pick among the first few free slots of the first date that has any: everybody wants the
+     * earliest appointment, which is what makes the real rush collide.
+     */
+    private Optional<Map.Entry<String, String>> pickSlot(JsonNode response) {
+        Iterator<Map.Entry<String, JsonNode>> dates = response.path("slotsByDate").fields();
+        while (dates.hasNext()) {
+            Map.Entry<String, JsonNode> date = dates.next();
+            JsonNode slots = date.getValue();
+            if (slots.isArray() && slots.size() > 0) {
+                int index = ThreadLocalRandom.current().nextInt(Math.min(hotSlots, slots.size()));
+                return Optional.of(Map.entry(date.getKey(), slots.get(index).asText()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void runDoctorStatusUpdates() throws Exception {
+        Optional<JsonNode> session = login(popularDoctorMobile);
+        if (session.isEmpty()) {
+            return;
+        }
+        String token = session.get().path("accessToken").asText();
+        for (Map.Entry<String, List<Long>> date : new TreeMap<>(bookedUsersByDate).entrySet()) {
+            List<Long> userIds = date.getValue();
+            for (int from = 0; from < userIds.size(); from += 25) {
+                ObjectNode body = mapper.createObjectNode()
+                        .put("status", "COMPLETED")
+                        .put("notes", "Seen during load test");
+                userIds.subList(from, Math.min(userIds.size(), from + 25)).forEach(body.putArray("userIds")::add);
+                send("update-status", put("/api/doctors/" + popularDoctorId + "/appointments/" + date.getKey()
+                        + "/update-status", token, body));
+            }
+        }
+    }
+
+    /**
+     * Slots holding more than one live appointment; must stay 0 with ux_appointments_active_slot in place.
+     * Rows without a slot start are not constrained by the index and are left out.
+     */
+    private static long countDoubleBookedSlots(JdbcTemplate jdbc) {
+        Long count = jdbc.queryForObject("SELECT count(*) FROM (SELECT 1 FROM appointments "
+                + "WHERE status <> 'CANCELLED' AND slot_start IS NOT NULL "
+                + "GROUP BY doctor_id, workplace_id, appointment_day, slot_start HAVING count(*) > 1) dup", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Completion pushes go through the outbox; waits (up to loadtest.drain-seconds) until the dispatcher has
+     * delivered them to the Expo stub and returns how long that took.
+     */
+    private static long drainOutbox(JdbcTemplate jdbc) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(Long.getLong("loadtest.drain-seconds", 60));
+        while (System.nanoTime() < deadline) {
+            Integer open = jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM notification_outbox WHERE status IN ('PENDING', 'SENDING')", Integer.class);
+            if (open == null || open == 0) {
+                break;
+            }
+            Thread.sleep(200);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private Optional<JsonNode> login(String mobile) throws IOException {
+        ObjectNode body = mapper.createObjectNode().put("mobileNumber", mobile).put("pin", PIN);
+        HttpResponse<String> response = send("login", post("/api/auth/login", null, body));
+        if (response == null || response.statusCode() != 200) {
+            return Optional.empty();
+        }
+        return Optional.of(mapper.readTree(response.body()));
+    }
+
+    // ==================== HTTP ====================
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, JsonNode body) {
+        return request(path, token).POST(HttpRequest.BodyPublishers.ofString(body.toString())).build();
+    }
+
+    private HttpRequest put(String path, String token, JsonNode body) {
+        return request(path, token).PUT(HttpRequest.BodyPublishers.ofString(body.toString())).build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    /**
+     * Sends and records latency under the flow name; transport failures count as status 0 and return null.
+     * A 429 is recorded and retried after its Retry-After, like the app does, up to loadtest.busy-retries times.
+     */
+    private HttpResponse<String> send(String flow, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            recorder.flow(flow).record(System.nanoTime() - start, response.statusCode());
+            for (int retry = 0; response.statusCode() == 429 && retry < busyRetries; retry++) {
+                long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1L);
+                Thread.sleep(TimeUnit.SECONDS.toMillis(retryAfter));
+                start = System.nanoTime();
+                response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                recorder.flow(flow).record(System.nanoTime() - start, response.statusCode());
+            }
+            return response;
+        } catch (IOException e) {
+            recorder.flow(flow).record(System.nanoTime() - start, 0);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    // ==================== HIKARI ====================
+
+    /**
+     * Connection-acquire timer from Micrometer (delta over the run) plus a sampler of threads blocked on
+     * the pool, which the timer alone does not show.
+     */
+    private static final class HikariWatch {
+
+        private final Timer acquire;
+        private final long startCount;
+        private final double startTotalMillis;
+        private final HikariDataSource dataSource;
+        private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        private final AtomicInteger maxWaiting = new AtomicInteger();
+        private final AtomicInteger maxActive = new AtomicInteger();
+
+        HikariWatch(ConfigurableApplicationContext context) throws Exception {
+            this.acquire = context.getBean(MeterRegistry.class).find("hikaricp.connections.acquire").timer();
+            this.startCount = acquire != null ? acquire.count() : 0;
+            this.startTotalMillis = acquire != null ? acquire.totalTime(TimeUnit.MILLISECONDS) : 0;
+            this.dataSource = context.getBean(DataSource.class).unwrap(HikariDataSource.class);
+            sampler.scheduleAtFixedRate(() -> {
+                maxWaiting.accumulateAndGet(dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection(), Math::max);
+                maxActive.accumulateAndGet(dataSource.getHikariPoolMXBean().getActiveConnections(), Math::max);
+            }, 0, 20, TimeUnit.MILLISECONDS);
+        }
+
+        void stop() {
+            sampler.shutdownNow();
+        }
+
+        void print() {
+            System.out.printf("%nHikari pool (max %d connections)%n", dataSource.getMaximumPoolSize());
+            if (acquire != null) {
+                long count = acquire.count() - startCount;
+                double totalMillis = acquire.totalTime(TimeUnit.MILLISECONDS) - startTotalMillis;
+                System.out.printf("  acquires %d, mean wait %.2f ms, max wait %.2f ms%n",
+                        count, count > 0 ? totalMillis / count : 0.0, acquire.max(TimeUnit.MILLISECONDS));
+                for (ValueAtPercentile percentile : acquire.takeSnapshot().percentileValues()) {
+                    System.out.printf("  p%.0f wait %.2f ms%n",
+                            percentile.percentile() * 100, percentile.value(TimeUnit.MILLISECONDS));
+                }
+            }
+            System.out.printf("  peak active %d, peak threads waiting %d%n", maxActive.get(), maxWaiting.get());
+        }
+    }
+
+    // ==================== REPORT ====================
+
+    private void printReport(long elapsedNanos, long drainNanos, long doubleBooked, HikariWatch hikari, StubExpoServer expo) {
+        System.out.printf("%n9 AM rush: %d patients, %d concurrent, %.1f s%n",
+                users, concurrency, elapsedNanos / 1e9);
+        System.out.printf("%-16s %8s %10s %10s %10s %10s  %s%n", "flow", "count", "p50 ms", "p95 ms", "p99 ms",
+                "max ms", "statuses");
+        for (LatencyRecorder.Flow flow : recorder.flows()) {
+            long[] sorted = flow.sorted();
+            System.out.printf("%-16s %8d %10.1f %10.1f %10.1f %10.1f  %s%n", flow.name(), sorted.length,
+                    LatencyRecorder.percentileMillis(sorted, 50),
+                    LatencyRecorder.percentileMillis(sorted, 95),
+                    LatencyRecorder.percentileMillis(sorted, 99),
+                    LatencyRecorder.percentileMillis(sorted, 100),
+                    flow.statuses());
+        }
+        int booked = bookedUsersByDate.values().stream().mapToInt(List::size).sum();
+        System.out.printf("%nbooked %d of %d patients, %d failed before booking, %d double-booked slots%n",
+                booked, users, failedUsers.get(), doubleBooked);
+        hikari.print();
+        System.out.printf("%nExpo stub: %d requests, %d messages, outbox drained %.1f s after the last update%n",
+                expo.requests(), expo.messages(), drainNanos / 1e9);
+    }
+}
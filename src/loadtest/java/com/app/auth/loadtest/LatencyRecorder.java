@@ -0,0 +1,74 @@
+package com.app.auth.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-flow latency samples and HTTP status counts. Samples are kept raw (a run is at most a few
+ * hundred thousand requests) so percentiles are exact rather than bucketed.
+ */
+final class LatencyRecorder {
+
+    private final Map<String, Flow> flows = new LinkedHashMap<>();
+
+    synchronized Flow flow(String name) {
+        return flows.computeIfAbsent(name, Flow::new);
+    }
+
+    synchronized Iterable<Flow> flows() {
+        return flows.values();
+    }
+
+    static final class Flow {
+
+        private final String name;
+        private long[] samples = new long[1024];
+        private int size;
+        private final Map<Integer, Integer> statuses = new ConcurrentHashMap<>();
+
+        private Flow(String name) {
+            this.name = name;
+        }
+
+        String name() {
+            return name;
+        }
+
+        void record(long nanos, int status) {
+            synchronized (this) {
+                if (size == samples.length) {
+                    samples = Arrays.copyOf(samples, size * 2);
+                }
+                samples[size++] = nanos;
+            }
+            statuses.merge(status, 1, Integer::sum);
+        }
+
+        /**
+         * Sorted copy of the samples (nanoseconds)
+         */
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        Map<Integer, Integer> statuses() {
+            return new TreeMap<>(statuses);
+        }
+    }
+
+    /**
+     * Nearest-rank percentile of sorted samples, in milliseconds
+     */
+    static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,93 @@
+package com.app.auth.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for https://exp.host/--/api/v2/push/send. Accepts a JSON array of messages (or one message),
+ * waits a configurable time to mimic the real round trip and answers one "ok" ticket per message,
+ * in request order, like Expo does.
+ */
+final class StubExpoServer implements AutoCloseable {
+
+    static final String PATH = "/--/api/v2/push/send";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMillis;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong messages = new AtomicLong();
+
+    StubExpoServer(long latencyMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.executor = Executors.newFixedThreadPool(16);
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    long messages() {
+        return messages.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            JsonNode body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = mapper.readTree(in);
+            }
+            int count = body != null && body.isArray() ? body.size() : 1;
+            requests.incrementAndGet();
+            long first = messages.getAndAdd(count);
+
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            StringBuilder response = new StringBuilder("{\"data\":[");
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    response.append(',');
+                }
+                response.append("{\"status\":\"ok\",\"id\":\"stub-").append(first + i).append("\"}");
+            }
+            byte[] bytes = response.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
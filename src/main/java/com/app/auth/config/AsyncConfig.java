@@ -1,7 +1,11 @@
 package com.app.auth.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
@@ -13,12 +17,27 @@ import java.util.concurrent.Executor;
 @Configuration
 public class AsyncConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
     /**
      * Thread pool for async operations (like logging)
-     * Configured with optimal settings to avoid resource exhaustion
+     * Configured with optimal settings to avoid resource exhaustion.
+     * With spring.threads.virtual.enabled on Java 21+ every task gets its own virtual thread instead
+     * (Tomcat request threads switch to virtual threads through the same property).
      */
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    public Executor taskExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            if (Runtime.version().feature() >= 21) {
+                SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Async-Logging-");
+                executor.setVirtualThreads(true);
+                executor.setTaskTerminationTimeout(60_000);
+                return executor;
+            }
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; "
+                    + "using platform threads (run on Java 21+)", Runtime.version().feature());
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         
         // Core pool size - minimum threads always alive
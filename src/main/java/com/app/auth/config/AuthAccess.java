@@ -22,6 +22,28 @@ public final class AuthAccess {
         throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing authenticated user");
     }
 
+    /**
+     * Authenticated user id, or null for anonymous requests (never throws; used for logging)
+     */
+    public static Long currentUserIdOrNull() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getDetails() instanceof Map<?, ?> claims)) {
+            return null;
+        }
+        Object value = claims.get("userId");
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text) {
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
     public static String currentRole() {
         Object value = currentClaim("role");
         return value == null ? null : value.toString();
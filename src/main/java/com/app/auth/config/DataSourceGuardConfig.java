@@ -0,0 +1,39 @@
+package com.app.auth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Wraps the Hikari pool in a ConnectionGuardDataSource when app.datasource.guard.enabled is set
+ * (on by default together with spring.threads.virtual.enabled).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.guard.enabled", havingValue = "true")
+public class DataSourceGuardConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceGuardConfig.class);
+
+    @Bean
+    public static BeanPostProcessor connectionGuardPostProcessor(Environment environment) {
+        int maxWaiting = environment.getProperty("app.datasource.guard.max-waiting", Integer.class, 200);
+        long acquireTimeoutMs = environment.getProperty("app.datasource.guard.acquire-timeout-ms", Long.class, 10_000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                int permits = hikari.getMaximumPoolSize();
+                logger.info("Connection guard on '{}': {} permits, max {} waiting, {} ms acquire timeout",
+                        beanName, permits, maxWaiting, acquireTimeoutMs);
+                return new ConnectionGuardDataSource(hikari, permits, maxWaiting, acquireTimeoutMs);
+            }
+        };
+    }
+}
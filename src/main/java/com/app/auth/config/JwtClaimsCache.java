@@ -0,0 +1,105 @@
+package com.app.auth.config;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of already verified JWT claims, keyed by SHA-256 of the token (raw tokens are never kept).
+ * An entry lives at most ttl-seconds and never past the token's own expiry, so a cache hit can skip
+ * signature verification and JSON parsing without ever accepting an expired token.
+ */
+@Component
+public class JwtClaimsCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    public JwtClaimsCache(@Value("${app.jwt.claims-cache.max-entries:10000}") int maxEntries,
+                          @Value("${app.jwt.claims-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000L;
+    }
+
+    /**
+     * Cached claims for the token, or null if not cached / expired
+     */
+    public Claims get(String token) {
+        String key = hash(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.claims;
+    }
+
+    public void put(String token, Claims claims) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttlMillis;
+        if (claims.getExpiration() != null) {
+            expiresAt = Math.min(expiresAt, claims.getExpiration().getTime());
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            makeRoom(now);
+        }
+        entries.put(hash(token), new Entry(claims, expiresAt));
+    }
+
+    /**
+     * Drop a token (called when it is blacklisted)
+     */
+    public void evict(String token) {
+        entries.remove(hash(token));
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.claims-cache.cleanup-interval-ms:300000}")
+    public void removeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    private void makeRoom(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        // Still full: drop an arbitrary tenth, those tokens are simply verified again on next use
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        Iterator<String> it = entries.keySet().iterator();
+        int toDrop = Math.max(1, maxEntries / 10);
+        while (it.hasNext() && toDrop-- > 0) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(Claims claims, long expiresAt) {}
+}
@@ -19,11 +19,17 @@ public class JwtUtil {
 
     private final Key key;
     private final long expirationMs;
+    // JwtParser is immutable and thread-safe, build it once instead of per request
+    private final JwtParser parser;
+    private final JwtClaimsCache claimsCache;
 
     public JwtUtil(@Value("${app.jwt.secret}") String secret,
-                   @Value("${app.jwt.expiration-ms}") long expirationMs) {
+                   @Value("${app.jwt.expiration-ms}") long expirationMs,
+                   JwtClaimsCache claimsCache) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
         this.expirationMs = expirationMs;
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.claimsCache = claimsCache;
     }
 
     public String generateToken(String subject) {
@@ -38,7 +44,20 @@ public class JwtUtil {
     }
 
     public Jws<Claims> parseToken(String token) throws JwtException {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        return parser.parseClaimsJws(token);
+    }
+
+    /**
+     * Verified claims of the token; repeated calls with the same token are served from the claims cache
+     */
+    public Claims getVerifiedClaims(String token) throws JwtException {
+        Claims cached = claimsCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        claimsCache.put(token, claims);
+        return claims;
     }
 
 //    private Key getSigningKey() {
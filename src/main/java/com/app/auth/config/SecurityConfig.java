@@ -6,7 +6,6 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
@@ -109,7 +108,7 @@ public class SecurityConfig {
         configuration.addAllowedOriginPattern("*");
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH", "HEAD"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Total-Count"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Total-Count", "X-Next-Cursor"));
         configuration.setAllowCredentials(false);
         configuration.setMaxAge(3600L);
         
@@ -159,11 +158,11 @@ public class SecurityConfig {
                         return;
                     }
                     
-                    Jws<Claims> claims = jwtUtil.parseToken(token);
-                    String sub = claims.getBody().getSubject();
-                    String role = claims.getBody().get("role", String.class);
+                    Claims claims = jwtUtil.getVerifiedClaims(token);
+                    String sub = claims.getSubject();
+                    String role = claims.get("role", String.class);
                     Map<String, Object> authDetails = new HashMap<>();
-                    authDetails.put("userId", claims.getBody().get("userId"));
+                    authDetails.put("userId", claims.get("userId"));
                     authDetails.put("role", role);
 
                     List<SimpleGrantedAuthority> authorities = role == null
@@ -0,0 +1,195 @@
+package com.app.auth.config;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Slot labels ("9:00AM - 9:30AM") to and from a canonical (start minute, duration) model.
+ *
+ * Time labels for every minute of the day are built once, and full slot labels are interned per
+ * (start, duration) pair, so every workplace schedule shares the same String instances and formatting
+ * a slot allocates nothing. Parsing is a single pass over the characters (no split, regex or formatter);
+ * it accepts "9:00AM", "9:00 AM", "09:00am" and 24-hour "13:00".
+ */
+public final class SlotCodec {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private static final DateTimeFormatter TIME_LABEL = DateTimeFormatter.ofPattern("h:mma", Locale.ENGLISH);
+
+    // Index = minute of day; MINUTES_PER_DAY maps to "12:00AM" for slots ending at midnight
+    private static final String[] TIME_LABELS = new String[MINUTES_PER_DAY + 1];
+
+    // duration -> labels indexed by start minute ("h:mmAM - h:mmPM"), filled on first use
+    private static final Map<Integer, String[]> SLOT_LABELS = new ConcurrentHashMap<>();
+
+    static {
+        for (int minute = 0; minute <= MINUTES_PER_DAY; minute++) {
+            TIME_LABELS[minute] = LocalTime.of((minute / 60) % 24, minute % 60).format(TIME_LABEL);
+        }
+    }
+
+    private SlotCodec() {
+    }
+
+    /**
+     * Canonical slot: start as minute of day and length in minutes
+     */
+    public record Slot(int startMinute, int durationMinutes) {
+
+        public int endMinute() {
+            return startMinute + durationMinutes;
+        }
+
+        public LocalTime startTime() {
+            return timeOf(startMinute);
+        }
+
+        public String label() {
+            return SlotCodec.label(startMinute, durationMinutes);
+        }
+    }
+
+    // ==================== FORMAT ====================
+
+    /**
+     * Interned label of a slot, e.g. label(540, 30) -> "9:00AM - 9:30AM"
+     */
+    public static String label(int startMinute, int durationMinutes) {
+        if (startMinute < 0 || durationMinutes <= 0 || startMinute + durationMinutes > MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("Slot out of range: " + startMinute + "+" + durationMinutes);
+        }
+        String[] byStart = SLOT_LABELS.computeIfAbsent(durationMinutes, d -> new String[MINUTES_PER_DAY]);
+        String label = byStart[startMinute];
+        if (label == null) {
+            // Racing writers store equal strings; either one is fine
+            label = TIME_LABELS[startMinute] + " - " + TIME_LABELS[startMinute + durationMinutes];
+            byStart[startMinute] = label;
+        }
+        return label;
+    }
+
+    /**
+     * "9:00AM" style label of a time (seconds are dropped)
+     */
+    public static String formatTime(LocalTime time) {
+        return TIME_LABELS[minuteOf(time)];
+    }
+
+    public static String formatDate(LocalDate date) {
+        return date.format(DATE);
+    }
+
+    // ==================== PARSE ====================
+
+    /**
+     * Parse a slot label. A label without an end ("9:00AM") gets the given default duration.
+     * Returns null when the label is not recognized.
+     */
+    public static Slot parse(String label, int defaultDurationMinutes) {
+        if (label == null) {
+            return null;
+        }
+        int dash = label.indexOf('-');
+        int start = parseTime(label, 0, dash >= 0 ? dash : label.length());
+        if (start < 0) {
+            return null;
+        }
+        if (dash < 0) {
+            return defaultDurationMinutes > 0 ? new Slot(start, defaultDurationMinutes) : null;
+        }
+        int end = parseTime(label, dash + 1, label.length());
+        if (end < 0) {
+            return null;
+        }
+        if (end == 0 && start > 0) {
+            end = MINUTES_PER_DAY; // ends at midnight
+        }
+        return end > start ? new Slot(start, end - start) : null;
+    }
+
+    /**
+     * Start of a slot label as minute of day, or -1 when it is not recognized
+     */
+    public static int parseStartMinute(String label) {
+        if (label == null) {
+            return -1;
+        }
+        int dash = label.indexOf('-');
+        return parseTime(label, 0, dash >= 0 ? dash : label.length());
+    }
+
+    /**
+     * One time of a slot label as minute of day, or -1 when it is not recognized
+     */
+    public static int parseTime(String text) {
+        return text != null ? parseTime(text, 0, text.length()) : -1;
+    }
+
+    private static int parseTime(String s, int from, int to) {
+        int i = skipSpaces(s, from, to);
+        int hour = 0;
+        int digits = 0;
+        while (i < to && isDigit(s.charAt(i)) && digits < 2) {
+            hour = hour * 10 + (s.charAt(i++) - '0');
+            digits++;
+        }
+        if (digits == 0 || i >= to || s.charAt(i++) != ':') {
+            return -1;
+        }
+        if (i + 2 > to || !isDigit(s.charAt(i)) || !isDigit(s.charAt(i + 1))) {
+            return -1;
+        }
+        int minute = (s.charAt(i) - '0') * 10 + (s.charAt(i + 1) - '0');
+        i = skipSpaces(s, i + 2, to);
+        if (minute > 59) {
+            return -1;
+        }
+
+        if (i == to) {
+            // 24-hour clock
+            return hour <= 23 ? hour * 60 + minute : -1;
+        }
+        if (i + 2 != skipSpacesBack(s, i, to) || hour < 1 || hour > 12) {
+            return -1;
+        }
+        char meridiem = Character.toUpperCase(s.charAt(i));
+        if (Character.toUpperCase(s.charAt(i + 1)) != 'M' || (meridiem != 'A' && meridiem != 'P')) {
+            return -1;
+        }
+        return (hour % 12 + (meridiem == 'P' ? 12 : 0)) * 60 + minute;
+    }
+
+    // ==================== CONVERSIONS ====================
+
+    public static int minuteOf(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    public static LocalTime timeOf(int minute) {
+        return LocalTime.of((minute / 60) % 24, minute % 60);
+    }
+
+    private static int skipSpaces(String s, int from, int to) {
+        while (from < to && s.charAt(from) == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int skipSpacesBack(String s, int from, int to) {
+        while (to > from && s.charAt(to - 1) == ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
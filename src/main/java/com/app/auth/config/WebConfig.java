@@ -22,11 +22,14 @@ public class WebConfig implements WebMvcConfigurer {
     
     private final DateConverter dateConverter;
     private final HandlerInterceptor apiLoggingInterceptor;
+    private final HandlerInterceptor admissionControlInterceptor;
     
     public WebConfig(DateConverter dateConverter, 
-                     @Qualifier("apiLoggingInterceptor") HandlerInterceptor apiLoggingInterceptor) {
+                     @Qualifier("apiLoggingInterceptor") HandlerInterceptor apiLoggingInterceptor,
+                     @Qualifier("admissionControlInterceptor") HandlerInterceptor admissionControlInterceptor) {
         this.dateConverter = dateConverter;
         this.apiLoggingInterceptor = apiLoggingInterceptor;
+        this.admissionControlInterceptor = admissionControlInterceptor;
     }
     
     @Override
@@ -76,7 +79,7 @@ public class WebConfig implements WebMvcConfigurer {
     }
 
     /**
-     * Register API Logging Interceptor
+     * Register API Logging and Admission Control Interceptors
      * Configured to target specific endpoints for performance optimization
      */
     @Override
@@ -93,5 +96,16 @@ public class WebConfig implements WebMvcConfigurer {
                     "/swagger-resources/**",
                     "/webjars/**"
                 );
+
+        // Registered after the logging interceptor so shed requests (429) still show up in the access log
+        registry.addInterceptor(admissionControlInterceptor)
+                .addPathPatterns("/api/**")
+                .excludePathPatterns(
+                    "/api/health",
+                    "/api/actuator/**",
+                    "/api/alerts/health",
+                    "/api/notifications/health",
+                    "/api/test/**"
+                );
     }
 }
@@ -3,9 +3,12 @@ package com.app.auth.controller;
 import com.app.auth.config.QueryParamIdCrypto;
 import com.app.auth.dto.BlockedSlotDto;
 import com.app.auth.dto.BlockSlotRequest;
+import com.app.auth.service.AccessLog;
 import com.app.auth.service.BlockedSlotService;
 import com.app.auth.service.impl.BlockedSlotServiceImpl;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,10 +21,14 @@ import java.util.Map;
 @RequestMapping("/api/doctor")
 public class BlockedSlotController {
 
+    private static final Logger logger = LoggerFactory.getLogger(BlockedSlotController.class);
+
     private final BlockedSlotServiceImpl blockedSlotService;
+    private final AccessLog accessLog;
 
-    public BlockedSlotController(BlockedSlotServiceImpl blockedSlotService) {
+    public BlockedSlotController(BlockedSlotServiceImpl blockedSlotService, AccessLog accessLog) {
         this.blockedSlotService = blockedSlotService;
+        this.accessLog = accessLog;
     }
 
     /**
@@ -35,13 +42,10 @@ public class BlockedSlotController {
             @Valid @RequestBody BlockSlotRequest request) {
         Long doctorId = QueryParamIdCrypto.decodeLong(encodedDoctorId);
         
-        System.out.println("[BlockedSlotController] Creating blocked slot for doctor " + doctorId);
-        System.out.println("[BlockedSlotController] Request: date=" + request.getDate() + 
-                          ", workplaceId=" + request.getWorkplaceId() +
-                          ", isFullDay=" + request.getIsFullDay() +
-                          ", startTime=" + request.getStartTime() + 
-                          ", endTime=" + request.getEndTime() +
-                          ", cancelExisting=" + request.getCancelExistingAppointments());
+        accessLog.debug(logger, "Creating blocked slot for doctor {}: date={}, workplaceId={}, isFullDay={}, "
+                        + "startTime={}, endTime={}, cancelExisting={}", doctorId, request.getDate(),
+                request.getWorkplaceId(), request.getIsFullDay(), request.getStartTime(), request.getEndTime(),
+                request.getCancelExistingAppointments());
         
         BlockedSlotDto blockedSlot = blockedSlotService.createBlockedSlot(doctorId, request);
         int cancelledCount = blockedSlotService.getLastCancelledCount();
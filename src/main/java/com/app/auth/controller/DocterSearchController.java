@@ -31,6 +31,15 @@ public class DocterSearchController {
         return ResponseEntity.ok(results);
     }
     
+    @GetMapping("/search/paginated")
+    public ResponseEntity<PaginatedDoctorResponseDto> searchDoctorsPaginated(
+            @RequestParam("keyword") String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        PaginatedDoctorResponseDto results = doctorService.searchDoctorsPaginated(keyword, page, size);
+        return ResponseEntity.ok(results);
+    }
+    
     @GetMapping("/search/nearby")
     public ResponseEntity<List<DoctorSearchResponseDto>> findNearbyDoctors(
             @RequestParam("location") String location) {
@@ -3,24 +3,30 @@ package com.app.auth.controller;
 import com.app.auth.config.QueryParamIdCrypto;
 import com.app.auth.dto.*;
 import com.app.auth.entity.Appointment;
+import com.app.auth.entity.NotificationOutboxEntry;
 // FutureTwoDayAppointment entity remains in the project for safety but is no longer used here
 import com.app.auth.entity.PastAppointment;
-import com.app.auth.entity.UserDetails;
 import com.app.auth.repository.AppointmentRepository;
 import com.app.auth.repository.PastAppointmentRepository;
 import com.app.auth.repository.UserDetailsRepository;
+import com.app.auth.service.AccessLog;
+import com.app.auth.service.AppMetrics;
 import com.app.auth.service.AppointmentService;
+import com.app.auth.service.AppointmentStatusTransitions;
+import com.app.auth.service.BookingGuard;
 import com.app.auth.service.EnhancedAppointmentService;
+import com.app.auth.service.SlotAvailabilityIndex;
 import jakarta.validation.Valid;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -28,26 +34,37 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/doctor")
 public class DoctorController {
 
-    @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private static final Logger logger = LoggerFactory.getLogger(DoctorController.class);
 
     private final AppointmentService svc;
     private final EnhancedAppointmentService enhancedAppointmentService;
     private final AppointmentRepository appointmentRepository;
     private final PastAppointmentRepository pastAppointmentRepository;
     private final UserDetailsRepository userDetailsRepository;
+    private final SlotAvailabilityIndex slotIndex;
+    private final AppointmentStatusTransitions statusTransitions;
+    private final AppMetrics metrics;
+    private final AccessLog accessLog;
 
     public DoctorController(AppointmentService svc, 
                           EnhancedAppointmentService enhancedAppointmentService,
                           AppointmentRepository appointmentRepository,
                           /* FutureTwoDayAppointmentRepository futureAppointmentRepository, */
                           PastAppointmentRepository pastAppointmentRepository,
-                          UserDetailsRepository userDetailsRepository) { 
+                          UserDetailsRepository userDetailsRepository,
+                          SlotAvailabilityIndex slotIndex,
+                          AppointmentStatusTransitions statusTransitions,
+                          AppMetrics metrics,
+                          AccessLog accessLog) { 
         this.svc = svc; 
         this.enhancedAppointmentService = enhancedAppointmentService;
     this.appointmentRepository = appointmentRepository;
         this.pastAppointmentRepository = pastAppointmentRepository;
         this.userDetailsRepository = userDetailsRepository;
+        this.slotIndex = slotIndex;
+        this.statusTransitions = statusTransitions;
+        this.metrics = metrics;
+        this.accessLog = accessLog;
     }
 
 //    @GetMapping("/{doctorId}/appointments")
@@ -85,23 +102,6 @@ public class DoctorController {
     public ResponseEntity<Map<String, String>> reschedule(@PathVariable("doctorId") String encodedDoctorId,
                                                          @Valid @RequestBody WorkspaceBulkRescheduleDto request) {
         Long doctorId = QueryParamIdCrypto.decodeLong(encodedDoctorId);
-        // Collect all appointment IDs for the doctor and workspace with status BOOKED
-        List<Long> appointmentIds = new ArrayList<>();
-        List<Appointment> allCurrentAppointments = appointmentRepository.findByWorkplaceIdOrderByAppointmentDateAndTime(request.getWorkspaceId());
-        for (Appointment appointment : allCurrentAppointments) {
-            if (appointment.getDoctorId().equals(doctorId) && "BOOKED".equals(appointment.getStatus())) {
-                appointmentIds.add(appointment.getId());
-            }
-        }
-        // List<FutureTwoDayAppointment> allFutureAppointments = futureAppointmentRepository.findByWorkplaceIdOrderByAppointmentDateAndTime(request.getWorkspaceId());
-        // for (FutureTwoDayAppointment futureAppt : allFutureAppointments) {
-        //     if (futureAppt.getDoctorId().equals(doctorId) && "BOOKED".equals(futureAppt.getStatus())) {
-        //         appointmentIds.add(futureAppt.getId());
-        //     }
-        // }
-        if (appointmentIds.isEmpty()) {
-            return ResponseEntity.ok(Map.of("message", "No booked appointments found for the specified workspace."));
-        }
 
         // Calculate total minutes
         int totalMinutes = 0;
@@ -114,43 +114,45 @@ public class DoctorController {
             }
         }
 
-        String dbResult = "";
-        try {
-            // If newDate is present but empty string, treat it as not provided and call non-date function
-            String newDate = request.getNewDate();
-            boolean hasValidNewDate = newDate != null && !newDate.trim().isEmpty();
-
-            if (hasValidNewDate) {
-                // Call DB function with date
-                dbResult = callIncreaseTimeRangeWithDate(appointmentIds, totalMinutes, newDate);
-            } else if (totalMinutes > 0) {
-                // Call DB function with only minutes
-                dbResult = callIncreaseTimeRange(appointmentIds, totalMinutes);
-            } else {
-                return ResponseEntity.ok(Map.of("message", "No time extension or new date provided."));
+        // If newDate is present but empty string, treat it as not provided and call non-date function
+        String newDate = request.getNewDate();
+        LocalDate targetDate = null;
+        if (newDate != null && !newDate.trim().isEmpty()) {
+            try {
+                targetDate = LocalDate.parse(newDate.trim());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("newDate must be in yyyy-MM-dd format");
             }
+        } else if (totalMinutes <= 0) {
+            return ResponseEntity.ok(Map.of("message", "No time extension or new date provided."));
+        }
+
+        // The BOOKED appointments (today onwards) are selected and moved inside the database in one call
+        List<Appointment> moved;
+        try {
+            moved = statusTransitions.shiftBooked(request.getWorkspaceId(), doctorId, LocalDate.now(), totalMinutes, targetDate,
+                    appointment -> new NotificationOutboxEntry(
+                        appointment.getUserId(),
+                        "Appointment Rescheduled",
+                        String.format("Your appointment with Dr. %s has been moved to %s at %s.%s",
+                            appointment.getDoctorName() != null ? appointment.getDoctorName() : "Doctor",
+                            appointment.getAppointmentDate(),
+                            appointment.getSlot() != null ? appointment.getSlot() : "the new time",
+                            request.getReason() != null ? " Reason: " + request.getReason() : ""),
+                        "APPOINTMENT_RESCHEDULED_BY_DOCTOR"));
+        } catch (AppointmentStatusTransitions.SlotClashException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
+            if (BookingGuard.isSlotConflict(e)) {
+                // Another booking took a target slot after the clash check
+                return ResponseEntity.status(409).body(Map.of("error", "A target slot was booked meanwhile; nothing was moved"));
+            }
             return ResponseEntity.status(500).body(Map.of("error", "Failed to reschedule appointments: " + e.getMessage()));
         }
-        return ResponseEntity.ok(Map.of("message", dbResult));
-    }
-    private String callIncreaseTimeRange(List<Long> appointmentIds, int totalMinutes) {
-        String minutesStr = totalMinutes + " minutes";
-        // Build ARRAY literal like ARRAY[1,2,3]
-        String arrayLiteral = "ARRAY[" + appointmentIds.stream().map(String::valueOf).collect(Collectors.joining(",")) + "]";
-        // Build final SQL to match the examples: SELECT increase_time_range(ARRAY[...], '100 minutes');
-        String sql = "SELECT increase_time_range(" + arrayLiteral + ", '" + minutesStr + "')";
-        jdbcTemplate.execute(sql);
-        return "reschedule successful";
-    }
-
-    private String callIncreaseTimeRangeWithDate(List<Long> appointmentIds, int totalMinutes, String newDate) {
-        String minutesStr = totalMinutes + " minutes";
-        String arrayLiteral = "ARRAY[" + appointmentIds.stream().map(String::valueOf).collect(Collectors.joining(",")) + "]";
-        // Build SQL matching the example: SELECT increase_time_range(ARRAY[...], '30 minutes', '2025-10-21');
-        String sql = "SELECT increase_time_range(" + arrayLiteral + ", '" + minutesStr + "', '" + newDate + "')";
-        jdbcTemplate.execute(sql);
-        return "reschedule successful";
+        if (moved.isEmpty()) {
+            return ResponseEntity.ok(Map.of("message", "No booked appointments found for the specified workspace."));
+        }
+        return ResponseEntity.ok(Map.of("message", String.format("Rescheduled %d appointments.", moved.size())));
     }
 
     /**
@@ -185,9 +187,10 @@ public class DoctorController {
                 .collect(Collectors.toList());
         
         // OPTIMIZATION: Batch fetch all user details at once (prevents N+1 queries)
-        Map<Long, UserDetails> userDetailsMap = userDetailsRepository.findAllById(userIds)
+        // Only the displayed columns: encrypted medical fields are not loaded
+        Map<Long, UserDetailsRepository.PatientSummary> userDetailsMap = userDetailsRepository.findPatientSummariesByIdIn(userIds)
                 .stream()
-                .collect(Collectors.toMap(UserDetails::getId, user -> user));
+                .collect(Collectors.toMap(UserDetailsRepository.PatientSummary::getId, user -> user));
         
         // Group appointments by workspace
         Map<String, List<DoctorHistoryAppointmentDto>> appointmentsByWorkspace = new LinkedHashMap<>();
@@ -228,7 +231,7 @@ public class DoctorController {
      */
     private DoctorHistoryAppointmentDto convertToDoctorHistoryAppointmentDto(
             PastAppointment appointment, 
-            Map<Long, UserDetails> userDetailsMap) {
+            Map<Long, UserDetailsRepository.PatientSummary> userDetailsMap) {
         DoctorHistoryAppointmentDto dto = new DoctorHistoryAppointmentDto();
         dto.setAppointmentId(appointment.getId());
         dto.setUserId(appointment.getUserId());
@@ -238,7 +241,7 @@ public class DoctorController {
         dto.setStatus(appointment.getStatus());
         
         // Get user details from pre-fetched map (no additional database query)
-        UserDetails user = userDetailsMap.get(appointment.getUserId());
+        UserDetailsRepository.PatientSummary user = userDetailsMap.get(appointment.getUserId());
         if (user != null) {
             dto.setPatientFullName(user.getFullName());
             dto.setAge(user.getAge());
@@ -255,31 +258,17 @@ public class DoctorController {
     private String bulkRescheduleWorkspaceAppointments(Long doctorId, WorkspaceBulkRescheduleDto request) {
         String today = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
         
-        // Get all appointments for the workspace from appointments table (current/today's appointments)
-        List<Appointment> allCurrentAppointments = appointmentRepository.findByWorkplaceIdOrderByAppointmentDateAndTime(request.getWorkspaceId());
+        // Doctor's BOOKED appointments at the workspace from today on, split into today and later
+        List<Appointment> bookedAppointments = appointmentRepository.findBookedByWorkplaceAndDoctorFrom(
+                request.getWorkspaceId(), doctorId, LocalDate.now());
         
         List<Appointment> currentWorkspaceAppointments = new ArrayList<>();
-        
-        // Filter for doctor's BOOKED appointments from current table
-        for (Appointment appointment : allCurrentAppointments) {
-            if (appointment.getDoctorId().equals(doctorId) && 
-                "BOOKED".equals(appointment.getStatus())) {
-                currentWorkspaceAppointments.add(appointment);
-            }
-        }
-        
-        // Get all appointments for the workspace (appointments table contains both current and future entries now)
-        List<Appointment> allAppointments = appointmentRepository.findByWorkplaceIdOrderByAppointmentDateAndTime(request.getWorkspaceId());
-
         List<Appointment> futureWorkspaceAppointments = new ArrayList<>();
-
-        // Filter for doctor's BOOKED appointments that are not today => treat as future appointments
-        for (Appointment appt : allAppointments) {
-            if (appt.getDoctorId().equals(doctorId) && "BOOKED".equals(appt.getStatus())) {
-                String apptDate = appt.getAppointmentDate();
-                if (!apptDate.equals(today)) {
-                    futureWorkspaceAppointments.add(appt);
-                }
+        for (Appointment appt : bookedAppointments) {
+            if (appt.getAppointmentDate().equals(today)) {
+                currentWorkspaceAppointments.add(appt);
+            } else {
+                futureWorkspaceAppointments.add(appt);
             }
         }
         
@@ -311,17 +300,10 @@ public class DoctorController {
             String oldSlot = appointment.getSlot(); // Store old slot for debugging
             String newSlot = calculateNewSlot(originalAppointmentTime, newAppointmentTime, appointment.getDurationMinutes(), request);
             
-            // Debug info (can be removed later)
-            System.out.println("DEBUG - Appointment ID: " + appointment.getId());
-            System.out.println("DEBUG - Original Time: " + originalAppointmentTime);
-            System.out.println("DEBUG - New Time: " + newAppointmentTime);
-            System.out.println("DEBUG - Duration: " + appointment.getDurationMinutes() + " minutes");
-            System.out.println("DEBUG - Old Slot: " + oldSlot);
-            System.out.println("DEBUG - New Slot: " + newSlot);
-            System.out.println("DEBUG - Has Time Extension: " + request.hasTimeExtension());
-            System.out.println("DEBUG - Extend Hours: " + request.getExtendHours());
-            System.out.println("DEBUG - Extend Minutes: " + request.getExtendMinutes());
-            System.out.println("DEBUG ---");
+            accessLog.debug(logger, "Reschedule appointment {}: time {} -> {}, duration {} minutes, slot {} -> {}, "
+                    + "time extension {} ({}h {}m)", appointment.getId(), originalAppointmentTime, newAppointmentTime,
+                    appointment.getDurationMinutes(), oldSlot, newSlot, request.hasTimeExtension(),
+                    request.getExtendHours(), request.getExtendMinutes());
             
             appointment.setSlot(newSlot);
             appointment.setNotes(reason);
@@ -356,17 +338,10 @@ public class DoctorController {
             String oldSlot = futureAppt.getSlot(); // Store old slot for debugging
             String newSlot = calculateNewSlot(originalAppointmentTime, newAppointmentTime, futureAppt.getDurationMinutes(), request);
 
-            // Debug info (can be removed later)
-            System.out.println("DEBUG FUTURE - Appointment ID: " + futureAppt.getId());
-            System.out.println("DEBUG FUTURE - Original Time: " + originalAppointmentTime);
-            System.out.println("DEBUG FUTURE - New Time: " + newAppointmentTime);
-            System.out.println("DEBUG FUTURE - Duration: " + futureAppt.getDurationMinutes() + " minutes");
-            System.out.println("DEBUG FUTURE - Old Slot: " + oldSlot);
-            System.out.println("DEBUG FUTURE - New Slot: " + newSlot);
-            System.out.println("DEBUG FUTURE - Has Time Extension: " + request.hasTimeExtension());
-            System.out.println("DEBUG FUTURE - Extend Hours: " + request.getExtendHours());
-            System.out.println("DEBUG FUTURE - Extend Minutes: " + request.getExtendMinutes());
-            System.out.println("DEBUG FUTURE ---");
+            accessLog.debug(logger, "Reschedule future appointment {}: time {} -> {}, duration {} minutes, slot {} -> {}, "
+                    + "time extension {} ({}h {}m)", futureAppt.getId(), originalAppointmentTime, newAppointmentTime,
+                    futureAppt.getDurationMinutes(), oldSlot, newSlot, request.hasTimeExtension(),
+                    request.getExtendHours(), request.getExtendMinutes());
 
             futureAppt.setSlot(newSlot);
             futureAppt.setNotes(reason);
@@ -460,19 +435,10 @@ public class DoctorController {
     private String cancelAllWorkspaceAppointments(Long workspaceId, CancelDayRequest request) {
         String targetDate = request.getDate(); // Assuming CancelDayRequest has a date field
         
-        int cancelledCount = 0;
-        
-        // Get all appointments for the workspace on the specified date from appointments table
-        List<Appointment> currentAppointments = appointmentRepository.findByWorkplaceIdAndAppointmentDate(workspaceId, targetDate);
-        
-        for (Appointment appointment : currentAppointments) {
-            if ("BOOKED".equals(appointment.getStatus())) {
-                appointment.setStatus("CANCELLED");
-                appointment.setNotes("Cancelled by doctor - " + (request.getReason() != null ? request.getReason() : "Day cancelled"));
-                appointmentRepository.save(appointment);
-                
-                // Send FCM notification to the user
-                enhancedAppointmentService.sendAppointmentNotification(
+        // One UPDATE ... RETURNING for the whole day; the notifications go to the outbox as one batch
+        String notes = "Cancelled by doctor - " + (request.getReason() != null ? request.getReason() : "Day cancelled");
+        List<Appointment> cancelled = statusTransitions.cancelWorkplaceDate(workspaceId, targetDate, notes,
+                appointment -> new NotificationOutboxEntry(
                     appointment.getUserId(),
                     "Appointment Cancelled ❌",
                     String.format("Your appointment with Dr. %s on %s at %s has been cancelled. Reason: %s",
@@ -480,12 +446,8 @@ public class DoctorController {
                         appointment.getAppointmentDate(),
                         appointment.getSlot() != null ? appointment.getSlot() : "scheduled time",
                         request.getReason() != null ? request.getReason() : "Doctor cancelled all appointments for this day"),
-                    "APPOINTMENT_CANCELLED_BY_DOCTOR"
-                );
-                
-                cancelledCount++;
-            }
-        }
+                    "APPOINTMENT_CANCELLED_BY_DOCTOR"));
+        int cancelledCount = cancelled.size();
         
         // Get future appointments for the workspace on the specified date from future_2day_appointments table
         // List<FutureTwoDayAppointment> futureAppointments = futureAppointmentRepository.findByWorkplaceIdAndAppointmentDate(workspaceId, targetDate);
@@ -499,6 +461,7 @@ public class DoctorController {
         //     }
         // }
         
+        metrics.appointmentsCancelled(AppMetrics.CANCELLED_DOCTOR_DAY, cancelledCount);
         if (cancelledCount == 0) {
             return "No booked appointments found for the specified workspace and date.";
         }
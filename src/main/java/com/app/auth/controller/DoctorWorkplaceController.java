@@ -12,32 +12,43 @@ import com.app.auth.entity.Appointment;
 import com.app.auth.entity.DoctorDetails;
 import com.app.auth.entity.DoctorWorkplace;
 // FutureTwoDayAppointment entity/repository kept for safety but not used here
-import com.app.auth.entity.UserDetails;
 import com.app.auth.repository.AppointmentRepository;
 import com.app.auth.repository.DoctorDetailsRepository;
 import com.app.auth.repository.DoctorWorkplaceRepository;
 import com.app.auth.repository.UserDetailsRepository;
+import com.app.auth.service.AppMetrics;
 import com.app.auth.service.DailyAppointmentService;
+import com.app.auth.service.DoctorCatalogCache;
+import com.app.auth.service.DoctorSearchEngine;
 import com.app.auth.service.EnhancedAppointmentService;
+import com.app.auth.service.SlotAvailabilityIndex;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/doctors")
 public class DoctorWorkplaceController {
 
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_WORKSPACE_DAYS = 90;
+
     private final DoctorWorkplaceRepository workplaceRepository;
     private final AppointmentRepository appointmentRepository;
     // private final FutureTwoDayAppointmentRepository futureAppointmentRepository;
@@ -45,6 +56,10 @@ public class DoctorWorkplaceController {
     private final DoctorDetailsRepository doctorDetailsRepository;
     private final DailyAppointmentService dailyAppointmentService;
     private final EnhancedAppointmentService enhancedAppointmentService;
+    private final SlotAvailabilityIndex slotIndex;
+    private final DoctorSearchEngine searchEngine;
+    private final DoctorCatalogCache catalogCache;
+    private final AppMetrics metrics;
     private final String appTimezone;
 
     public DoctorWorkplaceController(DoctorWorkplaceRepository workplaceRepository,
@@ -54,6 +69,10 @@ public class DoctorWorkplaceController {
                                    DoctorDetailsRepository doctorDetailsRepository,
                                    DailyAppointmentService dailyAppointmentService,
                                    EnhancedAppointmentService enhancedAppointmentService,
+                                   SlotAvailabilityIndex slotIndex,
+                                   DoctorSearchEngine searchEngine,
+                                   DoctorCatalogCache catalogCache,
+                                   AppMetrics metrics,
                                    @Value("${app.timezone:Asia/Kolkata}") String appTimezone) {
         this.workplaceRepository = workplaceRepository;
         this.appointmentRepository = appointmentRepository;
@@ -62,6 +81,10 @@ public class DoctorWorkplaceController {
         this.doctorDetailsRepository = doctorDetailsRepository;
         this.dailyAppointmentService = dailyAppointmentService;
         this.enhancedAppointmentService = enhancedAppointmentService;
+        this.slotIndex = slotIndex;
+        this.searchEngine = searchEngine;
+        this.catalogCache = catalogCache;
+        this.metrics = metrics;
         this.appTimezone = appTimezone;
     }
 
@@ -131,6 +154,8 @@ public class DoctorWorkplaceController {
             
             // Save the workplace
             DoctorWorkplace savedWorkplace = workplaceRepository.save(workplace);
+            searchEngine.onWorkplaceSaved(savedWorkplace);
+            catalogCache.evictWorkplace(savedWorkplace.getId(), doctorId);
             
             // Build response
             Map<String, Object> response = Map.of(
@@ -190,56 +215,97 @@ public class DoctorWorkplaceController {
     }
 
     /**
-     * Get all appointments for a specific workplace grouped by date
-     * Returns appointments organized by date with patient medical details
+     * Get upcoming BOOKED appointments for a specific workplace grouped by date, starting at {@code fromDate}
+     * (default today). Without {@code days} every upcoming date is returned. With it, at most {@code days} dates
+     * are returned, and when more exist the X-Next-Cursor header holds the date to pass as {@code fromDate}.
      */
     @GetMapping("/workplaces/{workplaceId}/appointments")
     public ResponseEntity<List<WorkspaceDateAppointmentsDto>> getWorkspaceAppointments(
-            @PathVariable("workplaceId") String encodedWorkplaceId) {
+            @PathVariable("workplaceId") String encodedWorkplaceId,
+            @RequestParam(value = "fromDate", required = false) String fromDate,
+            @RequestParam(value = "days", required = false) Integer days) {
         Long workplaceId = QueryParamIdCrypto.decodeLong(encodedWorkplaceId);
         
-        List<WorkspaceDateAppointmentsDto> appointments = getWorkspaceAppointmentsGroupedByDate(workplaceId);
-        return ResponseEntity.ok(appointments);
+        WorkspaceAppointmentsPage page = getWorkspaceAppointmentsGroupedByDate(workplaceId, fromDate, days);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.dates());
     }
 
+    private record WorkspaceAppointmentsPage(List<WorkspaceDateAppointmentsDto> dates, String nextCursor) {}
+
     /**
      * Get workspace appointments grouped by date with patient medical details
-     * Only includes current and future appointments (ignores past appointments)
+     * Only current and future BOOKED appointments; date and status are filtered in the query
+     * (idx_appointments_workplace_day_status), so the cost follows upcoming load, not booking history.
+     * days == null means no paging.
      */
-    private List<WorkspaceDateAppointmentsDto> getWorkspaceAppointmentsGroupedByDate(Long workplaceId) {
-        Map<String, List<WorkspaceAppointmentDto>> appointmentsByDate = new LinkedHashMap<>();
-        
-        // Get today's date for filtering
-        String today = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        
-        // Get all current appointments (from appointments table) - only today and future
-        List<Appointment> currentAppointments = appointmentRepository.findByWorkplaceIdOrderByAppointmentDateAndTime(workplaceId);
-        for (Appointment appointment : currentAppointments) {
-            // Only include appointments from today onwards and with BOOKED status
-            if (appointment.getAppointmentDate().compareTo(today) >= 0 && "BOOKED".equals(appointment.getStatus())) {
-                WorkspaceAppointmentDto dto = convertToWorkspaceAppointmentDto(appointment);
-                appointmentsByDate
-                    .computeIfAbsent(appointment.getAppointmentDate(), k -> new ArrayList<>())
-                    .add(dto);
+    private WorkspaceAppointmentsPage getWorkspaceAppointmentsGroupedByDate(Long workplaceId, String fromDate, Integer days) {
+        LocalDate today = LocalDate.now();
+        LocalDate from = today;
+        if (fromDate != null && !fromDate.isBlank()) {
+            try {
+                from = LocalDate.parse(fromDate.trim(), DATE_FORMAT);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("fromDate must be in yyyy-MM-dd format");
+            }
+            // Past appointments are never returned
+            if (from.isBefore(today)) {
+                from = today;
             }
         }
+        List<Appointment> appointments;
+        String nextCursor = null;
+        if (days == null) {
+            appointments = appointmentRepository.findByWorkplaceIdAndStatusFromDate(workplaceId, "BOOKED", from);
+        } else {
+            int pageDays = Math.max(1, Math.min(days, MAX_WORKSPACE_DAYS));
+            
+            // One extra date tells whether there is a next page
+            List<LocalDate> dates = appointmentRepository.findAppointmentDatesByWorkplaceFrom(
+                    workplaceId, "BOOKED", from, PageRequest.of(0, pageDays + 1));
+            if (dates.isEmpty()) {
+                return new WorkspaceAppointmentsPage(List.of(), null);
+            }
+            nextCursor = dates.size() > pageDays ? dates.get(pageDays).format(DATE_FORMAT) : null;
+            LocalDate lastDate = dates.get(Math.min(dates.size(), pageDays) - 1);
+            
+            appointments = appointmentRepository.findByWorkplaceIdAndStatusAndDateRange(
+                    workplaceId, "BOOKED", from, lastDate);
+        }
         
-        // Include appointments from appointments table that are future (date >= today)
-        for (Appointment appointment : currentAppointments) {
-            // (currentAppointments already fetched from appointmentRepository and includes today+future)
-            // We already processed them in the loop above, so this block intentionally does nothing here.
+        // Patient details for all rows in one query (only the displayed columns)
+        Set<Long> userIds = appointments.stream()
+                .map(Appointment::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, UserDetailsRepository.PatientSummary> patients = userIds.isEmpty() ? Map.of()
+                : userDetailsRepository.findPatientSummariesByIdIn(userIds).stream()
+                        .collect(Collectors.toMap(UserDetailsRepository.PatientSummary::getId, p -> p));
+        
+        // Rows come ordered by date and time, so insertion order is the response order
+        Map<String, List<WorkspaceAppointmentDto>> appointmentsByDate = new LinkedHashMap<>();
+        for (Appointment appointment : appointments) {
+            WorkspaceAppointmentDto dto = convertToWorkspaceAppointmentDto(appointment, patients);
+            appointmentsByDate
+                .computeIfAbsent(appointment.getAppointmentDate(), k -> new ArrayList<>())
+                .add(dto);
         }
         
         // Convert map to list of DTOs
-        return appointmentsByDate.entrySet().stream()
+        List<WorkspaceDateAppointmentsDto> result = appointmentsByDate.entrySet().stream()
                 .map(entry -> new WorkspaceDateAppointmentsDto(entry.getKey(), entry.getValue()))
                 .collect(Collectors.toList());
+        return new WorkspaceAppointmentsPage(result, nextCursor);
     }
 
     /**
      * Convert Appointment to WorkspaceAppointmentDto with medical details
      */
-    private WorkspaceAppointmentDto convertToWorkspaceAppointmentDto(Appointment appointment) {
+    private WorkspaceAppointmentDto convertToWorkspaceAppointmentDto(Appointment appointment,
+                                                                     Map<Long, UserDetailsRepository.PatientSummary> patients) {
         WorkspaceAppointmentDto dto = new WorkspaceAppointmentDto();
         dto.setAppointmentId(appointment.getId());
         dto.setUserId(appointment.getUserId());
@@ -250,10 +316,9 @@ public class DoctorWorkplaceController {
         // Set patient_member_id for family appointments
         dto.setPatientMemberId(appointment.getPatientMemberId());
         
-        // Fetch user medical details
-        Optional<UserDetails> userDetails = userDetailsRepository.findById(appointment.getUserId());
-        if (userDetails.isPresent()) {
-            UserDetails user = userDetails.get();
+        // User medical details from the pre-fetched map
+        UserDetailsRepository.PatientSummary user = patients.get(appointment.getUserId());
+        if (user != null) {
             dto.setPatientName(user.getFullName());
             dto.setAge(user.getAge());
             dto.setWeightKg(user.getWeightKg());
@@ -292,9 +357,9 @@ public class DoctorWorkplaceController {
      */
     private AppointmentCounts getAppointmentCounts(Long doctorId, Long workplaceId) {
         // Use app timezone for date segregation (today vs future)
-        String today = LocalDate.now(ZoneId.of(appTimezone)).format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        long todayCount = appointmentRepository.countByDoctorIdAndWorkplaceIdAndAppointmentDateAndStatus(doctorId, workplaceId, today, "BOOKED");
-        long futureCount = appointmentRepository.countByDoctorIdAndWorkplaceIdAndAppointmentDateGreaterThanAndStatus(doctorId, workplaceId, today, "BOOKED");
+        LocalDate today = LocalDate.now(ZoneId.of(appTimezone));
+        long todayCount = appointmentRepository.countByDoctorIdAndWorkplaceIdAndAppointmentDateAndStatus(doctorId, workplaceId, today.format(DATE_FORMAT), "BOOKED");
+        long futureCount = appointmentRepository.countByDoctorIdAndWorkplaceIdAndAppointmentDayGreaterThanAndStatus(doctorId, workplaceId, today, "BOOKED");
 
         return new AppointmentCounts(todayCount, futureCount);
     }
@@ -394,6 +459,8 @@ public class DoctorWorkplaceController {
                 
                 // Save the updated appointment
                 Appointment savedAppointment = appointmentRepository.save(appointment);
+                slotIndex.onReleased(savedAppointment);
+                metrics.appointmentsCancelled(AppMetrics.CANCELLED_BY_DOCTOR, 1);
                 
                 // Send FCM notification to the user
                 enhancedAppointmentService.sendAppointmentNotification(
@@ -524,6 +591,10 @@ public class DoctorWorkplaceController {
             
             appointment.setUpdatedAt(java.time.OffsetDateTime.now());
             Appointment savedAppointment = appointmentRepository.save(appointment);
+            if ("CANCELLED".equals(savedAppointment.getStatus())) {
+                slotIndex.onReleased(savedAppointment);
+                metrics.appointmentsCancelled(AppMetrics.CANCELLED_BY_DOCTOR, 1);
+            }
             
             // Send FCM notification to the user
             enhancedAppointmentService.sendAppointmentNotification(
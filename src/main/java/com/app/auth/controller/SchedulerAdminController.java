@@ -1,5 +1,6 @@
 package com.app.auth.controller;
 
+import com.app.auth.service.AppointmentArchiver;
 import com.app.auth.service.AppointmentSchedulerService;
 import com.app.auth.service.EnhancedAppointmentService;
 import org.slf4j.Logger;
@@ -23,11 +24,14 @@ public class SchedulerAdminController {
 
     private final AppointmentSchedulerService schedulerService;
     private final EnhancedAppointmentService enhancedAppointmentService;
+    private final AppointmentArchiver appointmentArchiver;
 
     public SchedulerAdminController(AppointmentSchedulerService schedulerService, 
-                                  EnhancedAppointmentService enhancedAppointmentService) {
+                                  EnhancedAppointmentService enhancedAppointmentService,
+                                  AppointmentArchiver appointmentArchiver) {
         this.schedulerService = schedulerService;
         this.enhancedAppointmentService = enhancedAppointmentService;
+        this.appointmentArchiver = appointmentArchiver;
     }
 
     /**
@@ -92,6 +96,18 @@ public class SchedulerAdminController {
         }
     }
 
+    /**
+     * Progress of the current or last past-appointment archival run
+     */
+    @GetMapping("/archival-status")
+    public ResponseEntity<Map<String, Object>> getArchivalStatus() {
+        AppointmentArchiver.Progress lastRun = appointmentArchiver.getLastRun();
+        Map<String, Object> body = new java.util.LinkedHashMap<>();
+        body.put("running", appointmentArchiver.isRunning());
+        body.put("lastRun", lastRun != null ? lastRun.toMap() : null);
+        return ResponseEntity.ok(body);
+    }
+
     /**
      * Get scheduler status and information
      */
@@ -5,6 +5,7 @@ import com.app.auth.config.QueryParamIdCrypto;
 import com.app.auth.dto.*;
 import com.app.auth.service.AppointmentService;
 import com.app.auth.service.EnhancedAppointmentService;
+import com.app.auth.service.UserAppointmentTimeline;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,12 +17,18 @@ import java.util.Map;
 @RequestMapping("/api/user")
 public class UserController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MY_APPOINTMENTS_DEFAULT_LIMIT = 100;
+
     private final AppointmentService svc;
     private final EnhancedAppointmentService enhancedAppointmentService;
+    private final UserAppointmentTimeline userTimeline;
 
-    public UserController(AppointmentService svc, EnhancedAppointmentService enhancedAppointmentService) { 
+    public UserController(AppointmentService svc, EnhancedAppointmentService enhancedAppointmentService,
+                          UserAppointmentTimeline userTimeline) { 
         this.svc = svc; 
         this.enhancedAppointmentService = enhancedAppointmentService;
+        this.userTimeline = userTimeline;
     }
 
     // ========================
@@ -39,6 +46,21 @@ public class UserController {
         UserAppointmentsResponseDto appointments = enhancedAppointmentService.getUserAppointments(userId);
         return ResponseEntity.ok(appointments);
     }
+
+    /**
+     * Appointment timeline: upcoming (from today, soonest first), then history (newest first, including
+     * archived appointments). Up to {@code limit} items per page (default 20, max 100); when more exist, the
+     * X-Next-Cursor header holds the value to pass as {@code cursor} for the next page.
+     */
+    @GetMapping("/{userId}/appointments/timeline")
+    public ResponseEntity<List<UserAppointmentDto>> getAppointmentTimeline(
+            @PathVariable("userId") String encodedUserId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        Long userId = QueryParamIdCrypto.decodeLong(encodedUserId);
+        AuthAccess.requireSelf(userId);
+        return withNextCursor(userTimeline.page(userId, cursor, limit));
+    }
     
     /**
      * 2. Get available slots for a doctor at a specific workplace
@@ -136,11 +158,30 @@ public class UserController {
         return ResponseEntity.ok(ap);
     }
 
+    /**
+     * Live appointments, newest first. Without {@code cursor} and {@code limit} every appointment is returned;
+     * with either, up to {@code limit} per page (default and max 100) with the next page's cursor in the
+     * X-Next-Cursor header
+     */
     @GetMapping("/{userId}/appointments")
-    public ResponseEntity<List<AppointmentDto>> myAppointments(@PathVariable("userId") String encodedUserId) {
+    public ResponseEntity<List<AppointmentDto>> myAppointments(@PathVariable("userId") String encodedUserId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
         Long userId = QueryParamIdCrypto.decodeLong(encodedUserId);
         AuthAccess.requireSelf(userId);
-        return ResponseEntity.ok(svc.getUserAppointments(userId));
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(svc.getUserAppointments(userId));
+        }
+        return withNextCursor(svc.getUserAppointments(userId, cursor,
+                limit != null ? limit : MY_APPOINTMENTS_DEFAULT_LIMIT));
+    }
+
+    private static <T> ResponseEntity<List<T>> withNextCursor(UserAppointmentTimeline.Page<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
     }
     
     /**
@@ -0,0 +1,36 @@
+package com.app.auth.dto;
+
+import java.util.Map;
+
+/**
+ * One message of an Expo push batch (Expo accepts up to 100 per request)
+ */
+public class ExpoPushMessage {
+
+    private String to;
+    private String title;
+    private String body;
+    private Map<String, String> data;
+
+    public ExpoPushMessage() {
+    }
+
+    public ExpoPushMessage(String to, String title, String body, Map<String, String> data) {
+        this.to = to;
+        this.title = title;
+        this.body = body;
+        this.data = data;
+    }
+
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+
+    public Map<String, String> getData() { return data; }
+    public void setData(Map<String, String> data) { this.data = data; }
+}
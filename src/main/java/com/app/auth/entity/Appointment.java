@@ -1,15 +1,22 @@
 package com.app.auth.entity;
 
+import com.app.auth.config.SlotCodec;
 import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 
 @Entity
 @Table(name = "appointments",
         indexes = {
                 @Index(name = "idx_appointments_doctor_time_java", columnList = "doctor_id, appointment_time"),
                 @Index(name = "idx_appointments_doctor_status_time_java", columnList = "doctor_id, status, appointment_time"),
-                @Index(name = "idx_appointments_workplace", columnList = "workplace_id")
+                @Index(name = "idx_appointments_workplace_day_status", columnList = "workplace_id, appointment_day, status"),
+                @Index(name = "idx_appointments_day", columnList = "appointment_day"),
+                @Index(name = "idx_appointments_user_time", columnList = "user_id, appointment_time, id")
         })
+@EntityListeners(AppointmentChangeListener.class)
 public class Appointment {
 
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -42,6 +49,17 @@ public class Appointment {
     @Column(name = "slot", length = 50)
     private String slot; // e.g., "9:00AM - 9:15AM"
 
+    // Typed copies of appointmentDate / slot, set by their setters (and by trg_appointments_typed_slot for SQL writers).
+    // Null when the string form does not parse.
+    @Column(name = "appointment_day")
+    private LocalDate appointmentDay;
+
+    @Column(name = "slot_start")
+    private LocalTime slotStart;
+
+    @Column(name = "slot_end")
+    private LocalTime slotEnd;
+
     @Column(name = "duration_minutes", nullable = false)
     private Integer durationMinutes;
 
@@ -99,10 +117,23 @@ public class Appointment {
     public void setAppointmentTime(OffsetDateTime appointmentTime) { this.appointmentTime = appointmentTime; }
 
     public String getAppointmentDate() { return appointmentDate; }
-    public void setAppointmentDate(String appointmentDate) { this.appointmentDate = appointmentDate; }
+    public void setAppointmentDate(String appointmentDate) {
+        this.appointmentDate = appointmentDate;
+        this.appointmentDay = parseDay(appointmentDate);
+    }
 
     public String getSlot() { return slot; }
-    public void setSlot(String slot) { this.slot = slot; }
+    public void setSlot(String slot) {
+        this.slot = slot;
+        int start = SlotCodec.parseStartMinute(slot);
+        SlotCodec.Slot parsed = SlotCodec.parse(slot, 0);
+        this.slotStart = start >= 0 ? SlotCodec.timeOf(start) : null;
+        this.slotEnd = parsed != null ? SlotCodec.timeOf(parsed.endMinute()) : null;
+    }
+
+    public LocalDate getAppointmentDay() { return appointmentDay; }
+    public LocalTime getSlotStart() { return slotStart; }
+    public LocalTime getSlotEnd() { return slotEnd; }
 
     public Integer getDurationMinutes() { return durationMinutes; }
     public void setDurationMinutes(Integer durationMinutes) { this.durationMinutes = durationMinutes; }
@@ -133,4 +164,12 @@ public class Appointment {
 
     public OffsetDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(OffsetDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    private static LocalDate parseDay(String date) {
+        try {
+            return date != null ? LocalDate.parse(date) : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,29 @@
+package com.app.auth.entity;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on Appointment: turns every booking, status change, reschedule or delete that goes through the
+ * EntityManager into an AppointmentChangedEvent, so read models (e.g. the status rollup) can follow writes
+ * without the entity knowing about them.
+ */
+@Component
+public class AppointmentChangeListener {
+
+    private final ApplicationEventPublisher events;
+
+    public AppointmentChangeListener(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(Appointment appointment) {
+        events.publishEvent(new AppointmentChangedEvent(appointment.getDoctorId()));
+    }
+}
@@ -0,0 +1,6 @@
+package com.app.auth.entity;
+
+/**
+ * Published (inside the writing transaction) whenever an Appointment is inserted, updated or deleted through JPA
+ */
+public record AppointmentChangedEvent(Long doctorId) {}
@@ -7,7 +7,7 @@ import java.time.OffsetDateTime;
 @Table(name = "past_appointments",
         indexes = {
                 @Index(name = "idx_past_appointments_doctor_time", columnList = "doctor_id, appointment_time"),
-                @Index(name = "idx_past_appointments_user", columnList = "user_id"),
+                @Index(name = "idx_past_appointments_user_time", columnList = "user_id, appointment_time, id"),
                 @Index(name = "idx_past_appointments_date", columnList = "appointment_date")
         })
 public class PastAppointment {
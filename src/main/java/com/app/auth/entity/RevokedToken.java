@@ -0,0 +1,47 @@
+package com.app.auth.entity;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * Revoked (logged out) JWT, stored as a fingerprint only - never the raw token.
+ * Rows are kept until the token would have expired anyway.
+ */
+@Entity
+@Table(name = "revoked_tokens",
+        indexes = {
+                @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"),
+                @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at")
+        })
+public class RevokedToken {
+
+    @Id
+    @Column(name = "fingerprint", length = 64)
+    private String fingerprint; // hex SHA-256 prefix of the token
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private OffsetDateTime revokedAt = OffsetDateTime.now();
+
+    // Constructors
+    public RevokedToken() {
+    }
+
+    public RevokedToken(String fingerprint, OffsetDateTime expiresAt) {
+        this.fingerprint = fingerprint;
+        this.expiresAt = expiresAt;
+        this.revokedAt = OffsetDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getFingerprint() { return fingerprint; }
+    public void setFingerprint(String fingerprint) { this.fingerprint = fingerprint; }
+
+    public OffsetDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(OffsetDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public OffsetDateTime getRevokedAt() { return revokedAt; }
+    public void setRevokedAt(OffsetDateTime revokedAt) { this.revokedAt = revokedAt; }
+}
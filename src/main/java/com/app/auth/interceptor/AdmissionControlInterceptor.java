@@ -0,0 +1,101 @@
+package com.app.auth.interceptor;
+
+import com.app.auth.service.AdmissionGate;
+import com.app.auth.service.AdmissionGate.Priority;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Admission Control Interceptor
+ * - Runs every API request through AdmissionGate before the controller touches the database
+ * - Doctor-side status updates and bookings get HIGH priority, searches and history LOW, the rest NORMAL
+ * - Shed requests get 429 with Retry-After instead of waiting out the Hikari connection timeout
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final String ADMITTED_AT_ATTR = "admissionAdmittedNanos";
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    // "METHOD path pattern" -> priority, first match wins
+    private static final Map<String, Priority> RULES = new LinkedHashMap<>();
+    static {
+        RULES.put("PUT /api/doctors/*/appointments/*/update-status", Priority.HIGH);
+        RULES.put("PUT /api/doctors/appointments/*/complete", Priority.HIGH);
+        RULES.put("PUT /api/doctors/appointments/*/cancel", Priority.HIGH);
+        RULES.put("PUT /api/doctors/appointments/*/status", Priority.HIGH);
+        RULES.put("PUT /api/doctor/*/appointments/date/*/bulk-status", Priority.HIGH);
+        RULES.put("POST /api/user/appointments/book", Priority.HIGH);
+        RULES.put("POST /api/user/*/appointments/book", Priority.HIGH);
+
+        RULES.put("GET /api/doctors/search/**", Priority.LOW);
+        RULES.put("GET /api/doctors/all", Priority.LOW);
+        RULES.put("GET /api/medicines/search", Priority.LOW);
+        RULES.put("GET /api/doctor/*/appointments/history", Priority.LOW);
+        RULES.put("GET /api/user/*/appointments/all", Priority.LOW);
+        RULES.put("GET /api/user/*/appointments/timeline", Priority.LOW);
+        RULES.put("GET /api/prescriptions/user/*", Priority.LOW);
+        RULES.put("GET /api/prescriptions/doctor/*", Priority.LOW);
+    }
+
+    // Priority per handler method, resolved from the first request that reaches it
+    private final Map<Method, Priority> priorities = new ConcurrentHashMap<>();
+    private final AdmissionGate gate;
+
+    public AdmissionControlInterceptor(AdmissionGate gate) {
+        this.gate = gate;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!gate.isEnabled() || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Priority priority = priorities.computeIfAbsent(handlerMethod.getMethod(),
+                method -> classify(request.getMethod(), request.getRequestURI()));
+        try {
+            gate.acquire(priority);
+        } catch (AdmissionGate.RejectedException e) {
+            response.setStatus(429);
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Server busy, please retry in " + e.getRetryAfterSeconds() + " s\"}");
+            return false;
+        }
+        request.setAttribute(ADMITTED_AT_ATTR, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Long admittedAt = (Long) request.getAttribute(ADMITTED_AT_ATTR);
+        if (admittedAt != null) {
+            request.removeAttribute(ADMITTED_AT_ATTR);
+            gate.release(System.nanoTime() - admittedAt);
+        }
+    }
+
+    static Priority classify(String httpMethod, String path) {
+        for (Map.Entry<String, Priority> rule : RULES.entrySet()) {
+            String key = rule.getKey();
+            int space = key.indexOf(' ');
+            if (key.regionMatches(0, httpMethod, 0, space) && space == httpMethod.length()
+                    && PATH_MATCHER.match(key.substring(space + 1), path)) {
+                return rule.getValue();
+            }
+        }
+        return Priority.NORMAL;
+    }
+}
@@ -1,7 +1,8 @@
 package com.app.auth.interceptor;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.app.auth.config.AuthAccess;
+import com.app.auth.service.AccessLog;
+import com.app.auth.service.AppMetrics;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
@@ -9,38 +10,50 @@ import org.springframework.web.servlet.ModelAndView;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Lightweight API Logging Interceptor
- * - Logs API requests with minimal overhead
- * - Shows timestamp and controller method name
- * - Logs errors if any exception occurs
+ * - Queues one access line per API request to the asynchronous AccessLog
+ * - Access line carries controller method name, status, duration and user id
+ * - Errors (4xx/5xx or an escaped exception) are always logged, successes are sampled
+ * - Records the app.http.handler timer per controller method
  */
 @Component
 public class ApiLoggingInterceptor implements HandlerInterceptor {
 
-    private static final Logger logger = LoggerFactory.getLogger(ApiLoggingInterceptor.class);
     private static final String HANDLER_METHOD_ATTR = "handlerMethod";
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final String START_NANOS_ATTR = "handlerStartNanos";
+    private static final String UNKNOWN_HANDLER = "Unknown";
+
+    // "Controller.method()" per handler method, built once
+    private final Map<Method, String> handlerNames = new ConcurrentHashMap<>();
+    private final AppMetrics metrics;
+    private final AccessLog accessLog;
+
+    public ApiLoggingInterceptor(AppMetrics metrics, AccessLog accessLog) {
+        this.metrics = metrics;
+        this.accessLog = accessLog;
+    }
 
     /**
      * Pre-handle: Called before the controller method executes
-     * Extract handler method information
+     * Extract handler method information and start the clock
      */
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
         // Extract handler method information
-        String handlerInfo = "Unknown";
+        String handlerInfo = UNKNOWN_HANDLER;
         if (handler instanceof HandlerMethod) {
             HandlerMethod handlerMethod = (HandlerMethod) handler;
-            String className = handlerMethod.getBeanType().getSimpleName();
-            String methodName = handlerMethod.getMethod().getName();
-            handlerInfo = className + "." + methodName + "()";
+            handlerInfo = handlerNames.computeIfAbsent(handlerMethod.getMethod(),
+                    method -> handlerMethod.getBeanType().getSimpleName() + "." + method.getName() + "()");
         }
         request.setAttribute(HANDLER_METHOD_ATTR, handlerInfo);
-        
+        request.setAttribute(START_NANOS_ATTR, System.nanoTime());
+
         return true; // Continue with request processing
     }
 
@@ -55,29 +68,23 @@ public class ApiLoggingInterceptor implements HandlerInterceptor {
 
     /**
      * After-completion: Called after the complete request has finished
-     * Log the API call with timestamp and controller method
+     * Record the handler timer and queue the access line (handler, status, duration, user id);
+     * formatting and console output happen on the AccessLog writer thread
      */
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
         String handlerInfo = (String) request.getAttribute(HANDLER_METHOD_ATTR);
-        String timestamp = LocalDateTime.now().format(formatter);
+        Long startNanos = (Long) request.getAttribute(START_NANOS_ATTR);
+        long durationNanos = startNanos != null ? System.nanoTime() - startNanos : 0L;
         int statusCode = response.getStatus();
-        
-        // Check if there's an error (exception or HTTP error status)
-        boolean isError = ex != null || statusCode >= 400;
-        
-        if (isError) {
-            // Log error - error comes first
-            if (ex != null) {
-                logger.error("Error: {} | Status: {} | Timestamp: {} | Controller: {}", 
-                    ex.getMessage(), statusCode, timestamp, handlerInfo);
-            } else {
-                logger.error("Error: HTTP {} | Timestamp: {} | Controller: {}", 
-                    statusCode, timestamp, handlerInfo);
-            }
-        } else {
-            // Log success
-            logger.info("Timestamp: {} | Controller: {}", timestamp, handlerInfo);
+        if (ex != null && statusCode < 400) {
+            statusCode = 500; // exception escaped the handler, the error page sets the real status later
+        }
+
+        if (handlerInfo != null && !UNKNOWN_HANDLER.equals(handlerInfo)) {
+            metrics.handlerCompleted(handlerInfo, statusCode, durationNanos);
         }
+        accessLog.access(handlerInfo, statusCode, durationNanos, AuthAccess.currentUserIdOrNull(),
+                ex != null ? String.valueOf(ex.getMessage()) : null);
     }
 }
@@ -6,8 +6,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Pageable;
 
 import jakarta.persistence.LockModeType;
-import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -43,12 +44,52 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @Query("SELECT a FROM Appointment a WHERE a.id = :id")
     Optional<Appointment> lockById(@Param("id") Long id);
 
+    // Doctor and time of one appointment without loading (or locking) the entity
+    @Query("SELECT a.doctorId AS doctorId, a.appointmentTime AS appointmentTime FROM Appointment a WHERE a.id = :id")
+    Optional<DoctorTime> findDoctorTimeById(@Param("id") Long id);
+
     List<Appointment> findByDoctorIdAndAppointmentTimeBetweenAndStatusOrderByAppointmentTime(@Param("doctorId") Long doctorId, @Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to, @Param("status") String status);
 
-    List<Appointment> findByUserIdOrderByAppointmentTimeDesc(@Param("userId") Long userId);
+    // User's appointments from a day on, newest first (home screen); idx_appointments_user_time narrows to the user
+    @Query("SELECT a FROM Appointment a WHERE a.userId = :userId AND a.appointmentDay >= :fromDay " +
+           "ORDER BY a.appointmentTime DESC, a.id DESC")
+    List<Appointment> findByUserIdFromDay(@Param("userId") Long userId, @Param("fromDay") LocalDate fromDay);
+
+    /*
+     * Keyset pages over (appointment_time, id) for one user, served by idx_appointments_user_time.
+     * The redundant time bound keeps the index range tight; the OR only breaks ties on the cursor time.
+     * Page size comes from the Pageable (always page 0); Pageable.unpaged() returns every row.
+     */
+    @Query("SELECT a FROM Appointment a WHERE a.userId = :userId ORDER BY a.appointmentTime DESC, a.id DESC")
+    List<Appointment> findUserPageNewestFirst(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT a FROM Appointment a WHERE a.userId = :userId AND a.appointmentTime <= :time " +
+           "AND (a.appointmentTime < :time OR a.id < :id) ORDER BY a.appointmentTime DESC, a.id DESC")
+    List<Appointment> findUserPageBefore(@Param("userId") Long userId,
+                                         @Param("time") OffsetDateTime time,
+                                         @Param("id") long id,
+                                         Pageable pageable);
+
+    @Query("SELECT a FROM Appointment a WHERE a.userId = :userId AND a.appointmentTime >= :time " +
+           "AND (a.appointmentTime > :time OR a.id > :id) ORDER BY a.appointmentTime ASC, a.id ASC")
+    List<Appointment> findUserPageAfter(@Param("userId") Long userId,
+                                        @Param("time") OffsetDateTime time,
+                                        @Param("id") long id,
+                                        Pageable pageable);
 
     // Find appointments between dates for daily status
     List<Appointment> findByAppointmentTimeBetween(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
+
+    // Status counts for the daily status endpoints, no entities loaded
+    @Query("SELECT a.status AS status, COUNT(a) AS total FROM Appointment a " +
+           "WHERE a.appointmentTime >= :from AND a.appointmentTime < :to GROUP BY a.status")
+    List<StatusCount> countByStatusBetween(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
+
+    @Query("SELECT a.status AS status, COUNT(a) AS total FROM Appointment a " +
+           "WHERE a.doctorId = :doctorId AND a.appointmentTime >= :from AND a.appointmentTime < :to GROUP BY a.status")
+    List<StatusCount> countByStatusForDoctorBetween(@Param("doctorId") Long doctorId,
+                                                    @Param("from") OffsetDateTime from,
+                                                    @Param("to") OffsetDateTime to);
     
     // Find pending appointments (BOOKED or RESCHEDULED status) between dates
     @Query("SELECT a FROM Appointment a WHERE a.appointmentTime BETWEEN :from AND :to AND (a.status = 'BOOKED' OR a.status = 'RESCHEDULED')")
@@ -75,6 +116,24 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @Query("SELECT a FROM Appointment a WHERE a.doctorId = :doctorId AND a.workplaceId = :workplaceId AND a.appointmentDate = :date")
     List<Appointment> findByDoctorIdAndWorkplaceIdAndAppointmentDate(@Param("doctorId") Long doctorId, @Param("workplaceId") Long workplaceId, @Param("date") String date);
 
+    // Used to warm the slot availability index for several days with one query (index of the ux_appointments_active_slot constraint, partial on the same status filter)
+    @Query("SELECT a FROM Appointment a WHERE a.doctorId = :doctorId AND a.workplaceId = :workplaceId " +
+           "AND a.appointmentDay BETWEEN :fromDate AND :toDate AND a.status <> 'CANCELLED'")
+    List<Appointment> findByDoctorIdAndWorkplaceIdAndAppointmentDayBetween(@Param("doctorId") Long doctorId,
+                                                                           @Param("workplaceId") Long workplaceId,
+                                                                           @Param("fromDate") LocalDate fromDate,
+                                                                           @Param("toDate") LocalDate toDate);
+
+    /**
+     * Appointments of a doctor on a day, excluding the given statuses - for cancelling appointments under a block
+     */
+    List<Appointment> findByDoctorIdAndAppointmentDayAndStatusNotIn(Long doctorId, LocalDate appointmentDay,
+                                                                    Collection<String> statuses);
+
+    List<Appointment> findByDoctorIdAndWorkplaceIdAndAppointmentDayAndStatusNotIn(Long doctorId, Long workplaceId,
+                                                                                  LocalDate appointmentDay,
+                                                                                  Collection<String> statuses);
+
     @Query("SELECT a FROM Appointment a WHERE a.doctorId = :doctorId AND a.workplaceId = :workplaceId ORDER BY a.appointmentDate ASC, a.appointmentTime ASC")
     List<Appointment> findByDoctorIdAndWorkplaceId(@Param("doctorId") Long doctorId, @Param("workplaceId") Long workplaceId);
     
@@ -107,9 +166,9 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     long countByDoctorIdAndWorkplaceIdAndAppointmentDateAndStatus(@Param("doctorId") Long doctorId, @Param("workplaceId") Long workplaceId, @Param("appointmentDate") String appointmentDate, @Param("status") String status);
 
     /**
-     * Count future appointments for a doctor/workplace where appointmentDate > :date and status matches
+     * Count future appointments for a doctor/workplace where appointmentDay > :date and status matches
      */
-    long countByDoctorIdAndWorkplaceIdAndAppointmentDateGreaterThanAndStatus(@Param("doctorId") Long doctorId, @Param("workplaceId") Long workplaceId, @Param("appointmentDate") String appointmentDate, @Param("status") String status);
+    long countByDoctorIdAndWorkplaceIdAndAppointmentDayGreaterThanAndStatus(@Param("doctorId") Long doctorId, @Param("workplaceId") Long workplaceId, @Param("appointmentDay") LocalDate appointmentDay, @Param("status") String status);
     
     /**
      * Count appointments by doctor and date
@@ -123,19 +182,53 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     List<Appointment> findByWorkplaceIdAndAppointmentDate(@Param("workplaceId") Long workplaceId, @Param("appointmentDate") String appointmentDate);
     
     /**
-     * Find all appointments by workplace - for workspace appointments API (all dates)
+     * Dates with appointments of the given status at a workplace, from a date on - keyset cursor for the
+     * workspace appointments API (page size comes from the Pageable). Uses idx_appointments_workplace_day_status.
+     */
+    @Query("SELECT DISTINCT a.appointmentDay FROM Appointment a WHERE a.workplaceId = :workplaceId " +
+           "AND a.status = :status AND a.appointmentDay >= :fromDate ORDER BY a.appointmentDay ASC")
+    List<LocalDate> findAppointmentDatesByWorkplaceFrom(@Param("workplaceId") Long workplaceId,
+                                                        @Param("status") String status,
+                                                        @Param("fromDate") LocalDate fromDate,
+                                                        Pageable pageable);
+
+    /**
+     * Appointments of the given status at a workplace within [fromDate, toDate], ordered by date and time
+     */
+    @Query("SELECT a FROM Appointment a WHERE a.workplaceId = :workplaceId AND a.status = :status " +
+           "AND a.appointmentDay >= :fromDate AND a.appointmentDay <= :toDate " +
+           "ORDER BY a.appointmentDay ASC, a.appointmentTime ASC")
+    List<Appointment> findByWorkplaceIdAndStatusAndDateRange(@Param("workplaceId") Long workplaceId,
+                                                             @Param("status") String status,
+                                                             @Param("fromDate") LocalDate fromDate,
+                                                             @Param("toDate") LocalDate toDate);
+
+    /**
+     * Appointments of the given status at a workplace from fromDate on, ordered by date and time
+     */
+    @Query("SELECT a FROM Appointment a WHERE a.workplaceId = :workplaceId AND a.status = :status " +
+           "AND a.appointmentDay >= :fromDate ORDER BY a.appointmentDay ASC, a.appointmentTime ASC")
+    List<Appointment> findByWorkplaceIdAndStatusFromDate(@Param("workplaceId") Long workplaceId,
+                                                         @Param("status") String status,
+                                                         @Param("fromDate") LocalDate fromDate);
+
+    /**
+     * A doctor's BOOKED appointments at a workplace from a date on - workspace bulk reschedule
      */
-    @Query("SELECT a FROM Appointment a WHERE a.workplaceId = :workplaceId")
-    List<Appointment> findByWorkplaceIdOrderByAppointmentDateAndTime(@Param("workplaceId") Long workplaceId);
-
-    // Native function call to increase_time_range using PostgreSQL array literal
-    @Modifying
-    @Transactional
-    @Query(value = "SELECT increase_time_range(CAST(:ids AS int[]), CAST(:add_interval AS text))", nativeQuery = true)
-    void increaseTimeRangeNative(@Param("ids") String ids, @Param("add_interval") String addInterval);
-
-    @Modifying
-    @Transactional
-    @Query(value = "SELECT increase_time_range(CAST(:ids AS int[]), CAST(:add_interval AS text), CAST(:new_date AS date))", nativeQuery = true)
-    void increaseTimeRangeNativeWithDate(@Param("ids") String ids, @Param("add_interval") String addInterval, @Param("new_date") String newDate);
+    @Query("SELECT a FROM Appointment a WHERE a.workplaceId = :workplaceId AND a.doctorId = :doctorId " +
+           "AND a.status = 'BOOKED' AND a.appointmentDay >= :fromDate " +
+           "ORDER BY a.appointmentDay ASC, a.appointmentTime ASC")
+    List<Appointment> findBookedByWorkplaceAndDoctorFrom(@Param("workplaceId") Long workplaceId,
+                                                         @Param("doctorId") Long doctorId,
+                                                         @Param("fromDate") LocalDate fromDate);
+
+    interface StatusCount {
+        String getStatus();
+        long getTotal();
+    }
+
+    interface DoctorTime {
+        Long getDoctorId();
+        OffsetDateTime getAppointmentTime();
+    }
 }
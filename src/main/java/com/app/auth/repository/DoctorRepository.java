@@ -11,17 +11,46 @@ import java.util.List;
 
 public interface DoctorRepository extends JpaRepository<DoctorDetails, Long> {
 
-    @Query("SELECT d FROM DoctorDetails d WHERE " +
-            "LOWER(TRIM(d.fullName)) LIKE LOWER(CONCAT('%', TRIM(:keyword), '%')) OR " +
-            "LOWER(TRIM(d.specialization)) LIKE LOWER(CONCAT('%', TRIM(:keyword), '%')) OR " +
-            "LOWER(TRIM(d.designation)) LIKE LOWER(CONCAT('%', TRIM(:keyword), '%')) OR " +
-            "LOWER(TRIM(d.address)) LIKE LOWER(CONCAT('%', TRIM(:keyword), '%')) OR " +
-            "LOWER(TRIM(d.city)) LIKE LOWER(CONCAT('%', TRIM(:keyword), '%'))")
-    List<DoctorDetails> searchDoctors(@Param("keyword") String keyword);
-    
-    // Method to get all doctors for debugging
-    @Query("SELECT d FROM DoctorDetails d")
-    List<DoctorDetails> findAllDoctors();
+    // Indexed search over doctor_search_documents (db/migrations/004): substring (trigram), prefix words
+    // (tsvector) and typo (word similarity) matches on the doctor's own fields, best matches first.
+    // likePattern is the escaped '%keyword%', prefixQuery a to_tsquery string like 'car:* & joh:*'.
+    @Query(value = "SELECT d.* FROM doctor_details d " +
+            "JOIN doctor_search_documents s ON s.doctor_id = d.doctor_id " +
+            "WHERE s.doctor_text LIKE :likePattern " +
+            "OR s.doctor_tsv @@ to_tsquery('simple', :prefixQuery) " +
+            "OR :keyword <% s.doctor_text " +
+            "ORDER BY ts_rank(s.doctor_tsv, to_tsquery('simple', :prefixQuery)) " +
+            "+ word_similarity(:keyword, s.doctor_text) DESC, d.full_name ASC",
+            nativeQuery = true)
+    List<DoctorDetails> searchDoctors(@Param("keyword") String keyword,
+                                      @Param("likePattern") String likePattern,
+                                      @Param("prefixQuery") String prefixQuery);
+
+    // Same index over doctor and workplace text in one ranked, paginated query.
+    // doctorMatch tells whether the doctor's own fields matched (otherwise only a workplace did).
+    @Query(value = "SELECT s.doctor_id AS \"doctorId\", " +
+            "(s.doctor_text LIKE :likePattern OR s.doctor_tsv @@ to_tsquery('simple', :prefixQuery) " +
+            "OR :keyword <% s.doctor_text) AS \"doctorMatch\" " +
+            "FROM doctor_search_documents s " +
+            "WHERE s.search_text LIKE :likePattern " +
+            "OR s.search_tsv @@ to_tsquery('simple', :prefixQuery) " +
+            "OR :keyword <% s.search_text " +
+            "ORDER BY ts_rank(s.search_tsv, to_tsquery('simple', :prefixQuery)) " +
+            "+ word_similarity(:keyword, s.search_text) DESC, s.doctor_id ASC",
+            countQuery = "SELECT COUNT(*) FROM doctor_search_documents s " +
+            "WHERE s.search_text LIKE :likePattern " +
+            "OR s.search_tsv @@ to_tsquery('simple', :prefixQuery) " +
+            "OR :keyword <% s.search_text",
+            nativeQuery = true)
+    Page<SearchHit> searchDoctorsAndWorkplaces(@Param("keyword") String keyword,
+                                               @Param("likePattern") String likePattern,
+                                               @Param("prefixQuery") String prefixQuery,
+                                               Pageable pageable);
+
+    interface SearchHit {
+        Long getDoctorId();
+        Boolean getDoctorMatch();
+    }
     
     // Paginated method to get all doctors
     @Query("SELECT d FROM DoctorDetails d ORDER BY d.fullName ASC")
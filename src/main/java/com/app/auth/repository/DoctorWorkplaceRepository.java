@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface DoctorWorkplaceRepository extends JpaRepository<DoctorWorkplace, Long> {
@@ -18,10 +19,9 @@ public interface DoctorWorkplaceRepository extends JpaRepository<DoctorWorkplace
     @Query("SELECT dw FROM DoctorWorkplace dw WHERE dw.doctor.id = :doctorId AND dw.isPrimary = true")
     DoctorWorkplace findPrimaryWorkplaceByDoctorId(@Param("doctorId") Long doctorId);
     
-    // Enhanced search methods
-    @Query("SELECT DISTINCT dw FROM DoctorWorkplace dw JOIN dw.doctor d WHERE " +
-           "LOWER(dw.workplaceName) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<DoctorWorkplace> findByWorkplaceNameContaining(@Param("keyword") String keyword);
+    // All workplaces of several doctors in one query (search results)
+    @Query("SELECT dw FROM DoctorWorkplace dw WHERE dw.doctor.id IN :doctorIds")
+    List<DoctorWorkplace> findByDoctorIdIn(@Param("doctorIds") Collection<Long> doctorIds);
     
     @Query("SELECT DISTINCT dw FROM DoctorWorkplace dw JOIN dw.doctor d WHERE " +
            "LOWER(dw.city) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
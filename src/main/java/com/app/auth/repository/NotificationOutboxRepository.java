@@ -0,0 +1,27 @@
+package com.app.auth.repository;
+
+import com.app.auth.entity.NotificationOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEntry, Long> {
+
+    // Due entries (pending, or SENDING whose lease expired after a crash); SKIP LOCKED lets several instances drain in parallel
+    @Query(value = "SELECT * FROM notification_outbox " +
+                   "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutboxEntry> lockDueEntries(@Param("now") OffsetDateTime now, @Param("limit") int limit);
+
+    long countByStatus(String status);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutboxEntry n WHERE n.status = 'SENT' AND n.sentAt < :before")
+    int deleteSentBefore(@Param("before") OffsetDateTime before);
+}
@@ -1,17 +1,39 @@
 package com.app.auth.repository;
 
 import com.app.auth.entity.PastAppointment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 public interface PastAppointmentRepository extends JpaRepository<PastAppointment, Long> {
 
     long deleteByUserId(Long userId);
     
-    List<PastAppointment> findByUserIdOrderByAppointmentTimeDesc(@Param("userId") Long userId);
+    /**
+     * Keyset page of a user's archived appointments, newest first, strictly before (time, id).
+     * Served by idx_past_appointments_user_time; page size comes from the Pageable.
+     */
+    @Query("SELECT pa FROM PastAppointment pa WHERE pa.userId = :userId AND pa.appointmentTime <= :time " +
+           "AND (pa.appointmentTime < :time OR pa.id < :id) ORDER BY pa.appointmentTime DESC, pa.id DESC")
+    List<PastAppointment> findUserPageBefore(@Param("userId") Long userId,
+                                             @Param("time") OffsetDateTime time,
+                                             @Param("id") long id,
+                                             Pageable pageable);
+
+    /**
+     * Keyset page of a user's archived appointments, oldest first, strictly after (time, id).
+     * Today's completed visits are archived before the day ends and still belong to the upcoming part.
+     */
+    @Query("SELECT pa FROM PastAppointment pa WHERE pa.userId = :userId AND pa.appointmentTime >= :time " +
+           "AND (pa.appointmentTime > :time OR pa.id > :id) ORDER BY pa.appointmentTime ASC, pa.id ASC")
+    List<PastAppointment> findUserPageAfter(@Param("userId") Long userId,
+                                            @Param("time") OffsetDateTime time,
+                                            @Param("id") long id,
+                                            Pageable pageable);
     
     List<PastAppointment> findByDoctorIdOrderByAppointmentTimeDesc(@Param("doctorId") Long doctorId);
     
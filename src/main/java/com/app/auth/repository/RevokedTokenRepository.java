@@ -0,0 +1,27 @@
+package com.app.auth.repository;
+
+import com.app.auth.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // Startup load: every revocation that still matters
+    List<RevokedToken> findByExpiresAtAfter(OffsetDateTime now);
+
+    // Periodic sync with revocations made by other instances
+    List<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(OffsetDateTime revokedAfter, OffsetDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
@@ -2,7 +2,12 @@ package com.app.auth.repository;
 
 import com.app.auth.entity.UserDetails;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserDetailsRepository extends JpaRepository<UserDetails, Long> {
@@ -10,4 +15,30 @@ public interface UserDetailsRepository extends JpaRepository<UserDetails, Long>
     Optional<UserDetails> findByMobileNumber(String mobileNumber);
 
     Optional<UserDetails> findByEmail(String email);
+
+    // Clear a push token Expo rejected, unless the user registered a different one since it was sent
+    @Modifying
+    @Query(value = "UPDATE user_details SET fcm_token = NULL, device_type = NULL WHERE user_id = :userId AND fcm_token = :token",
+           nativeQuery = true)
+    int clearPushToken(@Param("userId") Long userId, @Param("token") String token);
+
+    // Patient columns shown on doctor-side appointment lists, for a whole page of appointments in one query.
+    // Only these columns are selected, so the encrypted medical columns are never loaded or decrypted.
+    @Query("SELECT u.id AS id, u.fullName AS fullName, u.mobileNumber AS mobileNumber, u.email AS email, " +
+           "u.age AS age, u.weightKg AS weightKg, u.bloodGroup AS bloodGroup, " +
+           "u.bloodPressureSystolic AS bloodPressureSystolic, u.bloodPressureDiastolic AS bloodPressureDiastolic " +
+           "FROM UserDetails u WHERE u.id IN :ids")
+    List<PatientSummary> findPatientSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface PatientSummary {
+        Long getId();
+        String getFullName();
+        String getMobileNumber();
+        String getEmail();
+        Integer getAge();
+        Double getWeightKg();
+        String getBloodGroup();
+        Integer getBloodPressureSystolic();
+        Integer getBloodPressureDiastolic();
+    }
 }
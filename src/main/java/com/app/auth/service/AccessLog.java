@@ -0,0 +1,240 @@
+package com.app.auth.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous access and debug log.
+ *
+ * Request threads only claim a slot in a pre-allocated ring buffer and copy a few fields into it; a single
+ * background writer formats the lines and hands them to the logging backend, so console I/O never runs on the
+ * request thread. When the buffer is full the entry is dropped (and counted) instead of blocking the request.
+ *
+ * - access lines (logger com.app.auth.service.AccessLog): handler, status, duration and user id per request.
+ *   4xx/5xx are always written, 2xx/3xx are sampled with app.access-log.success-sample-rate.
+ * - debug lines: the former System.out traces of the booking, notification and search paths. They are only
+ *   queued when the caller's logger has DEBUG enabled, and the arguments are formatted on the writer thread,
+ *   so pass values (ids, counts, dates), not objects that are modified afterwards.
+ */
+@Service
+public class AccessLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLog.class);
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long NO_USER = -1L;
+
+    private static final int KIND_ACCESS = 0;
+    private static final int KIND_DEBUG = 1;
+
+    /** One ring slot, reused for the lifetime of the buffer. */
+    private static final class Entry {
+        int kind;
+        long timestampMillis;
+        // access
+        String handler;
+        int status;
+        long durationMicros;
+        long userId;
+        String error;
+        // debug
+        Logger target;
+        String format;
+        Object[] args;
+
+        void clear() {
+            handler = null;
+            error = null;
+            target = null;
+            format = null;
+            args = null;
+        }
+    }
+
+    private final Entry[] entries;
+    // Per-slot sequence: slot i is free for producer position p when sequence == p, readable when p + 1
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final double successSampleRate;
+    private final Thread writer;
+    private volatile boolean running = true;
+    // Only touched by the writer thread
+    private long head;
+    private long reportedDropped;
+
+    public AccessLog(@Value("${app.access-log.buffer-size:8192}") int bufferSize,
+                     @Value("${app.access-log.success-sample-rate:1.0}") double successSampleRate) {
+        int capacity = Integer.highestOneBit(Math.max(64, bufferSize) - 1) << 1;
+        this.entries = new Entry[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = new Entry();
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.successSampleRate = Math.max(0.0, Math.min(1.0, successSampleRate));
+        this.writer = new Thread(this::drainLoop, "access-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Access line for one finished request. userId may be null for anonymous calls, error is the message of an
+     * exception that escaped the handler (or null).
+     */
+    public void access(String handler, int status, long durationNanos, Long userId, String error) {
+        boolean failed = status >= 400 || error != null;
+        if (failed ? !logger.isErrorEnabled() : !logger.isInfoEnabled()) {
+            return;
+        }
+        if (!failed && successSampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= successSampleRate) {
+            return;
+        }
+        long position = claim();
+        if (position < 0) {
+            return;
+        }
+        Entry entry = entries[(int) (position & mask)];
+        entry.kind = KIND_ACCESS;
+        entry.timestampMillis = System.currentTimeMillis();
+        entry.handler = handler;
+        entry.status = status;
+        entry.durationMicros = durationNanos / 1_000;
+        entry.userId = userId != null ? userId : NO_USER;
+        entry.error = error;
+        publish(position);
+    }
+
+    /**
+     * Queues a DEBUG line for the given logger; no-op unless that logger has DEBUG enabled.
+     */
+    public void debug(Logger target, String format, Object... args) {
+        if (!target.isDebugEnabled()) {
+            return;
+        }
+        long position = claim();
+        if (position < 0) {
+            return;
+        }
+        Entry entry = entries[(int) (position & mask)];
+        entry.kind = KIND_DEBUG;
+        entry.timestampMillis = System.currentTimeMillis();
+        entry.target = target;
+        entry.format = format;
+        entry.args = args;
+        publish(position);
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    // ==================== RING BUFFER ====================
+
+    /**
+     * Reserves the next producer position, or -1 when the buffer is full.
+     */
+    private long claim() {
+        long position = tail.get();
+        while (true) {
+            long sequence = sequences.get((int) (position & mask));
+            long diff = sequence - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                dropped.incrementAndGet();
+                return -1;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    private void publish(long position) {
+        sequences.set((int) (position & mask), position + 1);
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+        drain();
+    }
+
+    private int drain() {
+        int written = 0;
+        while (true) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            Entry entry = entries[index];
+            try {
+                write(entry);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to write log entry: {}", e.getMessage());
+            }
+            entry.clear();
+            sequences.set(index, head + entries.length);
+            head++;
+            written++;
+        }
+        long droppedNow = dropped.get();
+        if (droppedNow != reportedDropped) {
+            logger.warn("Access log buffer full, dropped {} entries", droppedNow - reportedDropped);
+            reportedDropped = droppedNow;
+        }
+        return written;
+    }
+
+    private void write(Entry entry) {
+        if (entry.kind == KIND_DEBUG) {
+            entry.target.debug(entry.format, entry.args);
+            return;
+        }
+        String at = TIMESTAMP.format(Instant.ofEpochMilli(entry.timestampMillis));
+        String user = entry.userId == NO_USER ? "-" : Long.toString(entry.userId);
+        String duration = entry.durationMicros / 1_000 + "." + String.format("%03d", entry.durationMicros % 1_000);
+        if (entry.error != null) {
+            logger.error("handler={} status={} duration_ms={} user={} at={} error=\"{}\"",
+                    entry.handler, entry.status, duration, user, at, entry.error);
+        } else if (entry.status >= 400) {
+            logger.error("handler={} status={} duration_ms={} user={} at={}",
+                    entry.handler, entry.status, duration, user, at);
+        } else {
+            logger.info("handler={} status={} duration_ms={} user={} at={}",
+                    entry.handler, entry.status, duration, user, at);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
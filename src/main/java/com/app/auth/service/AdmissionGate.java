@@ -0,0 +1,207 @@
+package com.app.auth.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control in front of the DB-bound API (the Hikari pool has 3 connections).
+ *
+ * At most maxConcurrent requests run at once; the rest wait in a priority queue (HIGH before NORMAL before LOW,
+ * FIFO within a priority). Before queueing, the wait is projected from the number of requests ahead and a moving
+ * average of how long an admitted request holds its slot. If that projection exceeds the priority's budget, or the
+ * queue is full, the request is rejected right away so the caller can answer 429 with Retry-After instead of
+ * sitting on the pool's 20 s connection timeout. A queued request that still exceeds its budget is rejected too.
+ *
+ * Meters: app.admission.queue.depth (per priority), app.admission.in_flight, app.admission.wait (per priority),
+ * app.admission.rejected (per priority and reason).
+ */
+@Service
+public class AdmissionGate {
+
+    public enum Priority { HIGH, NORMAL, LOW }
+
+    /** Thrown when a request is shed; retryAfterSeconds goes into the Retry-After header. */
+    public static class RejectedException extends Exception {
+        private final long retryAfterSeconds;
+
+        RejectedException(String message, long retryAfterSeconds) {
+            super(message, null, false, false);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    private static final double EWMA_WEIGHT = 0.1;
+
+    private final class Waiter {
+        final Priority priority;
+        final long sequence;
+        final Condition admitted = lock.newCondition();
+        boolean granted;
+
+        Waiter(Priority priority, long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparing((Waiter w) -> w.priority).thenComparingLong(w -> w.sequence));
+    private final int[] queuedByPriority = new int[Priority.values().length];
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final Map<Priority, Long> budgetNanos = new EnumMap<>(Priority.class);
+    private final Map<Priority, Timer> waitTimers = new EnumMap<>(Priority.class);
+    private final MeterRegistry registry;
+    // Guarded by lock
+    private int inFlight;
+    private long sequence;
+    private double avgHoldNanos;
+
+    public AdmissionGate(MeterRegistry registry,
+                         @Value("${app.admission.enabled:true}") boolean enabled,
+                         @Value("${app.admission.max-concurrent:6}") int maxConcurrent,
+                         @Value("${app.admission.max-queue:200}") int maxQueue,
+                         @Value("${app.admission.budget-ms.high:10000}") long highBudgetMs,
+                         @Value("${app.admission.budget-ms.normal:4000}") long normalBudgetMs,
+                         @Value("${app.admission.budget-ms.low:1500}") long lowBudgetMs,
+                         @Value("${app.admission.initial-hold-ms:50}") long initialHoldMs) {
+        this.registry = registry;
+        this.enabled = enabled;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxQueue = Math.max(0, maxQueue);
+        this.avgHoldNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, initialHoldMs));
+        budgetNanos.put(Priority.HIGH, TimeUnit.MILLISECONDS.toNanos(highBudgetMs));
+        budgetNanos.put(Priority.NORMAL, TimeUnit.MILLISECONDS.toNanos(normalBudgetMs));
+        budgetNanos.put(Priority.LOW, TimeUnit.MILLISECONDS.toNanos(lowBudgetMs));
+
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase();
+            Gauge.builder("app.admission.queue.depth", queuedByPriority, counts -> counts[priority.ordinal()])
+                    .description("Requests waiting for admission")
+                    .tag("priority", tag)
+                    .register(registry);
+            waitTimers.put(priority, Timer.builder("app.admission.wait")
+                    .description("Time spent queued before admission")
+                    .tag("priority", tag)
+                    .register(registry));
+        }
+        Gauge.builder("app.admission.in_flight", this, gate -> gate.inFlight)
+                .description("Admitted requests currently running")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Blocks until the request may run, or throws RejectedException when it should be shed.
+     * Every successful acquire must be paired with release(holdNanos).
+     */
+    public void acquire(Priority priority) throws RejectedException {
+        long budget = budgetNanos.get(priority);
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (inFlight < maxConcurrent && queue.isEmpty()) {
+                inFlight++;
+                return;
+            }
+            long projected = projectedWaitNanos(priority);
+            if (queue.size() >= maxQueue) {
+                throw reject(priority, "queue_full", projected);
+            }
+            if (projected > budget) {
+                throw reject(priority, "projected_wait", projected);
+            }
+            waiter = new Waiter(priority, sequence++);
+            queue.add(waiter);
+            queuedByPriority[priority.ordinal()]++;
+        } finally {
+            lock.unlock();
+        }
+
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            long remaining = budget;
+            while (!waiter.granted && remaining > 0) {
+                try {
+                    remaining = waiter.admitted.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (!waiter.granted) {
+                queue.remove(waiter);
+                queuedByPriority[priority.ordinal()]--;
+                throw reject(priority, "timeout", projectedWaitNanos(priority));
+            }
+        } finally {
+            lock.unlock();
+        }
+        waitTimers.get(priority).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Frees the slot taken by acquire and hands it to the next queued request.
+     */
+    public void release(long holdNanos) {
+        lock.lock();
+        try {
+            avgHoldNanos += EWMA_WEIGHT * (Math.max(0L, holdNanos) - avgHoldNanos);
+            inFlight--;
+            while (inFlight < maxConcurrent && !queue.isEmpty()) {
+                Waiter next = queue.poll();
+                queuedByPriority[next.priority.ordinal()]--;
+                next.granted = true;
+                inFlight++;
+                next.admitted.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Requests queued at the same or a higher priority drain before this one; each admitted slot frees up
+     * after about avgHoldNanos.
+     */
+    private long projectedWaitNanos(Priority priority) {
+        int ahead = 0;
+        for (int i = 0; i <= priority.ordinal(); i++) {
+            ahead += queuedByPriority[i];
+        }
+        return (long) ((ahead + 1) * avgHoldNanos / maxConcurrent);
+    }
+
+    private RejectedException reject(Priority priority, String reason, long projectedNanos) {
+        Counter.builder("app.admission.rejected")
+                .description("Requests shed by admission control")
+                .tag("priority", priority.name().toLowerCase())
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+        long retryAfter = Math.max(1L, (long) Math.ceil(projectedNanos / 1_000_000_000.0));
+        return new RejectedException("Server busy (" + reason + ")", retryAfter);
+    }
+}
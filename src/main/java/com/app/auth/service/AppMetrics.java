@@ -0,0 +1,158 @@
+package com.app.auth.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application meters on top of what Spring Boot already records (http.server.requests,
+ * spring.data.repository.invocations, hikaricp.*). Scraped from /actuator/prometheus.
+ *
+ * - app.http.handler        timer per controller method (ApiLoggingInterceptor)
+ * - app.outbound.requests   timer per external client (expo, twilio, whatsapp)
+ * - app.appointments.booked / app.appointments.cancelled / app.notifications  counters
+ * - app.appointments.booking_conflicts  bookings rejected because the slot was taken meanwhile
+ *
+ * Tag values are fixed strings chosen by the caller, never ids or user input, so series stay bounded.
+ * Domain counters are incremented after commit, so rolled back bookings or cancellations are not counted.
+ */
+@Service
+public class AppMetrics {
+
+    public static final String CANCELLED_BY_USER = "user";
+    public static final String CANCELLED_BY_DOCTOR = "doctor";
+    public static final String CANCELLED_DOCTOR_DAY = "doctor_day";
+    public static final String CANCELLED_BLOCKED_SLOT = "blocked_slot";
+
+    private final MeterRegistry registry;
+    private final Counter booked;
+    private final Counter rescheduled;
+    private final Counter bookingConflicts;
+
+    public AppMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.booked = bookings("new");
+        this.rescheduled = bookings("reschedule");
+        this.bookingConflicts = Counter.builder("app.appointments.booking_conflicts")
+                .description("Bookings rejected by the one-booking-per-slot constraint")
+                .register(registry);
+    }
+
+    private Counter bookings(String kind) {
+        return Counter.builder("app.appointments.booked")
+                .description("Appointments created")
+                .tag("kind", kind)
+                .register(registry);
+    }
+
+    // ==================== DOMAIN COUNTERS ====================
+
+    public void appointmentBooked() {
+        afterCommit(booked::increment);
+    }
+
+    public void appointmentRescheduled() {
+        afterCommit(rescheduled::increment);
+    }
+
+    /**
+     * Counted right away: the booking transaction is rolled back, so there is no commit to wait for
+     */
+    public void bookingConflict() {
+        bookingConflicts.increment();
+    }
+
+    public void appointmentsCancelled(String source, int count) {
+        if (count <= 0) {
+            return;
+        }
+        Counter counter = Counter.builder("app.appointments.cancelled")
+                .description("Appointments cancelled")
+                .tag("source", source)
+                .register(registry);
+        afterCommit(() -> counter.increment(count));
+    }
+
+    /**
+     * Push notifications by outcome: queued, sent, retry, failed
+     */
+    public void notifications(String outcome, int count) {
+        if (count <= 0) {
+            return;
+        }
+        Counter counter = Counter.builder("app.notifications")
+                .description("Push notifications by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+        afterCommit(() -> counter.increment(count));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ==================== TIMERS ====================
+
+    /**
+     * Records one controller method invocation
+     */
+    public void handlerCompleted(String handler, int status, long durationNanos) {
+        Timer.builder("app.http.handler")
+                .description("Controller method latency")
+                .tag("handler", handler)
+                .tag("status", Integer.toString(status))
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * RestTemplate interceptor timing every exchange with an external provider. Outcome is the HTTP status
+     * family, or IO_ERROR when no response came back.
+     */
+    public ClientHttpRequestInterceptor outboundTimer(String client) {
+        return (request, body, execution) -> {
+            long start = System.nanoTime();
+            String outcome = "IO_ERROR";
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                outcome = outcome(response);
+                return response;
+            } finally {
+                Timer.builder("app.outbound.requests")
+                        .description("Latency of calls to external providers")
+                        .tag("client", client)
+                        .tag("outcome", outcome)
+                        .register(registry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    private static String outcome(ClientHttpResponse response) throws IOException {
+        int status = response.getStatusCode().value();
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        return "SUCCESS";
+    }
+}
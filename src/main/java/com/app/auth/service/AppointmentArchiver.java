@@ -0,0 +1,174 @@
+package com.app.auth.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves expired rows from appointments to past_appointments inside the database.
+ *
+ * Work is split into id-range chunks. Each chunk is one statement (DELETE ... RETURNING feeding an
+ * INSERT ... SELECT) committed in its own short transaction, so the job never holds a connection
+ * or a big transaction for the whole table and never loads rows into the JVM. A chunk is either
+ * fully moved or not moved at all; if the run is interrupted, the next run simply continues with
+ * whatever rows are still older than today.
+ */
+@Service
+public class AppointmentArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentArchiver.class);
+
+    // Range on the typed column (idx_appointments_day). Rows whose appointment_date did not parse have a null
+    // appointment_day and are left alone, as the old Java pass skipped unparsable dates too.
+    private static final String EXPIRED_PREDICATE = "appointment_day < ?";
+
+    private static final String ID_RANGE_SQL =
+            "SELECT MIN(id) AS min_id, MAX(id) AS max_id, COUNT(*) AS total FROM appointments WHERE " + EXPIRED_PREDICATE;
+
+    private static final String MOVE_CHUNK_SQL =
+            "WITH moved AS (" +
+            "  DELETE FROM appointments WHERE id >= ? AND id < ? AND " + EXPIRED_PREDICATE +
+            "  RETURNING user_id, doctor_id, workplace_id, workplace_name, workplace_type, workplace_address," +
+            "            appointment_date, slot, appointment_time, duration_minutes, queue_position, status, notes," +
+            "            doctor_name, doctor_specialization, created_at, updated_at" +
+            ") " +
+            "INSERT INTO past_appointments (user_id, doctor_id, workplace_id, workplace_name, workplace_type, workplace_address," +
+            "                               appointment_date, slot, appointment_time, duration_minutes, queue_position, status, notes," +
+            "                               doctor_name, doctor_specialization, created_at, updated_at) " +
+            "SELECT user_id, doctor_id, workplace_id, workplace_name, workplace_type, workplace_address," +
+            "       appointment_date, slot, appointment_time, duration_minutes, queue_position, status, notes," +
+            "       doctor_name, doctor_specialization, created_at, COALESCE(updated_at, now()) " +
+            "FROM moved";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final SlotAvailabilityIndex slotIndex;
+    private final AppointmentStatusRollup statusRollup;
+    private final int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile Progress lastRun;
+
+    public AppointmentArchiver(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               SlotAvailabilityIndex slotIndex,
+                               AppointmentStatusRollup statusRollup,
+                               @Value("${app.archival.chunk-size:5000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.slotIndex = slotIndex;
+        this.statusRollup = statusRollup;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Archive every appointment dated before today
+     */
+    public Progress archiveBefore(LocalDate today) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Appointment archival is already running");
+        }
+        String cutoff = today.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        Progress progress = new Progress(cutoff);
+        lastRun = progress;
+        try {
+            Map<String, Object> range = jdbcTemplate.queryForMap(ID_RANGE_SQL, today);
+            long total = ((Number) range.get("total")).longValue();
+            progress.expectedRows = total;
+            logger.info("[ARCHIVAL] {} appointments before {} to archive", total, cutoff);
+
+            if (total > 0) {
+                long minId = ((Number) range.get("min_id")).longValue();
+                long maxId = ((Number) range.get("max_id")).longValue();
+                for (long start = minId; start <= maxId; start += chunkSize) {
+                    final long from = start;
+                    final long to = start + chunkSize;
+                    Integer moved = chunkTransaction.execute(status -> jdbcTemplate.update(MOVE_CHUNK_SQL, from, to, today));
+                    progress.chunkDone(to - 1, moved != null ? moved : 0);
+                    logger.info("[ARCHIVAL] Chunk ids [{}, {}) moved {} rows ({} / {})",
+                            from, to, moved, progress.movedRows, total);
+                }
+            }
+
+            slotIndex.evictBefore(today);
+            statusRollup.evictAll();
+            progress.finish(null);
+            logger.info("[ARCHIVAL] Archived {} appointments in {} chunks", progress.movedRows, progress.chunks);
+            return progress;
+        } catch (RuntimeException e) {
+            progress.finish(e.getMessage());
+            logger.error("[ARCHIVAL] Failed after {} rows (last id {}): {}", progress.movedRows, progress.lastId, e.getMessage());
+            throw e;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Progress of the current or most recent run (null if never run since startup)
+     */
+    public Progress getLastRun() {
+        return lastRun;
+    }
+
+    /**
+     * Progress counters of one archival run
+     */
+    public static class Progress {
+        private final String cutoffDate;
+        private final OffsetDateTime startedAt = OffsetDateTime.now();
+        private volatile OffsetDateTime finishedAt;
+        private volatile long expectedRows;
+        private volatile long movedRows;
+        private volatile int chunks;
+        private volatile long lastId;
+        private volatile String error;
+
+        Progress(String cutoffDate) {
+            this.cutoffDate = cutoffDate;
+        }
+
+        void chunkDone(long lastId, int moved) {
+            this.lastId = lastId;
+            this.movedRows += moved;
+            this.chunks++;
+        }
+
+        void finish(String error) {
+            this.error = error;
+            this.finishedAt = OffsetDateTime.now();
+        }
+
+        public long getMovedRows() { return movedRows; }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("cutoffDate", cutoffDate);
+            map.put("startedAt", startedAt.toString());
+            map.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+            map.put("expectedRows", expectedRows);
+            map.put("movedRows", movedRows);
+            map.put("chunks", chunks);
+            map.put("lastId", lastId);
+            map.put("error", error);
+            return map;
+        }
+    }
+}
@@ -1,19 +1,27 @@
 package com.app.auth.service;
 
 import com.app.auth.service.EnhancedAppointmentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 @Service
 public class AppointmentSchedulerService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentSchedulerService.class);
+
     private final EnhancedAppointmentService enhancedAppointmentService;
+    private final QueuePositionAllocator queuePositionAllocator;
 
-    public AppointmentSchedulerService(EnhancedAppointmentService enhancedAppointmentService) {
+    public AppointmentSchedulerService(EnhancedAppointmentService enhancedAppointmentService,
+                                       QueuePositionAllocator queuePositionAllocator) {
         this.enhancedAppointmentService = enhancedAppointmentService;
+        this.queuePositionAllocator = queuePositionAllocator;
     }
 
     /**
@@ -38,6 +46,10 @@ public class AppointmentSchedulerService {
             enhancedAppointmentService.movePastAppointments();
             System.out.println("[SCHEDULER] ✓ Step 2 completed successfully");
             
+            // Step 3: Drop queue counters of past days
+            int purged = queuePositionAllocator.purgeBefore(LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+            logger.info("[SCHEDULER] Step 3: purged {} queue counters of past days", purged);
+            
             System.out.println("=".repeat(80));
             System.out.println("[SCHEDULER] ✓ Daily appointment movement completed successfully at " + 
                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
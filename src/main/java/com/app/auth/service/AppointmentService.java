@@ -1,6 +1,7 @@
 package com.app.auth.service;
 
 import com.app.auth.dto.*;
+import com.app.auth.service.UserAppointmentTimeline.Page;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
@@ -23,8 +24,12 @@ public interface AppointmentService {
 
     AppointmentDto pushToEnd(Long userId, Long appointmentId, String reason);
 
+    // Newest first, every live appointment of the user
     List<AppointmentDto> getUserAppointments(Long userId);
 
+    // Newest first, keyset-paginated; cursor is null for the first page
+    Page<AppointmentDto> getUserAppointments(Long userId, String cursor, Integer limit);
+
     // Enhanced methods for segregated appointments
     Map<String, List<AppointmentSegregatedDto>> getDoctorAppointmentsSegregated(Long doctorId, OffsetDateTime from, OffsetDateTime to);
 
@@ -0,0 +1,167 @@
+package com.app.auth.service;
+
+import com.app.auth.dto.DailyAppointmentStatusDto;
+import com.app.auth.entity.AppointmentChangedEvent;
+import com.app.auth.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-day status counts behind /api/appointments/daily/** and /api/doctors/{id}/appointments/today/status.
+ *
+ * Counts come from one GROUP BY status query over the day (per doctor, or system-wide) and are kept in memory,
+ * so the dashboards that poll these endpoints neither load Appointment entities nor hit the database on every
+ * poll. Any insert, update or delete of an appointment (AppointmentChangedEvent) bumps, after commit, the
+ * generation of that doctor and the system-wide generation; an entry is only served while the generation it was
+ * loaded under is current. A load reads its generation before the query and only installs its result if that
+ * generation is unchanged, so a count taken before a concurrent commit is never put back after that commit's
+ * invalidation. Writes that bypass JPA (DB functions, other instances) are covered by the TTL. Expired and
+ * outdated entries are purged on a schedule.
+ */
+@Service
+public class AppointmentStatusRollup {
+
+    private record Key(Long doctorId, LocalDate date) {}
+
+    private record Counts(long total, long completed, long cancelled, long booked, long rescheduled,
+                          long loadedAt, long generation) {}
+
+    // Doctor generations are striped; a change only costs a recount for doctors sharing the stripe
+    private static final int GENERATION_STRIPES = 64;
+
+    private final AppointmentRepository appointmentRepository;
+    private final long ttlMillis;
+    // doctorId null = all doctors
+    private final Map<Key, Counts> days = new ConcurrentHashMap<>();
+    private final AtomicLongArray doctorGenerations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong systemGeneration = new AtomicLong();
+
+    public AppointmentStatusRollup(AppointmentRepository appointmentRepository,
+                                   @Value("${app.appointments.status-rollup.ttl-seconds:30}") long ttlSeconds) {
+        this.appointmentRepository = appointmentRepository;
+        this.ttlMillis = ttlSeconds * 1000L;
+    }
+
+    public DailyAppointmentStatusDto forDay(LocalDate date) {
+        return toDto(date, counts(new Key(null, date)));
+    }
+
+    public DailyAppointmentStatusDto forDoctorDay(Long doctorId, LocalDate date) {
+        return toDto(date, counts(new Key(doctorId, date)));
+    }
+
+    /**
+     * An appointment of this doctor changed; its days and the system-wide days are recounted on the next read
+     */
+    public void onChanged(Long doctorId) {
+        afterCommit(() -> {
+            if (doctorId != null) {
+                doctorGenerations.incrementAndGet(stripe(doctorId));
+            }
+            systemGeneration.incrementAndGet();
+        });
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        onChanged(event.doctorId());
+    }
+
+    public void evictAll() {
+        afterCommit(() -> {
+            for (int i = 0; i < GENERATION_STRIPES; i++) {
+                doctorGenerations.incrementAndGet(i);
+            }
+            systemGeneration.incrementAndGet();
+        });
+    }
+
+    /**
+     * Drop expired and outdated entries so the map does not keep every date a client ever polled
+     */
+    @Scheduled(fixedDelayString = "${app.appointments.status-rollup.cleanup-interval-ms:60000}")
+    public void purgeExpired() {
+        days.entrySet().removeIf(e -> !isCurrent(e.getKey(), e.getValue()));
+    }
+
+    private Counts counts(Key key) {
+        Counts counts = days.get(key);
+        if (counts != null && isCurrent(key, counts)) {
+            return counts;
+        }
+        Counts loaded = load(key, generation(key));
+        // Installed only if nothing changed while the query ran; otherwise the next read recounts
+        days.compute(key, (k, current) -> generation(k) == loaded.generation ? loaded : current);
+        return loaded;
+    }
+
+    private boolean isCurrent(Key key, Counts counts) {
+        return System.currentTimeMillis() - counts.loadedAt < ttlMillis && counts.generation == generation(key);
+    }
+
+    private long generation(Key key) {
+        return key.doctorId == null ? systemGeneration.get() : doctorGenerations.get(stripe(key.doctorId));
+    }
+
+    private static int stripe(Long doctorId) {
+        return (Long.hashCode(doctorId) & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+
+    private Counts load(Key key, long generation) {
+        long loadedAt = System.currentTimeMillis();
+        // Day boundaries in UTC, as the status endpoints have always used
+        OffsetDateTime dayStart = OffsetDateTime.of(key.date, LocalTime.MIDNIGHT, ZoneOffset.UTC);
+        OffsetDateTime dayEnd = dayStart.plusDays(1);
+        List<AppointmentRepository.StatusCount> rows = key.doctorId == null
+                ? appointmentRepository.countByStatusBetween(dayStart, dayEnd)
+                : appointmentRepository.countByStatusForDoctorBetween(key.doctorId, dayStart, dayEnd);
+
+        long total = 0, completed = 0, cancelled = 0, booked = 0, rescheduled = 0;
+        for (AppointmentRepository.StatusCount row : rows) {
+            total += row.getTotal();
+            String status = row.getStatus();
+            if ("COMPLETED".equals(status)) {
+                completed = row.getTotal();
+            } else if ("CANCELLED".equals(status)) {
+                cancelled = row.getTotal();
+            } else if ("BOOKED".equals(status)) {
+                booked = row.getTotal();
+            } else if ("RESCHEDULED".equals(status)) {
+                rescheduled = row.getTotal();
+            }
+        }
+        return new Counts(total, completed, cancelled, booked, rescheduled, loadedAt, generation);
+    }
+
+    private static DailyAppointmentStatusDto toDto(LocalDate date, Counts counts) {
+        return new DailyAppointmentStatusDto(date, counts.total, counts.completed, counts.cancelled,
+                counts.booked + counts.rescheduled, counts.booked);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
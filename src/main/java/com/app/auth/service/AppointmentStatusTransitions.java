@@ -0,0 +1,335 @@
+package com.app.auth.service;
+
+import com.app.auth.config.SlotCodec;
+import com.app.auth.entity.Appointment;
+import com.app.auth.entity.NotificationOutboxEntry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Set-based status and schedule changes for many appointments at once.
+ *
+ * Each transition is one UPDATE (or DELETE into past_appointments) ... RETURNING statement instead of loading
+ * the entities and saving them row by row. The returned rows come back as detached Appointment snapshots, so
+ * callers can build per-appointment notifications; those are written to the outbox as one batched insert in the
+ * same transaction. Because the rows never pass through the EntityManager, the slot index and the daily status
+ * rollup are updated here explicitly (after commit).
+ *
+ * A cancel-day for 100 patients is therefore one UPDATE plus one outbox batch instead of 200+ statements.
+ */
+@Service
+public class AppointmentStatusTransitions {
+
+    private static final String RETURNED_COLUMNS =
+            "id, user_id, doctor_id, workplace_id, workplace_name, appointment_date, slot, appointment_time, " +
+            "status, notes, doctor_name, doctor_specialization";
+
+    private static final String COMPLETE_PENDING_SQL =
+            "UPDATE appointments SET status = 'COMPLETED', updated_at = now() " +
+            "WHERE appointment_time >= ? AND appointment_time < ? AND status IN ('BOOKED', 'RESCHEDULED') " +
+            "RETURNING " + RETURNED_COLUMNS;
+
+    private static final String CANCEL_WORKPLACE_DATE_SQL =
+            "UPDATE appointments SET status = 'CANCELLED', notes = ? " +
+            "WHERE workplace_id = ? AND appointment_date = ? AND status = 'BOOKED' " +
+            "RETURNING " + RETURNED_COLUMNS;
+
+    private static final String SET_STATUS_FOR_USERS_SQL =
+            "UPDATE appointments SET status = :status, notes = :notes " +
+            "WHERE doctor_id = :doctorId AND appointment_date = :date AND user_id IN (:userIds) " +
+            "RETURNING " + RETURNED_COLUMNS;
+
+    // Same move as AppointmentArchiver, restricted to the given patients and stamped COMPLETED
+    private static final String COMPLETE_AND_ARCHIVE_FOR_USERS_SQL =
+            "WITH moved AS (" +
+            "  DELETE FROM appointments WHERE doctor_id = :doctorId AND appointment_date = :date AND user_id IN (:userIds)" +
+            "  RETURNING *" +
+            "), archived AS (" +
+            "  INSERT INTO past_appointments (user_id, doctor_id, workplace_id, workplace_name, workplace_type, workplace_address," +
+            "                                 appointment_date, slot, appointment_time, duration_minutes, queue_position, status, notes," +
+            "                                 doctor_name, doctor_specialization, created_at, updated_at)" +
+            "  SELECT user_id, doctor_id, workplace_id, workplace_name, workplace_type, workplace_address," +
+            "         appointment_date, slot, appointment_time, duration_minutes, queue_position, 'COMPLETED', :notes," +
+            "         doctor_name, doctor_specialization, created_at, updated_at" +
+            "  FROM moved" +
+            ") " +
+            "SELECT id, user_id, doctor_id, workplace_id, workplace_name, appointment_date, slot, appointment_time, " +
+            "       'COMPLETED' AS status, CAST(:notes AS VARCHAR) AS notes, doctor_name, doctor_specialization " +
+            "FROM moved";
+
+    // Rows are picked and locked server side; increase_time_range runs only when there is something to move.
+    // The SQL text is constant and the arguments are bound, so the driver can reuse the server-side prepared statement.
+    private static final String SHIFT_BOOKED_TARGETS =
+            "WITH targets AS MATERIALIZED (" +
+            "  SELECT id FROM appointments" +
+            "  WHERE workplace_id = ? AND doctor_id = ? AND status = 'BOOKED' AND appointment_day >= ?" +
+            "  FOR UPDATE" +
+            "), shifted AS (" +
+            "  SELECT %s" +
+            "  WHERE EXISTS (SELECT 1 FROM targets)" +
+            ") " +
+            "SELECT t.id FROM targets t CROSS JOIN shifted ORDER BY t.id";
+
+    private static final String SHIFT_BOOKED_SQL = String.format(SHIFT_BOOKED_TARGETS,
+            "increase_time_range(CAST(ARRAY(SELECT id FROM targets) AS int[]), CAST(? AS text))");
+
+    private static final String SHIFT_BOOKED_TO_DATE_SQL = String.format(SHIFT_BOOKED_TARGETS,
+            "increase_time_range(CAST(ARRAY(SELECT id FROM targets) AS int[]), CAST(? AS text), CAST(? AS date))");
+
+    // Where the moved appointments land, checked under the same row locks before anything moves: a slot taken
+    // twice, by two moved appointments (several days onto one newDate) or by a moved one and one that stays,
+    // is a real clash. Passing slots that are only vacated by the move itself are fine (the constraint is deferred).
+    private static final String SHIFT_CLASH_SQL =
+            "WITH targets AS MATERIALIZED (" +
+            "  SELECT id, appointment_day, slot_start FROM appointments" +
+            "  WHERE workplace_id = ? AND doctor_id = ? AND status = 'BOOKED' AND appointment_day >= ?" +
+            "  FOR UPDATE" +
+            "), landing AS (" +
+            "  SELECT COALESCE(CAST(? AS date), appointment_day) AS day, slot_start + CAST(? AS interval) AS slot_start" +
+            "  FROM targets WHERE slot_start IS NOT NULL" +
+            "), occupied AS (" +
+            "  SELECT day, slot_start FROM landing" +
+            "  UNION ALL" +
+            "  SELECT a.appointment_day, a.slot_start FROM appointments a" +
+            "  WHERE a.workplace_id = ? AND a.doctor_id = ? AND a.status <> 'CANCELLED' AND a.slot_start IS NOT NULL" +
+            "    AND a.appointment_day IN (SELECT day FROM landing)" +
+            "    AND NOT EXISTS (SELECT 1 FROM targets t WHERE t.id = a.id)" +
+            ") " +
+            "SELECT day, slot_start FROM occupied GROUP BY day, slot_start HAVING count(*) > 1 " +
+            "ORDER BY day, slot_start LIMIT 1";
+
+    private static final String DEFER_ACTIVE_SLOT_SQL =
+            "SET CONSTRAINTS " + BookingGuard.ACTIVE_SLOT_CONSTRAINT + " DEFERRED";
+
+    private static final String SELECT_BY_IDS_SQL =
+            "SELECT " + RETURNED_COLUMNS + " FROM appointments WHERE id = ANY(?) ORDER BY appointment_time";
+
+    private static final RowMapper<Appointment> SNAPSHOT = (rs, rowNum) -> {
+        Appointment appointment = new Appointment();
+        appointment.setId(rs.getLong("id"));
+        appointment.setUserId(rs.getLong("user_id"));
+        appointment.setDoctorId(rs.getLong("doctor_id"));
+        appointment.setWorkplaceId(rs.getObject("workplace_id", Long.class));
+        appointment.setWorkplaceName(rs.getString("workplace_name"));
+        appointment.setAppointmentDate(rs.getString("appointment_date"));
+        appointment.setSlot(rs.getString("slot"));
+        appointment.setAppointmentTime(rs.getObject("appointment_time", OffsetDateTime.class));
+        appointment.setStatus(rs.getString("status"));
+        appointment.setNotes(rs.getString("notes"));
+        appointment.setDoctorName(rs.getString("doctor_name"));
+        appointment.setDoctorSpecialization(rs.getString("doctor_specialization"));
+        return appointment;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final NotificationOutboxService notificationOutboxService;
+    private final SlotAvailabilityIndex slotIndex;
+    private final AppointmentStatusRollup statusRollup;
+
+    public AppointmentStatusTransitions(JdbcTemplate jdbcTemplate,
+                                        NotificationOutboxService notificationOutboxService,
+                                        SlotAvailabilityIndex slotIndex,
+                                        AppointmentStatusRollup statusRollup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.notificationOutboxService = notificationOutboxService;
+        this.slotIndex = slotIndex;
+        this.statusRollup = statusRollup;
+    }
+
+    /**
+     * End-of-day job: every BOOKED / RESCHEDULED appointment in [from, to) becomes COMPLETED
+     */
+    @Transactional
+    public List<Appointment> completePending(OffsetDateTime from, OffsetDateTime to) {
+        List<Appointment> completed = jdbcTemplate.query(COMPLETE_PENDING_SQL, SNAPSHOT, from, to);
+        if (!completed.isEmpty()) {
+            statusRollup.evictAll();
+        }
+        return completed;
+    }
+
+    /**
+     * Cancel the not yet closed appointments of a doctor's day that a block covers.
+     * workplaceId null = all workplaces; from/to null = the whole day, otherwise slots starting in [from, to).
+     */
+    @Transactional
+    public List<Appointment> cancelForBlock(Long doctorId, Long workplaceId, LocalDate day,
+                                            LocalTime from, LocalTime to) {
+        StringBuilder sql = new StringBuilder(
+                "UPDATE appointments SET status = 'CANCELLED' " +
+                "WHERE doctor_id = ? AND appointment_day = ? AND status NOT IN ('CANCELLED', 'COMPLETED')");
+        List<Object> args = new ArrayList<>(List.of(doctorId, day));
+        if (workplaceId != null) {
+            sql.append(" AND workplace_id = ?");
+            args.add(workplaceId);
+        }
+        if (from != null && to != null) {
+            sql.append(" AND slot_start >= ? AND slot_start < ?");
+            args.add(from);
+            args.add(to);
+        }
+        sql.append(" RETURNING ").append(RETURNED_COLUMNS);
+
+        List<Appointment> cancelled = jdbcTemplate.query(sql.toString(), SNAPSHOT, args.toArray());
+        released(cancelled);
+        return cancelled;
+    }
+
+    /**
+     * Cancel all BOOKED appointments of a workplace on one date (yyyy-MM-dd)
+     */
+    @Transactional
+    public List<Appointment> cancelWorkplaceDate(Long workplaceId, String appointmentDate, String notes,
+                                                 Function<Appointment, NotificationOutboxEntry> notification) {
+        List<Appointment> cancelled = jdbcTemplate.query(CANCEL_WORKPLACE_DATE_SQL, SNAPSHOT,
+                notes, workplaceId, appointmentDate);
+        released(cancelled);
+        notify(cancelled, notification);
+        return cancelled;
+    }
+
+    /**
+     * Set the status (and notes) of the given patients' appointments with a doctor on one date
+     */
+    @Transactional
+    public List<Appointment> setStatusForUsers(Long doctorId, String appointmentDate, Collection<Long> userIds,
+                                               String status, String notes,
+                                               Function<Appointment, NotificationOutboxEntry> notification) {
+        if (userIds == null || userIds.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = forUsers(doctorId, appointmentDate, userIds)
+                .addValue("status", status)
+                .addValue("notes", notes);
+        List<Appointment> updated = namedJdbcTemplate.query(SET_STATUS_FOR_USERS_SQL, params, SNAPSHOT);
+        if ("CANCELLED".equals(status)) {
+            released(updated);
+        } else {
+            changed(updated);
+        }
+        notify(updated, notification);
+        return updated;
+    }
+
+    /**
+     * Mark the given patients' appointments COMPLETED and move them to past_appointments in one statement
+     */
+    @Transactional
+    public List<Appointment> completeAndArchiveForUsers(Long doctorId, String appointmentDate, Collection<Long> userIds,
+                                                        String notes,
+                                                        Function<Appointment, NotificationOutboxEntry> notification) {
+        if (userIds == null || userIds.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = forUsers(doctorId, appointmentDate, userIds).addValue("notes", notes);
+        List<Appointment> completed = namedJdbcTemplate.query(COMPLETE_AND_ARCHIVE_FOR_USERS_SQL, params, SNAPSHOT);
+        released(completed);
+        notify(completed, notification);
+        return completed;
+    }
+
+    /**
+     * A bulk reschedule would put two live appointments on one slot
+     */
+    public static class SlotClashException extends RuntimeException {
+        public SlotClashException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Bulk reschedule: move every BOOKED appointment of a doctor at a workplace from fromDay on by the given
+     * minutes, and onto newDate when one is given, through the increase_time_range database function.
+     * Returns the moved appointments as they are afterwards. Throws SlotClashException, before moving anything,
+     * when a moved appointment would land on a slot that stays taken.
+     */
+    @Transactional
+    public List<Appointment> shiftBooked(Long workplaceId, Long doctorId, LocalDate fromDay, int minutes,
+                                         LocalDate newDate,
+                                         Function<Appointment, NotificationOutboxEntry> notification) {
+        String interval = minutes + " minutes";
+        // Row N lands on row N+1's old slot before that one has moved on, possibly in a later statement
+        jdbcTemplate.execute(DEFER_ACTIVE_SLOT_SQL);
+        List<Map<String, Object>> clashes = jdbcTemplate.queryForList(SHIFT_CLASH_SQL,
+                workplaceId, doctorId, fromDay, newDate, interval, workplaceId, doctorId);
+        if (!clashes.isEmpty()) {
+            Map<String, Object> clash = clashes.get(0);
+            LocalTime slotStart = ((java.sql.Time) clash.get("slot_start")).toLocalTime();
+            throw new SlotClashException(String.format("The %s slot on %s is already taken; nothing was moved",
+                    SlotCodec.formatTime(slotStart), clash.get("day")));
+        }
+        List<Long> ids = newDate != null
+                ? jdbcTemplate.queryForList(SHIFT_BOOKED_TO_DATE_SQL, Long.class, workplaceId, doctorId, fromDay, interval, newDate)
+                : jdbcTemplate.queryForList(SHIFT_BOOKED_SQL, Long.class, workplaceId, doctorId, fromDay, interval);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<Appointment> moved = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_BY_IDS_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, SNAPSHOT);
+        // Times moved inside the database: cached slots of this workplace and the daily counts are stale
+        slotIndex.evictWorkplace(workplaceId);
+        statusRollup.evictAll();
+        notify(moved, notification);
+        return moved;
+    }
+
+    private static MapSqlParameterSource forUsers(Long doctorId, String appointmentDate, Collection<Long> userIds) {
+        return new MapSqlParameterSource()
+                .addValue("doctorId", doctorId)
+                .addValue("date", appointmentDate)
+                .addValue("userIds", new LinkedHashSet<>(userIds));
+    }
+
+    /**
+     * The rows' slots are free again
+     */
+    private void released(List<Appointment> appointments) {
+        for (Appointment appointment : appointments) {
+            slotIndex.onReleased(appointment);
+        }
+        changed(appointments);
+    }
+
+    private void changed(List<Appointment> appointments) {
+        Set<Long> doctorIds = new LinkedHashSet<>();
+        for (Appointment appointment : appointments) {
+            doctorIds.add(appointment.getDoctorId());
+        }
+        for (Long doctorId : doctorIds) {
+            statusRollup.onChanged(doctorId);
+        }
+    }
+
+    private void notify(List<Appointment> appointments, Function<Appointment, NotificationOutboxEntry> notification) {
+        if (notification == null || appointments.isEmpty()) {
+            return;
+        }
+        List<NotificationOutboxEntry> entries = new ArrayList<>(appointments.size());
+        for (Appointment appointment : appointments) {
+            entries.add(notification.apply(appointment));
+        }
+        notificationOutboxService.enqueueAll(entries);
+    }
+}
@@ -26,6 +26,9 @@ public class AuthService {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private DoctorCatalogCache catalogCache;
+
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     public CheckMobileResponse checkMobile(CheckMobileRequest req) {
@@ -160,6 +163,7 @@ public class AuthService {
             }
             doctorDetails.setPinHash(encodedPin);
             doctorRepo.save(doctorDetails);
+            catalogCache.evictDoctor(doctorDetails.getId());
             return "success";
         }
 
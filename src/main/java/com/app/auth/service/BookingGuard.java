@@ -0,0 +1,108 @@
+package com.app.auth.service;
+
+import com.app.auth.entity.Appointment;
+import com.app.auth.repository.AppointmentRepository;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Booking concurrency without whole-day row locks.
+ *
+ * - Slot bookings just insert. The exclusion constraint ux_appointments_active_slot allows one non-cancelled
+ *   appointment per (doctor, workplace, day, slot start), so two patients racing for the same slot get one
+ *   booking and one "Slot is already booked"; bookings for other slots never wait on each other.
+ * - Operations that place an appointment relative to the rest of the day (append to the end, push to end,
+ *   shift a doctor's appointments) take a transaction-scoped advisory lock per (doctor, day) instead of
+ *   locking every appointment row of that day.
+ * - The queue position is taken after the insert, as the last statement before commit. The day's counter row
+ *   (QueuePositionAllocator) is locked until commit, so it is only held for the commit itself, and the loser
+ *   of a slot conflict never touches it.
+ *
+ * Schema: src/main/resources/db/migrations/007_appointments_active_slot_unique.sql
+ */
+@Service
+public class BookingGuard {
+
+    public static final String ACTIVE_SLOT_CONSTRAINT = "ux_appointments_active_slot";
+
+    // Two-int form: (doctor id, day as epoch day). A key collision only means extra waiting, never a missed lock.
+    // Released automatically at commit / rollback.
+    private static final String DAY_LOCK_SQL = "SELECT pg_advisory_xact_lock(?, ?)";
+
+    private static final RowCallbackHandler IGNORE = rs -> { };
+
+    // Stands in for the queue position between insert and assignQueuePosition (the column is NOT NULL)
+    private static final int UNASSIGNED_POSITION = 0;
+
+    private final AppointmentRepository appointmentRepository;
+    private final QueuePositionAllocator queuePositionAllocator;
+    private final JdbcTemplate jdbcTemplate;
+    private final AppMetrics metrics;
+
+    public BookingGuard(AppointmentRepository appointmentRepository, QueuePositionAllocator queuePositionAllocator,
+                        JdbcTemplate jdbcTemplate, AppMetrics metrics) {
+        this.appointmentRepository = appointmentRepository;
+        this.queuePositionAllocator = queuePositionAllocator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Insert a new appointment. If its slot was taken in the meantime the insert is rejected by
+     * ux_appointments_active_slot and IllegalArgumentException is thrown; the surrounding transaction must then
+     * roll back. The queue position is left unassigned, see assignQueuePosition.
+     */
+    public Appointment insert(Appointment appointment) {
+        if (appointment.getQueuePosition() == null) {
+            appointment.setQueuePosition(UNASSIGNED_POSITION);
+        }
+        try {
+            return appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            if (isSlotConflict(e)) {
+                metrics.bookingConflict();
+                throw new IllegalArgumentException("Slot is already booked");
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * True when the failure (or its cause) is ux_appointments_active_slot rejecting a second booking of a slot
+     */
+    public static boolean isSlotConflict(Throwable failure) {
+        String message = NestedExceptionUtils.getMostSpecificCause(failure).getMessage();
+        return message != null && message.contains(ACTIVE_SLOT_CONSTRAINT);
+    }
+
+    /**
+     * Give an inserted appointment the next queue position of its day. Call it after the last other statement
+     * of the booking transaction: the counter row stays locked until commit and every booking of that
+     * doctor's day needs it.
+     */
+    public void assignQueuePosition(Appointment appointment) {
+        appointment.setQueuePosition(queuePositionAllocator.next(appointment.getDoctorId(),
+                appointment.getWorkplaceId(), appointment.getAppointmentDate()));
+    }
+
+    /**
+     * Serialize day-reordering operations of one doctor; held until the current transaction ends
+     */
+    public void lockDoctorDay(Long doctorId, LocalDate day) {
+        jdbcTemplate.query(DAY_LOCK_SQL, IGNORE, Long.hashCode(doctorId), (int) day.toEpochDay());
+    }
+
+    /**
+     * lockDoctorDay for every day in [from, to], always in date order so two callers cannot deadlock
+     */
+    public void lockDoctorDays(Long doctorId, LocalDate from, LocalDate to) {
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            lockDoctorDay(doctorId, day);
+        }
+    }
+}
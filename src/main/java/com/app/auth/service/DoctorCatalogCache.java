@@ -0,0 +1,170 @@
+package com.app.auth.service;
+
+import com.app.auth.entity.DoctorDetails;
+import com.app.auth.entity.DoctorWorkplace;
+import com.app.auth.repository.DoctorDetailsRepository;
+import com.app.auth.repository.DoctorWorkplaceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Read-through cache for doctor catalog rows that booking, slot and blocking paths look up on every request.
+ *
+ * Bounded LRU maps with a TTL. Writers (registration, profile update, add workplace, PIN setup) call the evict
+ * methods, which drop the entries immediately and again after commit so a concurrent reader cannot put the
+ * pre-commit row back. The TTL bounds staleness for writes made by other instances.
+ *
+ * Cached entities are detached and shared: read them, never modify or save them, and don't touch lazy
+ * associations (DoctorDetails.workplaces, DoctorWorkplace.doctor beyond getId()).
+ */
+@Service
+public class DoctorCatalogCache {
+
+    private final DoctorDetailsRepository doctorRepository;
+    private final DoctorWorkplaceRepository workplaceRepository;
+
+    private final BoundedCache<Long, DoctorDetails> doctors;
+    private final BoundedCache<Long, DoctorWorkplace> workplaces;
+    private final BoundedCache<Long, List<DoctorWorkplace>> workplacesByDoctor;
+
+    public DoctorCatalogCache(DoctorDetailsRepository doctorRepository,
+                              DoctorWorkplaceRepository workplaceRepository,
+                              @Value("${app.catalog.cache.max-entries:5000}") int maxEntries,
+                              @Value("${app.catalog.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.doctorRepository = doctorRepository;
+        this.workplaceRepository = workplaceRepository;
+        long ttlMillis = ttlSeconds * 1000L;
+        this.doctors = new BoundedCache<>(maxEntries, ttlMillis);
+        this.workplaces = new BoundedCache<>(maxEntries, ttlMillis);
+        this.workplacesByDoctor = new BoundedCache<>(maxEntries, ttlMillis);
+    }
+
+    // ==================== READS ====================
+
+    public Optional<DoctorDetails> findDoctor(Long doctorId) {
+        if (doctorId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(doctors.get(doctorId, id -> doctorRepository.findById(id).orElse(null)));
+    }
+
+    public Optional<DoctorWorkplace> findWorkplace(Long workplaceId) {
+        if (workplaceId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(workplaces.get(workplaceId, id -> workplaceRepository.findById(id).orElse(null)));
+    }
+
+    /**
+     * All workplaces of a doctor (unmodifiable)
+     */
+    public List<DoctorWorkplace> findWorkplacesByDoctor(Long doctorId) {
+        if (doctorId == null) {
+            return List.of();
+        }
+        List<DoctorWorkplace> list = workplacesByDoctor.get(doctorId, id -> {
+            List<DoctorWorkplace> loaded = List.copyOf(workplaceRepository.findByDoctorId(id));
+            loaded.forEach(w -> workplaces.put(w.getId(), w));
+            return loaded;
+        });
+        return list != null ? list : List.of();
+    }
+
+    // ==================== INVALIDATION ====================
+
+    /**
+     * Doctor row or any of its workplaces changed
+     */
+    public void evictDoctor(Long doctorId) {
+        Runnable evict = () -> {
+            doctors.remove(doctorId);
+            List<DoctorWorkplace> cached = workplacesByDoctor.remove(doctorId);
+            if (cached != null) {
+                cached.forEach(w -> workplaces.remove(w.getId()));
+            }
+            workplaces.removeIf(w -> w.getDoctor() != null && doctorId.equals(w.getDoctor().getId()));
+        };
+        evict.run();
+        afterCommit(evict);
+    }
+
+    /**
+     * A single workplace was created or changed
+     */
+    public void evictWorkplace(Long workplaceId, Long doctorId) {
+        Runnable evict = () -> {
+            workplaces.remove(workplaceId);
+            workplacesByDoctor.remove(doctorId);
+        };
+        evict.run();
+        afterCommit(evict);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Access-ordered LRU with a per-entry TTL. Loads happen outside the lock, so two concurrent misses may both
+     * load - the catalog is small and that is cheaper than blocking every reader on a DB call.
+     */
+    private static final class BoundedCache<K, V> {
+        private final int maxEntries;
+        private final long ttlMillis;
+        private final LinkedHashMap<K, Entry<V>> map;
+
+        BoundedCache(int maxEntries, long ttlMillis) {
+            this.maxEntries = Math.max(1, maxEntries);
+            this.ttlMillis = ttlMillis;
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    return size() > BoundedCache.this.maxEntries;
+                }
+            };
+        }
+
+        V get(K key, Function<K, V> loader) {
+            long now = System.currentTimeMillis();
+            synchronized (this) {
+                Entry<V> entry = map.get(key);
+                if (entry != null && entry.expiresAt > now) {
+                    return entry.value;
+                }
+            }
+            V value = loader.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+            return value;
+        }
+
+        synchronized void put(K key, V value) {
+            map.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+        }
+
+        synchronized V remove(K key) {
+            Entry<V> entry = map.remove(key);
+            return entry != null ? entry.value : null;
+        }
+
+        synchronized void removeIf(Predicate<V> predicate) {
+            map.values().removeIf(entry -> predicate.test(entry.value));
+        }
+
+        private record Entry<V>(V value, long expiresAt) {}
+    }
+}
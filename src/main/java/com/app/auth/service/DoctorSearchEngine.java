@@ -0,0 +1,460 @@
+package com.app.auth.service;
+
+import com.app.auth.entity.DoctorDetails;
+import com.app.auth.entity.DoctorWorkplace;
+import com.app.auth.repository.DoctorDetailsRepository;
+import com.app.auth.repository.DoctorWorkplaceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-process search engine for GET /api/doctors/search/enhanced.
+ *
+ * The whole doctor catalog (doctors + workplaces) is held in memory with two prefix tries: one over doctor
+ * name, specialization, designation and city, one over workplace name, city, state and pincode. Every query
+ * word is matched as a prefix (search-as-you-type); a word with no prefix match falls back to words within a
+ * small edit distance. Results are ranked exact > prefix > typo, doctor fields > workplace fields.
+ *
+ * Built at startup and rebuilt periodically as a safety net; registration, profile updates and new workplaces
+ * update it incrementally after commit. Disabled with app.search.in-memory.enabled=false, in which case
+ * search goes to the database index.
+ */
+@Service
+public class DoctorSearchEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(DoctorSearchEngine.class);
+
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int FUZZY = 1;
+    private static final int DOCTOR_FIELD_BOOST = 2;
+
+    private final DoctorDetailsRepository doctorRepository;
+    private final DoctorWorkplaceRepository workplaceRepository;
+    private final boolean enabled;
+
+    private volatile Catalog catalog;
+
+    public DoctorSearchEngine(DoctorDetailsRepository doctorRepository,
+                              DoctorWorkplaceRepository workplaceRepository,
+                              @Value("${app.search.in-memory.enabled:false}") boolean enabled) {
+        this.doctorRepository = doctorRepository;
+        this.workplaceRepository = workplaceRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * True once the catalog is loaded and searches can be served from memory
+     */
+    public boolean isReady() {
+        return enabled && catalog != null;
+    }
+
+    // ==================== BUILD ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.in-memory.rebuild-interval-ms:600000}",
+               initialDelayString = "${app.search.in-memory.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            List<DoctorDetails> doctors = doctorRepository.findAll();
+            Map<Long, List<DoctorWorkplace>> workplaces = workplaceRepository.findAll().stream()
+                    .collect(Collectors.groupingBy(w -> w.getDoctor().getId()));
+
+            Catalog fresh = new Catalog();
+            for (DoctorDetails doctor : doctors) {
+                fresh.put(doctor, workplaces.getOrDefault(doctor.getId(), List.of()));
+            }
+            catalog = fresh;
+            logger.info("[SEARCH] Indexed {} doctors in {} ms", doctors.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("[SEARCH] Failed to build doctor search index: {}", e.getMessage(), e);
+        }
+    }
+
+    // ==================== INCREMENTAL UPDATES ====================
+
+    /**
+     * A doctor and its workplaces were created or changed
+     */
+    public void onDoctorChanged(DoctorDetails doctor, List<DoctorWorkplace> workplaces) {
+        if (!enabled) {
+            return;
+        }
+        List<DoctorWorkplace> snapshot = List.copyOf(workplaces);
+        afterCommit(() -> {
+            Catalog current = catalog;
+            if (current != null) {
+                current.put(doctor, snapshot);
+            }
+        });
+    }
+
+    /**
+     * A workplace was added to an already indexed doctor
+     */
+    public void onWorkplaceSaved(DoctorWorkplace workplace) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            Catalog current = catalog;
+            if (current != null) {
+                current.putWorkplace(workplace);
+            }
+        });
+    }
+
+    // ==================== SEARCH ====================
+
+    public record Match(DoctorDetails doctor, List<DoctorWorkplace> workplaces) {}
+
+    /**
+     * Doctors matching every word of the keyword, best first. A doctor whose own fields match all words comes
+     * with all workplaces; otherwise only the workplaces that complete the match are returned.
+     */
+    public List<Match> search(String keyword) {
+        Catalog current = catalog;
+        List<String> words = tokenize(keyword);
+        if (current == null || words.isEmpty()) {
+            return List.of();
+        }
+        return current.search(words);
+    }
+
+    /**
+     * Exact doctor id lookup
+     */
+    public Optional<Match> findDoctor(Long doctorId) {
+        Catalog current = catalog;
+        if (current == null) {
+            return Optional.empty();
+        }
+        DoctorEntry entry = current.doctors.get(doctorId);
+        return entry == null ? Optional.empty()
+                : Optional.of(new Match(entry.doctor, List.copyOf(entry.workplaces.values())));
+    }
+
+    // ==================== INTERNALS ====================
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static int maxEdits(String word) {
+        if (word.length() >= 8) {
+            return 2;
+        }
+        return word.length() >= 4 ? 1 : 0;
+    }
+
+    private static final class DoctorEntry {
+        final DoctorDetails doctor;
+        final Set<String> tokens;
+        final Map<Long, DoctorWorkplace> workplaces = new LinkedHashMap<>();
+        final Map<Long, Set<String>> workplaceTokens = new HashMap<>();
+
+        DoctorEntry(DoctorDetails doctor) {
+            this.doctor = doctor;
+            this.tokens = doctorTokens(doctor);
+        }
+    }
+
+    private static Set<String> doctorTokens(DoctorDetails doctor) {
+        Set<String> tokens = new HashSet<>();
+        tokens.addAll(tokenize(doctor.getFullName()));
+        tokens.addAll(tokenize(doctor.getSpecialization()));
+        tokens.addAll(tokenize(doctor.getDesignation()));
+        tokens.addAll(tokenize(doctor.getCity()));
+        return tokens;
+    }
+
+    private static Set<String> workplaceTokens(DoctorWorkplace workplace) {
+        Set<String> tokens = new HashSet<>();
+        tokens.addAll(tokenize(workplace.getWorkplaceName()));
+        tokens.addAll(tokenize(workplace.getCity()));
+        tokens.addAll(tokenize(workplace.getState()));
+        tokens.addAll(tokenize(workplace.getPincode()));
+        return tokens;
+    }
+
+    /**
+     * Catalog snapshot. Writers are serialized; readers work on the concurrent structures without locking and may
+     * briefly see a doctor half updated, which only affects ranking of that one result.
+     */
+    private static final class Catalog {
+        final Map<Long, DoctorEntry> doctors = new ConcurrentHashMap<>();
+        final Map<Long, Long> workplaceOwner = new ConcurrentHashMap<>();
+        final Trie doctorTrie = new Trie();
+        final Trie workplaceTrie = new Trie();
+
+        synchronized void put(DoctorDetails doctor, List<DoctorWorkplace> workplaces) {
+            remove(doctor.getId());
+            DoctorEntry entry = new DoctorEntry(doctor);
+            for (String token : entry.tokens) {
+                doctorTrie.add(token, doctor.getId());
+            }
+            doctors.put(doctor.getId(), entry);
+            for (DoctorWorkplace workplace : workplaces) {
+                addWorkplace(entry, workplace);
+            }
+        }
+
+        synchronized void putWorkplace(DoctorWorkplace workplace) {
+            DoctorEntry entry = doctors.get(workplace.getDoctor().getId());
+            if (entry == null) {
+                return; // unknown doctor, picked up by the next rebuild
+            }
+            Set<String> old = entry.workplaceTokens.remove(workplace.getId());
+            if (old != null) {
+                old.forEach(token -> workplaceTrie.remove(token, workplace.getId()));
+            }
+            addWorkplace(entry, workplace);
+        }
+
+        private void addWorkplace(DoctorEntry entry, DoctorWorkplace workplace) {
+            Set<String> tokens = workplaceTokens(workplace);
+            for (String token : tokens) {
+                workplaceTrie.add(token, workplace.getId());
+            }
+            entry.workplaces.put(workplace.getId(), workplace);
+            entry.workplaceTokens.put(workplace.getId(), tokens);
+            workplaceOwner.put(workplace.getId(), entry.doctor.getId());
+        }
+
+        private void remove(Long doctorId) {
+            DoctorEntry old = doctors.remove(doctorId);
+            if (old == null) {
+                return;
+            }
+            old.tokens.forEach(token -> doctorTrie.remove(token, doctorId));
+            old.workplaceTokens.forEach((workplaceId, tokens) -> {
+                tokens.forEach(token -> workplaceTrie.remove(token, workplaceId));
+                workplaceOwner.remove(workplaceId);
+            });
+        }
+
+        List<Match> search(List<String> words) {
+            // Per word: matching ids with their match quality
+            List<Map<Long, Integer>> doctorHits = new ArrayList<>(words.size());
+            List<Map<Long, Integer>> workplaceHits = new ArrayList<>(words.size());
+            Set<Long> candidates = new HashSet<>();
+            for (String word : words) {
+                Map<Long, Integer> d = doctorTrie.lookup(word);
+                Map<Long, Integer> w = workplaceTrie.lookup(word);
+                doctorHits.add(d);
+                workplaceHits.add(w);
+                candidates.addAll(d.keySet());
+                for (Long workplaceId : w.keySet()) {
+                    Long owner = workplaceOwner.get(workplaceId);
+                    if (owner != null) {
+                        candidates.add(owner);
+                    }
+                }
+            }
+
+            List<ScoredMatch> results = new ArrayList<>();
+            for (Long doctorId : candidates) {
+                DoctorEntry entry = doctors.get(doctorId);
+                if (entry == null) {
+                    continue;
+                }
+
+                int doctorScore = 0;
+                boolean doctorMatchesAll = true;
+                for (Map<Long, Integer> hits : doctorHits) {
+                    Integer quality = hits.get(doctorId);
+                    if (quality == null) {
+                        doctorMatchesAll = false;
+                    } else {
+                        doctorScore += quality * DOCTOR_FIELD_BOOST;
+                    }
+                }
+
+                if (doctorMatchesAll) {
+                    results.add(new ScoredMatch(doctorScore,
+                            new Match(entry.doctor, List.copyOf(entry.workplaces.values()))));
+                    continue;
+                }
+
+                // Every word must be covered by the doctor or by this workplace
+                int bestWorkplaceScore = 0;
+                List<DoctorWorkplace> matching = new ArrayList<>();
+                for (DoctorWorkplace workplace : entry.workplaces.values()) {
+                    int score = 0;
+                    boolean covered = true;
+                    for (int i = 0; i < words.size() && covered; i++) {
+                        Integer byDoctor = doctorHits.get(i).get(doctorId);
+                        Integer byWorkplace = workplaceHits.get(i).get(workplace.getId());
+                        if (byDoctor != null) {
+                            score += byDoctor * DOCTOR_FIELD_BOOST;
+                        } else if (byWorkplace != null) {
+                            score += byWorkplace;
+                        } else {
+                            covered = false;
+                        }
+                    }
+                    if (covered) {
+                        matching.add(workplace);
+                        bestWorkplaceScore = Math.max(bestWorkplaceScore, score);
+                    }
+                }
+                if (!matching.isEmpty()) {
+                    results.add(new ScoredMatch(bestWorkplaceScore, new Match(entry.doctor, matching)));
+                }
+            }
+
+            results.sort(Comparator.comparingInt(ScoredMatch::score).reversed()
+                    .thenComparing(m -> Objects.toString(m.match().doctor().getFullName(), "")));
+            return results.stream().map(ScoredMatch::match).collect(Collectors.toList());
+        }
+    }
+
+    private record ScoredMatch(int score, Match match) {}
+
+    /**
+     * Character trie over tokens. Every node keeps the ids found anywhere below it (reference counted), so a
+     * prefix lookup is a walk of the prefix length, not a subtree scan.
+     */
+    private static final class Trie {
+        final Node root = new Node();
+
+        void add(String token, Long id) {
+            Node node = root;
+            node.below.merge(id, 1, Integer::sum);
+            for (int i = 0; i < token.length(); i++) {
+                node = node.children.computeIfAbsent(token.charAt(i), c -> new Node());
+                node.below.merge(id, 1, Integer::sum);
+            }
+            node.exact.add(id);
+        }
+
+        void remove(String token, Long id) {
+            Node node = root;
+            decrement(node, id);
+            for (int i = 0; i < token.length() && node != null; i++) {
+                Node child = node.children.get(token.charAt(i));
+                if (child == null) {
+                    return;
+                }
+                decrement(child, id);
+                if (child.below.isEmpty()) {
+                    node.children.remove(token.charAt(i));
+                }
+                node = child;
+            }
+            if (node != null) {
+                node.exact.remove(id);
+            }
+        }
+
+        private static void decrement(Node node, Long id) {
+            node.below.computeIfPresent(id, (k, count) -> count > 1 ? count - 1 : null);
+        }
+
+        /**
+         * ids matching the word: exact token, token starting with the word, or (only if neither exists)
+         * a token within the word's edit distance budget
+         */
+        Map<Long, Integer> lookup(String word) {
+            Map<Long, Integer> hits = new HashMap<>();
+            Node node = root;
+            for (int i = 0; i < word.length() && node != null; i++) {
+                node = node.children.get(word.charAt(i));
+            }
+            if (node != null) {
+                for (Long id : node.below.keySet()) {
+                    hits.put(id, PREFIX);
+                }
+                for (Long id : node.exact) {
+                    hits.put(id, EXACT);
+                }
+                return hits;
+            }
+
+            int maxEdits = maxEdits(word);
+            if (maxEdits > 0) {
+                int[] firstRow = new int[word.length() + 1];
+                for (int i = 0; i <= word.length(); i++) {
+                    firstRow[i] = i;
+                }
+                for (Map.Entry<Character, Node> child : root.children.entrySet()) {
+                    fuzzy(child.getValue(), child.getKey(), word, firstRow, maxEdits, hits);
+                }
+            }
+            return hits;
+        }
+
+        /**
+         * Levenshtein over the trie: one DP row per node, branches pruned once every cell exceeds the budget
+         */
+        private void fuzzy(Node node, char letter, String word, int[] previousRow, int maxEdits, Map<Long, Integer> hits) {
+            int columns = word.length() + 1;
+            int[] row = new int[columns];
+            row[0] = previousRow[0] + 1;
+            int rowMin = row[0];
+            for (int i = 1; i < columns; i++) {
+                int cost = word.charAt(i - 1) == letter ? 0 : 1;
+                row[i] = Math.min(Math.min(row[i - 1] + 1, previousRow[i] + 1), previousRow[i - 1] + cost);
+                rowMin = Math.min(rowMin, row[i]);
+            }
+            if (row[columns - 1] <= maxEdits) {
+                for (Long id : node.exact) {
+                    hits.putIfAbsent(id, FUZZY);
+                }
+            }
+            if (rowMin <= maxEdits) {
+                for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                    fuzzy(child.getValue(), child.getKey(), word, row, maxEdits, hits);
+                }
+            }
+        }
+    }
+
+    private static final class Node {
+        final Map<Character, Node> children = new ConcurrentHashMap<>();
+        final Map<Long, Integer> below = new ConcurrentHashMap<>();
+        final Set<Long> exact = ConcurrentHashMap.newKeySet();
+    }
+}
@@ -8,6 +8,7 @@ import java.util.List;
 public interface DoctorService {
     List<DoctorSearchDto> searchDoctors(String keyword);
     List<DoctorSearchResponseDto> enhancedSearchDoctors(String keyword);
+    PaginatedDoctorResponseDto searchDoctorsPaginated(String keyword, int page, int size);
     List<DoctorSearchResponseDto> findNearbyDoctors(String location);
     PaginatedDoctorResponseDto getAllDoctorsPaginated(int page, int size);
 }
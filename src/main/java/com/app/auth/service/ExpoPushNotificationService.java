@@ -1,5 +1,6 @@
 package com.app.auth.service;
 
+import com.app.auth.dto.ExpoPushMessage;
 import com.app.auth.dto.NotificationResponseDto;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +42,14 @@ public interface ExpoPushNotificationService {
      */
     List<NotificationResponseDto> sendBulkNotifications(List<String> expoPushTokens, String title, String body);
 
+    /**
+     * Send different messages in as few requests as possible (100 messages per request, chunks sent concurrently)
+     * 
+     * @param messages Messages to send
+     * @return List of NotificationResponseDto in the same order as the messages
+     */
+    List<NotificationResponseDto> sendBatch(List<ExpoPushMessage> messages);
+
     /**
      * Check if a token is a valid Expo Push Token format
      * 
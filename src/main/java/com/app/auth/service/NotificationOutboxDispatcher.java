@@ -0,0 +1,241 @@
+package com.app.auth.service;
+
+import com.app.auth.dto.AndroidConfigDto;
+import com.app.auth.dto.IOSConfigDto;
+import com.app.auth.dto.NotificationRequestDto;
+import com.app.auth.dto.NotificationResponseDto;
+import com.app.auth.entity.NotificationOutboxEntry;
+import com.app.auth.entity.UserDetails;
+import com.app.auth.repository.NotificationOutboxRepository;
+import com.app.auth.repository.UserDetailsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains notification_outbox in the background.
+ *
+ * Each run claims a batch of due entries in a short transaction (FOR UPDATE SKIP LOCKED, marked SENDING with a
+ * lease), sends the whole batch through the batched Expo sender with no transaction or connection held, then
+ * records the outcome in a second short transaction. Transient failures are retried with exponential backoff;
+ * entries that keep failing end up DEAD.
+ * An entry whose lease expires (instance died mid-send) is picked up again.
+ */
+@Service
+public class NotificationOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxDispatcher.class);
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final UserDetailsRepository userRepository;
+    private final NotificationService notificationService;
+    private final AppMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long leaseSeconds;
+    private final long baseBackoffSeconds;
+
+    public NotificationOutboxDispatcher(NotificationOutboxRepository outboxRepository,
+                                        UserDetailsRepository userRepository,
+                                        NotificationService notificationService,
+                                        AppMetrics metrics,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${app.notifications.outbox.batch-size:100}") int batchSize,
+                                        @Value("${app.notifications.outbox.max-attempts:5}") int maxAttempts,
+                                        @Value("${app.notifications.outbox.lease-seconds:120}") long leaseSeconds,
+                                        @Value("${app.notifications.outbox.backoff-seconds:30}") long baseBackoffSeconds) {
+        this.outboxRepository = outboxRepository;
+        this.userRepository = userRepository;
+        this.notificationService = notificationService;
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.leaseSeconds = leaseSeconds;
+        this.baseBackoffSeconds = baseBackoffSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.outbox.poll-interval-ms:2000}")
+    public void dispatchDue() {
+        try {
+            List<NotificationOutboxEntry> batch;
+            // Keep draining while full batches come back
+            do {
+                batch = claimBatch();
+                if (!batch.isEmpty()) {
+                    deliver(batch);
+                }
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            logger.error("[OUTBOX] Dispatch run failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Delete delivered entries older than the retention window (failed/dead ones are kept for inspection)
+     */
+    @Scheduled(cron = "${app.notifications.outbox.purge-cron:0 30 0 * * ?}")
+    public void purgeDelivered() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxRepository.deleteSentBefore(OffsetDateTime.now().minusDays(7)));
+        logger.info("[OUTBOX] Purged {} delivered notifications", deleted);
+    }
+
+    private List<NotificationOutboxEntry> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            OffsetDateTime now = OffsetDateTime.now();
+            List<NotificationOutboxEntry> due = outboxRepository.lockDueEntries(now, batchSize);
+            for (NotificationOutboxEntry entry : due) {
+                entry.setStatus(NotificationOutboxEntry.STATUS_SENDING);
+                entry.setAttempts(entry.getAttempts() + 1);
+                entry.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+            }
+            return outboxRepository.saveAll(due);
+        });
+    }
+
+    private void deliver(List<NotificationOutboxEntry> batch) {
+        Set<Long> userIds = batch.stream().map(NotificationOutboxEntry::getUserId).collect(Collectors.toSet());
+        Map<Long, UserDetails> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(UserDetails::getId, Function.identity()));
+
+        List<NotificationOutboxEntry> sendable = new ArrayList<>();
+        List<NotificationRequestDto> requests = new ArrayList<>();
+        for (NotificationOutboxEntry entry : batch) {
+            UserDetails user = users.get(entry.getUserId());
+            if (user == null) {
+                markFailed(entry, "User not found");
+                continue;
+            }
+            if (user.getNotificationsEnabled() == null || !user.getNotificationsEnabled()
+                    || user.getFcmToken() == null || user.getFcmToken().trim().isEmpty()) {
+                markFailed(entry, "Notifications disabled or no push token");
+                continue;
+            }
+            sendable.add(entry);
+            requests.add(toRequest(entry, user));
+        }
+
+        // Whole batch goes out in one or a few Expo requests; responses come back in request order
+        List<NotificationResponseDto> responses;
+        try {
+            responses = notificationService.sendNotifications(requests);
+        } catch (Exception e) {
+            responses = null;
+            for (NotificationOutboxEntry entry : sendable) {
+                scheduleRetry(entry, e.getMessage());
+            }
+        }
+
+        // userId -> the token that was actually sent and rejected
+        Map<Long, String> invalidTokens = new HashMap<>();
+        for (int i = 0; responses != null && i < sendable.size(); i++) {
+            NotificationOutboxEntry entry = sendable.get(i);
+            NotificationResponseDto response = responses.get(i);
+            if (response.isSuccess()) {
+                entry.setStatus(NotificationOutboxEntry.STATUS_SENT);
+                entry.setSentAt(OffsetDateTime.now());
+                entry.setLastError(null);
+            } else if (isInvalidToken(response)) {
+                // Token is gone for good - clear it, user will get a new token on next app open
+                markFailed(entry, response.getErrorMessage());
+                invalidTokens.put(entry.getUserId(), requests.get(i).getDeviceToken());
+            } else {
+                scheduleRetry(entry, response.getErrorMessage());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxRepository.saveAll(batch);
+            // Conditional update, not save(): the users were loaded before the Expo round-trip, and merging them
+            // back would overwrite profile edits or a token re-registered in the meantime
+            invalidTokens.forEach(userRepository::clearPushToken);
+        });
+
+        long sent = count(batch, NotificationOutboxEntry.STATUS_SENT);
+        long retry = count(batch, NotificationOutboxEntry.STATUS_PENDING);
+        long failed = count(batch, NotificationOutboxEntry.STATUS_FAILED) + count(batch, NotificationOutboxEntry.STATUS_DEAD);
+        metrics.notifications("sent", (int) sent);
+        metrics.notifications("retry", (int) retry);
+        metrics.notifications("failed", (int) failed);
+        logger.info("[OUTBOX] Delivered batch of {}: sent={}, retry={}, failed={}", batch.size(), sent, retry, failed);
+    }
+
+    private NotificationRequestDto toRequest(NotificationOutboxEntry entry, UserDetails user) {
+        NotificationRequestDto request = new NotificationRequestDto();
+        request.setDeviceToken(user.getFcmToken());
+        request.setTitle(entry.getTitle());
+        request.setBody(entry.getBody());
+
+        // Platform-specific configuration for proper system notifications
+        if ("android".equalsIgnoreCase(user.getDeviceType())) {
+            AndroidConfigDto androidConfig = new AndroidConfigDto();
+            androidConfig.setChannelId("appointment_updates");
+            androidConfig.setPriority("high");
+            androidConfig.setSound("default");
+            request.setAndroidConfig(androidConfig);
+        } else if ("ios".equalsIgnoreCase(user.getDeviceType())) {
+            IOSConfigDto iosConfig = new IOSConfigDto();
+            iosConfig.setSound("default");
+            iosConfig.setBadge(1);
+            iosConfig.setContentAvailable(true);
+            request.setIosConfig(iosConfig);
+        }
+
+        // Data payload for app-specific handling
+        Map<String, String> data = new HashMap<>();
+        if (entry.getNotificationType() != null) {
+            data.put("type", entry.getNotificationType());
+        }
+        data.put("userId", entry.getUserId().toString());
+        data.put("timestamp", String.valueOf(entry.getCreatedAt().toInstant().toEpochMilli()));
+        request.setData(data);
+        return request;
+    }
+
+    private static boolean isInvalidToken(NotificationResponseDto response) {
+        String errorMsg = response.getErrorMessage() != null ? response.getErrorMessage().toLowerCase() : "";
+        return errorMsg.contains("unregistered") || errorMsg.contains("not found") || errorMsg.contains("invalid")
+                || errorMsg.contains("devicenotregistered")
+                || response.getStatusCode() == 404 || response.getStatusCode() == 400 || response.getStatusCode() == 410;
+    }
+
+    private void scheduleRetry(NotificationOutboxEntry entry, String error) {
+        entry.setLastError(truncate(error));
+        if (entry.getAttempts() >= maxAttempts) {
+            entry.setStatus(NotificationOutboxEntry.STATUS_DEAD);
+            logger.warn("[OUTBOX] Giving up on notification {} for user {} after {} attempts: {}",
+                    entry.getId(), entry.getUserId(), entry.getAttempts(), error);
+            return;
+        }
+        long backoff = baseBackoffSeconds * (1L << Math.min(entry.getAttempts() - 1, 10));
+        entry.setStatus(NotificationOutboxEntry.STATUS_PENDING);
+        entry.setNextAttemptAt(OffsetDateTime.now().plusSeconds(backoff));
+    }
+
+    private static void markFailed(NotificationOutboxEntry entry, String error) {
+        entry.setStatus(NotificationOutboxEntry.STATUS_FAILED);
+        entry.setLastError(truncate(error));
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+
+    private static long count(List<NotificationOutboxEntry> batch, String status) {
+        return batch.stream().filter(e -> status.equals(e.getStatus())).count();
+    }
+}
@@ -0,0 +1,34 @@
+package com.app.auth.service;
+
+import com.app.auth.entity.NotificationOutboxEntry;
+
+import java.util.Collection;
+
+/**
+ * Transactional outbox for user push notifications.
+ * Enqueued notifications are stored in the caller's transaction and delivered later by a background dispatcher,
+ * so no request waits on the push provider.
+ */
+public interface NotificationOutboxService {
+
+    /**
+     * Queue a notification for one user (committed together with the surrounding transaction)
+     *
+     * @param userId           Target user
+     * @param title            Notification title
+     * @param body             Notification body message
+     * @param notificationType Type sent in the data payload (e.g. APPOINTMENT_BOOKED)
+     */
+    void enqueue(Long userId, String title, String body, String notificationType);
+
+    /**
+     * Queue the same notification for several users (duplicates are sent once)
+     */
+    void enqueueForUsers(Collection<Long> userIds, String title, String body, String notificationType);
+
+    /**
+     * Queue prepared notifications (one per entry, e.g. per-appointment bodies of a bulk status change)
+     * as a single batched insert
+     */
+    void enqueueAll(Collection<NotificationOutboxEntry> entries);
+}
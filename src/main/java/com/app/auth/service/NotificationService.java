@@ -3,6 +3,8 @@ package com.app.auth.service;
 import com.app.auth.dto.NotificationRequestDto;
 import com.app.auth.dto.NotificationResponseDto;
 
+import java.util.List;
+
 /**
  * Service interface for Expo Push Notification operations (Expo-only)
  */
@@ -35,4 +37,12 @@ public interface NotificationService {
      * @return Array of NotificationResponseDto containing results for each device
      */
     NotificationResponseDto[] sendNotificationToMultipleDevices(String[] deviceTokens, String title, String body);
+
+    /**
+     * Send several individual notifications in batched Expo requests
+     *
+     * @param notificationRequests Requests (each with its own token, title, body and data)
+     * @return NotificationResponseDto for each request, in the same order
+     */
+    List<NotificationResponseDto> sendNotifications(List<NotificationRequestDto> notificationRequests);
 }
\ No newline at end of file
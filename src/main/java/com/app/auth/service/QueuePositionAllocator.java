@@ -0,0 +1,88 @@
+package com.app.auth.service;
+
+import com.app.auth.repository.AppointmentRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Hands out queue positions per (doctor, workplace, date).
+ *
+ * Positions come from a counter row in appointment_queue_counters that is advanced with a single
+ * INSERT ... ON CONFLICT DO UPDATE ... RETURNING statement. Positions are taken after the
+ * booking's insert (BookingGuard.assignQueuePosition). The first booking of a day seeds the row
+ * from the count of appointments that already have a position (inserted ones still hold 0), so days
+ * booked before the counter existed continue where they left off. The row lock is held until the
+ * booking transaction commits, which means two concurrent bookings for the same day can never get
+ * the same position, and a rolled back booking also rolls back its position.
+ *
+ * Schema: src/main/resources/db/migrations/001_appointment_queue_counters.sql
+ */
+@Service
+public class QueuePositionAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueuePositionAllocator.class);
+
+    private static final String NEXT_POSITION_SQL =
+            "INSERT INTO appointment_queue_counters (doctor_id, workplace_id, appointment_date, last_position) " +
+            "VALUES (?, ?, ?, (SELECT COUNT(*) FROM appointments a " +
+            "                  WHERE a.doctor_id = ? AND a.workplace_id = ? AND a.appointment_date = ? " +
+            "                  AND a.queue_position <> 0) + 1) " +
+            "ON CONFLICT (doctor_id, workplace_id, appointment_date) " +
+            "DO UPDATE SET last_position = appointment_queue_counters.last_position + 1 " +
+            "RETURNING last_position";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM appointment_queue_counters WHERE appointment_date < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AppointmentRepository appointmentRepository;
+
+    private volatile boolean counterTableAvailable;
+
+    public QueuePositionAllocator(JdbcTemplate jdbcTemplate, AppointmentRepository appointmentRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    @PostConstruct
+    void detectCounterTable() {
+        try {
+            Boolean exists = jdbcTemplate.queryForObject(
+                    "SELECT to_regclass('appointment_queue_counters') IS NOT NULL", Boolean.class);
+            counterTableAvailable = Boolean.TRUE.equals(exists);
+        } catch (Exception e) {
+            counterTableAvailable = false;
+        }
+        if (!counterTableAvailable) {
+            logger.warn("[QUEUE] appointment_queue_counters table not found, falling back to count based queue positions. " +
+                    "Apply db/migrations/001_appointment_queue_counters.sql");
+        }
+    }
+
+    /**
+     * Next queue position for the day. Must be called inside the booking transaction, after the
+     * appointment has been inserted.
+     */
+    public int next(Long doctorId, Long workplaceId, String appointmentDate) {
+        if (!counterTableAvailable) {
+            // The appointment itself is already counted
+            return (int) appointmentRepository.countByDoctorIdAndWorkplaceIdAndAppointmentDate(doctorId, workplaceId, appointmentDate);
+        }
+        Integer position = jdbcTemplate.queryForObject(NEXT_POSITION_SQL, Integer.class,
+                doctorId, workplaceId, appointmentDate, doctorId, workplaceId, appointmentDate);
+        return position != null ? position : 1;
+    }
+
+    /**
+     * Remove counters of days that are over (dates are yyyy-MM-dd so string order is date order)
+     */
+    public int purgeBefore(String appointmentDate) {
+        if (!counterTableAvailable) {
+            return 0;
+        }
+        return jdbcTemplate.update(PURGE_SQL, appointmentDate);
+    }
+}
@@ -0,0 +1,479 @@
+package com.app.auth.service;
+
+import com.app.auth.config.SlotCodec;
+import com.app.auth.entity.Appointment;
+import com.app.auth.entity.BlockedSlot;
+import com.app.auth.entity.DoctorDetails;
+import com.app.auth.entity.DoctorWorkplace;
+import com.app.auth.repository.AppointmentRepository;
+import com.app.auth.repository.BlockedSlotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory availability index for the available-slots API.
+ *
+ * Each (doctor, workplace, date) entry keeps the booked slot start times as a bitset of
+ * minute-of-day offsets plus the active blocks for that day. Booking, cancellation,
+ * reschedule and blocking paths update entries incrementally, so a warm
+ * GET /api/user/available-slots is answered without touching the database.
+ * Entries expire after a TTL as a safety net for writes that bypass this index
+ * (DB functions, other instances).
+ *
+ * A load reads the database before it installs its days, so a write that commits in between would be
+ * overwritten by the older snapshot. Every write bumps the load epoch of its doctor before touching the
+ * index, and a load only installs a day if that epoch is unchanged (checked inside the map's compute,
+ * so it cannot interleave with the write's own update of the same day). A load that lost the race still
+ * answers its own request from its snapshot and leaves the day to be reloaded on the next read.
+ */
+@Service
+public class SlotAvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotAvailabilityIndex.class);
+
+    private static final int MINUTES_PER_DAY = SlotCodec.MINUTES_PER_DAY;
+    // Load epochs are striped by doctor: a booking only invalidates in-flight loads of its own doctor (or a neighbour's)
+    private static final int EPOCH_STRIPES = 64;
+
+    private final AppointmentRepository appointmentRepository;
+    private final BlockedSlotRepository blockedSlotRepository;
+    private final DoctorCatalogCache catalogCache;
+    private final long ttlMillis;
+
+    private final Map<DayKey, DayAvailability> days = new ConcurrentHashMap<>();
+    private final Map<Long, WorkplaceSchedule> schedules = new ConcurrentHashMap<>();
+    private final AtomicLongArray loadEpochs = new AtomicLongArray(EPOCH_STRIPES);
+
+    public SlotAvailabilityIndex(AppointmentRepository appointmentRepository,
+                                 BlockedSlotRepository blockedSlotRepository,
+                                 DoctorCatalogCache catalogCache,
+                                 @Value("${app.slots.index.ttl-seconds:300}") long ttlSeconds) {
+        this.appointmentRepository = appointmentRepository;
+        this.blockedSlotRepository = blockedSlotRepository;
+        this.catalogCache = catalogCache;
+        this.ttlMillis = ttlSeconds * 1000L;
+    }
+
+    // ==================== READ PATH ====================
+
+    /**
+     * Get the slot layout of a workplace (doctor/workplace names and every slot start it can produce)
+     */
+    public WorkplaceSchedule getSchedule(Long doctorId, Long workplaceId) {
+        WorkplaceSchedule schedule = schedules.get(workplaceId);
+        if (schedule != null && schedule.doctorId.equals(doctorId) && !isExpired(schedule.loadedAt)) {
+            return schedule;
+        }
+
+        Optional<DoctorDetails> doctorOpt = catalogCache.findDoctor(doctorId);
+        Optional<DoctorWorkplace> workplaceOpt = catalogCache.findWorkplace(workplaceId);
+        if (!doctorOpt.isPresent() || !workplaceOpt.isPresent()) {
+            throw new IllegalArgumentException("Doctor or workplace not found");
+        }
+
+        schedule = WorkplaceSchedule.of(doctorOpt.get(), workplaceOpt.get());
+        schedules.put(workplaceId, schedule);
+        return schedule;
+    }
+
+    /**
+     * Available slots and active blocks for every date in [fromDate, toDate].
+     * Each run of consecutive missing days is loaded with one appointment query and one blocked-slot query;
+     * cached days are never reloaded.
+     */
+    public Map<LocalDate, DayView> getDays(WorkplaceSchedule schedule, LocalDate fromDate, LocalDate toDate) {
+        Map<LocalDate, DayAvailability> loaded = new HashMap<>();
+        LocalDate runStart = null;
+        for (LocalDate d = fromDate; !d.isAfter(toDate); d = d.plusDays(1)) {
+            DayAvailability day = days.get(new DayKey(schedule.doctorId, schedule.workplaceId, d));
+            boolean missing = day == null || isExpired(day.loadedAt);
+            if (missing && runStart == null) {
+                runStart = d;
+            } else if (!missing && runStart != null) {
+                loaded.putAll(loadDays(schedule.doctorId, schedule.workplaceId, runStart, d.minusDays(1)));
+                runStart = null;
+            }
+        }
+        if (runStart != null) {
+            loaded.putAll(loadDays(schedule.doctorId, schedule.workplaceId, runStart, toDate));
+        }
+
+        Map<LocalDate, DayView> result = new LinkedHashMap<>();
+        LocalDate today = LocalDate.now();
+        int nowMinute = SlotCodec.minuteOf(LocalTime.now());
+        for (LocalDate d = fromDate; !d.isAfter(toDate); d = d.plusDays(1)) {
+            DayAvailability day = days.get(new DayKey(schedule.doctorId, schedule.workplaceId, d));
+            if (day == null) {
+                // Not installed (a write raced the load, or already evicted): answer from this request's snapshot
+                day = loaded.get(d);
+            }
+            if (day == null) {
+                day = new DayAvailability(schedule.doctorId, System.currentTimeMillis());
+            }
+            // Only today hides slots that already started; past dates list their slots as they always did
+            int earliest = d.equals(today) ? nowMinute : 0;
+            result.put(d, day.view(schedule, earliest));
+        }
+        return result;
+    }
+
+    private Map<LocalDate, DayAvailability> loadDays(Long doctorId, Long workplaceId, LocalDate fromDate, LocalDate toDate) {
+        long epoch = loadEpochs.get(stripe(doctorId));
+        long loadedAt = System.currentTimeMillis();
+        Map<LocalDate, DayAvailability> loaded = new HashMap<>();
+        for (LocalDate d = fromDate; !d.isAfter(toDate); d = d.plusDays(1)) {
+            loaded.put(d, new DayAvailability(doctorId, loadedAt));
+        }
+
+        List<Appointment> appointments = appointmentRepository.findByDoctorIdAndWorkplaceIdAndAppointmentDayBetween(
+                doctorId, workplaceId, fromDate, toDate);
+        for (Appointment appointment : appointments) {
+            if ("CANCELLED".equals(appointment.getStatus())) {
+                continue;
+            }
+            DayAvailability day = loaded.get(appointment.getAppointmentDay());
+            int minute = startMinute(appointment);
+            if (day != null && minute >= 0) {
+                day.book(minute);
+            }
+        }
+
+        List<BlockedSlot> blocks = blockedSlotRepository.findActiveBlockedSlotsByWorkplaceAndDateRange(
+                doctorId, workplaceId, fromDate, toDate);
+        for (BlockedSlot block : blocks) {
+            DayAvailability day = loaded.get(block.getBlockDate());
+            if (day != null) {
+                day.block(BlockWindow.of(block));
+            }
+        }
+
+        // Install only if no write for this doctor committed since the epoch was read
+        loaded.forEach((date, day) -> days.compute(new DayKey(doctorId, workplaceId, date),
+                (key, current) -> loadEpochs.get(stripe(doctorId)) == epoch ? day : current));
+        return loaded;
+    }
+
+    // ==================== WRITE PATH ====================
+
+    /**
+     * A non-cancelled appointment now occupies its slot
+     */
+    public void onBooked(Appointment appointment) {
+        if ("CANCELLED".equals(appointment.getStatus())) {
+            return;
+        }
+        afterCommit(() -> {
+            DayKey key = keyOf(appointment);
+            int minute = startMinute(appointment);
+            if (key != null) {
+                bumpEpoch(key.doctorId);
+                if (minute >= 0) {
+                    days.computeIfPresent(key, (k, day) -> {
+                        day.book(minute);
+                        return day;
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * An appointment was cancelled or removed from the appointments table
+     */
+    public void onReleased(Appointment appointment) {
+        afterCommit(() -> {
+            DayKey key = keyOf(appointment);
+            int minute = startMinute(appointment);
+            if (key != null) {
+                bumpEpoch(key.doctorId);
+                // Slot shared by more than one booking cannot be released incrementally - rebuild on next read
+                days.computeIfPresent(key, (k, day) -> minute < 0 || day.release(minute) ? day : null);
+            }
+        });
+    }
+
+    /**
+     * A doctor blocked time (one workplace, or all workplaces when workplaceId is null)
+     */
+    public void onBlocked(BlockedSlot block) {
+        BlockWindow window = BlockWindow.of(block);
+        afterCommit(() -> {
+            bumpEpoch(block.getDoctorId());
+            for (DayKey key : days.keySet()) {
+                if (key.doctorId.equals(block.getDoctorId()) && key.date.equals(block.getBlockDate())
+                        && (block.getWorkplaceId() == null || key.workplaceId.equals(block.getWorkplaceId()))) {
+                    days.computeIfPresent(key, (k, day) -> {
+                        day.block(window);
+                        return day;
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop every day of a doctor on a date (e.g. after a block was removed)
+     */
+    public void evictDoctorDate(Long doctorId, LocalDate date) {
+        afterCommit(() -> {
+            bumpEpoch(doctorId);
+            days.keySet().removeIf(k -> k.doctorId.equals(doctorId) && k.date.equals(date));
+        });
+    }
+
+    /**
+     * Drop every cached day of a workplace (bulk changes done inside the database)
+     */
+    public void evictWorkplace(Long workplaceId) {
+        afterCommit(() -> {
+            bumpAllEpochs();
+            days.keySet().removeIf(k -> k.workplaceId.equals(workplaceId));
+        });
+    }
+
+    /**
+     * Drop schedules and days of a doctor (profile or workplace timing changed)
+     */
+    public void evictDoctor(Long doctorId) {
+        afterCommit(() -> {
+            bumpEpoch(doctorId);
+            schedules.values().removeIf(s -> s.doctorId.equals(doctorId));
+            days.keySet().removeIf(k -> k.doctorId.equals(doctorId));
+        });
+    }
+
+    /**
+     * Drop days before the given date (they were archived by the nightly job)
+     */
+    public void evictBefore(LocalDate date) {
+        afterCommit(() -> {
+            bumpAllEpochs();
+            days.keySet().removeIf(k -> k.date.isBefore(date));
+        });
+    }
+
+    /**
+     * Remove expired entries so the index does not grow with every date ever requested
+     */
+    @Scheduled(fixedDelayString = "${app.slots.index.cleanup-interval-ms:600000}")
+    public void cleanupExpired() {
+        days.values().removeIf(day -> isExpired(day.loadedAt));
+        schedules.values().removeIf(schedule -> isExpired(schedule.loadedAt));
+        logger.debug("[SLOT INDEX] Cleanup done. days={}, schedules={}", days.size(), schedules.size());
+    }
+
+    // ==================== HELPERS ====================
+
+    private boolean isExpired(long loadedAt) {
+        return System.currentTimeMillis() - loadedAt > ttlMillis;
+    }
+
+    private static int stripe(Long doctorId) {
+        return (Long.hashCode(doctorId) & Integer.MAX_VALUE) % EPOCH_STRIPES;
+    }
+
+    private void bumpEpoch(Long doctorId) {
+        if (doctorId != null) {
+            loadEpochs.incrementAndGet(stripe(doctorId));
+        }
+    }
+
+    // Writes that are not tied to one doctor (workplace or date-wide evictions)
+    private void bumpAllEpochs() {
+        for (int i = 0; i < EPOCH_STRIPES; i++) {
+            loadEpochs.incrementAndGet(i);
+        }
+    }
+
+    private DayKey keyOf(Appointment appointment) {
+        if (appointment.getDoctorId() == null || appointment.getWorkplaceId() == null) {
+            return null;
+        }
+        LocalDate date = appointment.getAppointmentDay();
+        return date != null ? new DayKey(appointment.getDoctorId(), appointment.getWorkplaceId(), date) : null;
+    }
+
+    /**
+     * Start of an appointment's slot as minute of day, or -1 when its slot does not parse. Such appointments
+     * never occupied a generated slot (they could not match its label) and are not placed by appointment time.
+     */
+    private static int startMinute(Appointment appointment) {
+        LocalTime slotStart = appointment.getSlotStart();
+        return slotStart != null ? SlotCodec.minuteOf(slotStart) : -1;
+    }
+
+    /**
+     * Apply index updates only once the surrounding transaction commits, so rolled back bookings never leak in
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // ==================== MODEL ====================
+
+    private record DayKey(Long doctorId, Long workplaceId, LocalDate date) {}
+
+    /**
+     * Immutable slot layout of a workplace
+     */
+    public static final class WorkplaceSchedule {
+        private final Long doctorId;
+        private final Long workplaceId;
+        private final String doctorName;
+        private final String workplaceName;
+        private final int durationMinutes;
+        private final int[] slotStarts;
+        private final String[] slotLabels;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private WorkplaceSchedule(Long doctorId, Long workplaceId, String doctorName, String workplaceName,
+                                  int durationMinutes, int[] slotStarts) {
+            this.doctorId = doctorId;
+            this.workplaceId = workplaceId;
+            this.doctorName = doctorName;
+            this.workplaceName = workplaceName;
+            this.durationMinutes = durationMinutes;
+            this.slotStarts = slotStarts;
+            // Interned labels: schedules with the same timings share the same strings
+            this.slotLabels = new String[slotStarts.length];
+            for (int i = 0; i < slotStarts.length; i++) {
+                slotLabels[i] = SlotCodec.label(slotStarts[i], durationMinutes);
+            }
+        }
+
+        static WorkplaceSchedule of(DoctorDetails doctor, DoctorWorkplace workplace) {
+            int duration = workplace.getCheckingDurationMinutes() != null && workplace.getCheckingDurationMinutes() > 0
+                    ? workplace.getCheckingDurationMinutes() : 30;
+            List<Integer> starts = new ArrayList<>();
+            addPeriod(starts, workplace.getMorningStartTime(), workplace.getMorningEndTime(), duration);
+            addPeriod(starts, workplace.getEveningStartTime(), workplace.getEveningEndTime(), duration);
+            return new WorkplaceSchedule(doctor.getId(), workplace.getId(), doctor.getFullName(),
+                    workplace.getWorkplaceName(), duration, starts.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        private static void addPeriod(List<Integer> starts, LocalTime start, LocalTime end, int duration) {
+            if (start == null || end == null) {
+                return;
+            }
+            int endMinute = SlotCodec.minuteOf(end);
+            for (int m = SlotCodec.minuteOf(start); m + duration <= endMinute; m += duration) {
+                starts.add(m);
+            }
+        }
+
+        public Long getDoctorId() { return doctorId; }
+        public Long getWorkplaceId() { return workplaceId; }
+        public String getDoctorName() { return doctorName; }
+        public String getWorkplaceName() { return workplaceName; }
+        public int getDurationMinutes() { return durationMinutes; }
+    }
+
+    /**
+     * A blocked window on a day (start/end are ignored for full day blocks)
+     */
+    public record BlockWindow(boolean fullDay, LocalTime startTime, LocalTime endTime, String reason) {
+        static BlockWindow of(BlockedSlot block) {
+            return new BlockWindow(Boolean.TRUE.equals(block.getIsFullDay()),
+                    block.getStartTime(), block.getEndTime(), block.getReason());
+        }
+
+        public boolean hasTimeRange() {
+            return startTime != null && endTime != null;
+        }
+
+        boolean overlaps(int slotStart, int slotEnd) {
+            if (!hasTimeRange()) {
+                return false;
+            }
+            int blockStart = SlotCodec.minuteOf(startTime);
+            int blockEnd = SlotCodec.minuteOf(endTime);
+            return slotEnd > blockStart && slotStart < blockEnd;
+        }
+    }
+
+    /**
+     * Read-only result for one day: free slot labels plus the blocks that shaped them
+     */
+    public record DayView(List<String> slots, List<BlockWindow> blocks) {}
+
+    private static final class DayAvailability {
+        private final Long doctorId;
+        private final long loadedAt;
+        private final BitSet booked = new BitSet(MINUTES_PER_DAY);
+        // Minutes booked more than once; releasing one of them cannot be done incrementally
+        private final BitSet shared = new BitSet(MINUTES_PER_DAY);
+        private final List<BlockWindow> blocks = new ArrayList<>();
+
+        DayAvailability(Long doctorId, long loadedAt) {
+            this.doctorId = doctorId;
+            this.loadedAt = loadedAt;
+        }
+
+        synchronized void book(int minute) {
+            if (booked.get(minute)) {
+                shared.set(minute);
+            }
+            booked.set(minute);
+        }
+
+        synchronized boolean release(int minute) {
+            if (shared.get(minute)) {
+                return false;
+            }
+            booked.clear(minute);
+            return true;
+        }
+
+        synchronized void block(BlockWindow window) {
+            blocks.add(window);
+        }
+
+        synchronized DayView view(WorkplaceSchedule schedule, int earliestMinute) {
+            List<BlockWindow> dayBlocks = List.copyOf(blocks);
+            for (BlockWindow block : dayBlocks) {
+                if (block.fullDay()) {
+                    return new DayView(new ArrayList<>(), dayBlocks);
+                }
+            }
+
+            List<String> free = new ArrayList<>(schedule.slotStarts.length);
+            for (int i = 0; i < schedule.slotStarts.length; i++) {
+                int start = schedule.slotStarts[i];
+                if (start < earliestMinute || booked.get(start)) {
+                    continue;
+                }
+                boolean blocked = false;
+                for (BlockWindow block : dayBlocks) {
+                    if (block.overlaps(start, start + schedule.durationMinutes)) {
+                        blocked = true;
+                        break;
+                    }
+                }
+                if (!blocked) {
+                    free.add(schedule.slotLabels[i]);
+                }
+            }
+            return new DayView(free, dayBlocks);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.app.auth.service;
+
+import com.app.auth.dto.UserAppointmentDto;
+import com.app.auth.entity.Appointment;
+import com.app.auth.entity.PastAppointment;
+import com.app.auth.repository.AppointmentRepository;
+import com.app.auth.repository.PastAppointmentRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A user's appointments as one keyset-paginated timeline: upcoming first (oldest to newest, from the start
+ * of today), then history (newest to oldest). Both sections read the live appointments table and
+ * past_appointments, since visits completed today are archived before the day is over.
+ *
+ * Pages are cut on (appointment_time, id) with idx_appointments_user_time / idx_past_appointments_user_time,
+ * so a page costs the same for a first-time patient and one with years of history. The opaque cursor carries
+ * the section and the last row's key; a page that finishes the upcoming section is topped up from history.
+ * Rows of both tables with the same time are ordered archived first in upcoming and live first in history
+ * (one order, read in both directions), then by id.
+ */
+@Service
+public class UserAppointmentTimeline {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final char UPCOMING = 'U';
+    private static final char HISTORY = 'H';
+    // Tie-break between tables at equal times: archived rows first in upcoming order, live rows first in history
+    private static final int LIVE = 1;
+    private static final int PAST = 0;
+
+    private static final Comparator<Row> OLDEST_FIRST = Comparator
+            .comparing((Row r) -> r.time().toInstant())
+            .thenComparingInt(Row::source)
+            .thenComparingLong(Row::id);
+    private static final Comparator<Row> NEWEST_FIRST = OLDEST_FIRST.reversed();
+
+    /**
+     * One page plus the cursor for the next one (null when the timeline is exhausted)
+     */
+    public record Page<T>(List<T> items, String nextCursor) {}
+
+    /**
+     * Position after the last returned row: section, appointment time, source table, id
+     */
+    public record Cursor(char section, OffsetDateTime time, int source, long id) {
+
+        public String encode() {
+            Instant at = time.toInstant();
+            String raw = section + "|" + at.getEpochSecond() + "|" + at.getNano() + "|" + source + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String value) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split("\\|");
+                if (parts.length != 5 || parts[0].length() != 1) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                Instant at = Instant.ofEpochSecond(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                return new Cursor(parts[0].charAt(0), OffsetDateTime.ofInstant(at, ZoneOffset.UTC),
+                        Integer.parseInt(parts[3]), Long.parseLong(parts[4]));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                // NumberFormatException is an IllegalArgumentException too
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+
+    private record Row(OffsetDateTime time, int source, long id, UserAppointmentDto dto) {}
+
+    private final AppointmentRepository appointmentRepository;
+    private final PastAppointmentRepository pastAppointmentRepository;
+
+    public UserAppointmentTimeline(AppointmentRepository appointmentRepository,
+                                   PastAppointmentRepository pastAppointmentRepository) {
+        this.appointmentRepository = appointmentRepository;
+        this.pastAppointmentRepository = pastAppointmentRepository;
+    }
+
+    /**
+     * Next page of the timeline; cursor is null for the first page
+     */
+    public Page<UserAppointmentDto> page(Long userId, String cursor, Integer limit) {
+        int size = clampLimit(limit);
+        Cursor position = cursor == null || cursor.isBlank() ? null : Cursor.decode(cursor.trim());
+        if (position != null && position.section() != UPCOMING && position.section() != HISTORY) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        List<UserAppointmentDto> items = new ArrayList<>(size);
+        Cursor historyStart;
+        if (position == null || position.section() == UPCOMING) {
+            // Same boundary as the archiver: appointments before today are history
+            OffsetDateTime todayStart = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+            Cursor upcomingStart = position != null ? position : new Cursor(UPCOMING, todayStart, PAST, Long.MIN_VALUE);
+            List<Row> upcoming = upcomingPage(userId, upcomingStart, size + 1);
+            for (int i = 0; i < Math.min(size, upcoming.size()); i++) {
+                items.add(upcoming.get(i).dto());
+            }
+            if (upcoming.size() > size) {
+                Row last = upcoming.get(size - 1);
+                return new Page<>(items, new Cursor(UPCOMING, last.time(), last.source(), last.id()).encode());
+            }
+            // History starts just before today, in both tables
+            historyStart = new Cursor(HISTORY, todayStart, PAST, Long.MIN_VALUE);
+            if (items.size() == size) {
+                return new Page<>(items, historyStart.encode());
+            }
+        } else {
+            historyStart = position;
+        }
+
+        int remaining = size - items.size();
+        List<Row> history = historyPage(userId, historyStart, remaining + 1);
+        for (int i = 0; i < Math.min(remaining, history.size()); i++) {
+            items.add(history.get(i).dto());
+        }
+        String next = null;
+        if (history.size() > remaining) {
+            Row last = history.get(remaining - 1);
+            next = new Cursor(HISTORY, last.time(), last.source(), last.id()).encode();
+        }
+        return new Page<>(items, next);
+    }
+
+    /**
+     * Live appointments only, newest first (the plain /appointments list)
+     */
+    public Page<Appointment> liveNewestFirst(Long userId, String cursor, Integer limit) {
+        int size = clampLimit(limit);
+        PageRequest firstPage = PageRequest.of(0, size + 1);
+        List<Appointment> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = appointmentRepository.findUserPageNewestFirst(userId, firstPage);
+        } else {
+            Cursor position = Cursor.decode(cursor.trim());
+            if (position.section() != HISTORY || position.source() != LIVE) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            rows = appointmentRepository.findUserPageBefore(userId, position.time(), position.id(), firstPage);
+        }
+        if (rows.size() <= size) {
+            return new Page<>(rows, null);
+        }
+        Appointment last = rows.get(size - 1);
+        return new Page<>(rows.subList(0, size),
+                new Cursor(HISTORY, last.getAppointmentTime(), LIVE, last.getId()).encode());
+    }
+
+    /**
+     * Up to count upcoming rows after the cursor: one keyset query per table, merged in timeline order
+     */
+    private List<Row> upcomingPage(Long userId, Cursor position, int count) {
+        PageRequest pageRequest = PageRequest.of(0, count);
+        // Mirror of historyPage: same-time past rows come first, so they are all done once in live rows
+        long liveAfter = position.source() == LIVE ? position.id() : Long.MIN_VALUE;
+        long pastAfter = position.source() == PAST ? position.id() : Long.MAX_VALUE;
+
+        List<Row> rows = new ArrayList<>(count * 2);
+        for (Appointment a : appointmentRepository.findUserPageAfter(userId, position.time(), liveAfter, pageRequest)) {
+            rows.add(new Row(a.getAppointmentTime(), LIVE, a.getId(), toDto(a)));
+        }
+        for (PastAppointment p : pastAppointmentRepository.findUserPageAfter(userId, position.time(), pastAfter, pageRequest)) {
+            rows.add(new Row(p.getAppointmentTime(), PAST, p.getId(), toDto(p)));
+        }
+        rows.sort(OLDEST_FIRST);
+        return rows.size() > count ? rows.subList(0, count) : rows;
+    }
+
+    /**
+     * Up to count history rows after the cursor: one keyset query per table, merged in timeline order
+     */
+    private List<Row> historyPage(Long userId, Cursor position, int count) {
+        PageRequest pageRequest = PageRequest.of(0, count);
+        // Same-time rows of the table the cursor is not in are either all done (live, once in past rows)
+        // or all still to come (past, while in live rows)
+        long liveBefore = position.source() == LIVE ? position.id() : Long.MIN_VALUE;
+        long pastBefore = position.source() == PAST ? position.id() : Long.MAX_VALUE;
+
+        List<Row> rows = new ArrayList<>(count * 2);
+        for (Appointment a : appointmentRepository.findUserPageBefore(userId, position.time(), liveBefore, pageRequest)) {
+            rows.add(new Row(a.getAppointmentTime(), LIVE, a.getId(), toDto(a)));
+        }
+        for (PastAppointment p : pastAppointmentRepository.findUserPageBefore(userId, position.time(), pastBefore, pageRequest)) {
+            rows.add(new Row(p.getAppointmentTime(), PAST, p.getId(), toDto(p)));
+        }
+        rows.sort(NEWEST_FIRST);
+        return rows.size() > count ? rows.subList(0, count) : rows;
+    }
+
+    private static int clampLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    private static UserAppointmentDto toDto(Appointment appointment) {
+        UserAppointmentDto dto = new UserAppointmentDto();
+        dto.setId(appointment.getId());
+        dto.setDoctorId(appointment.getDoctorId());
+        dto.setDoctorName(appointment.getDoctorName());
+        dto.setDoctorSpecialization(appointment.getDoctorSpecialization());
+        dto.setWorkplaceId(appointment.getWorkplaceId());
+        dto.setWorkplaceName(appointment.getWorkplaceName());
+        dto.setWorkplaceType(appointment.getWorkplaceType());
+        dto.setWorkplaceAddress(appointment.getWorkplaceAddress());
+        dto.setAppointmentTime(appointment.getAppointmentTime());
+        dto.setAppointmentDate(appointment.getAppointmentDate());
+        dto.setSlot(appointment.getSlot());
+        dto.setDurationMinutes(appointment.getDurationMinutes());
+        dto.setQueuePosition(appointment.getQueuePosition());
+        dto.setStatus(appointment.getStatus());
+        dto.setNotes(appointment.getNotes());
+        dto.setCreatedAt(appointment.getCreatedAt());
+        dto.setUpdatedAt(appointment.getUpdatedAt());
+        dto.setPatientMemberId(appointment.getPatientMemberId());
+        dto.setPatientName(appointment.getPatientName());
+        return dto;
+    }
+
+    private static UserAppointmentDto toDto(PastAppointment past) {
+        UserAppointmentDto dto = new UserAppointmentDto();
+        dto.setId(past.getId());
+        dto.setDoctorId(past.getDoctorId());
+        dto.setDoctorName(past.getDoctorName());
+        dto.setDoctorSpecialization(past.getDoctorSpecialization());
+        dto.setWorkplaceId(past.getWorkplaceId());
+        dto.setWorkplaceName(past.getWorkplaceName());
+        dto.setWorkplaceType(past.getWorkplaceType());
+        dto.setWorkplaceAddress(past.getWorkplaceAddress());
+        dto.setAppointmentTime(past.getAppointmentTime());
+        dto.setAppointmentDate(past.getAppointmentDate());
+        dto.setSlot(past.getSlot());
+        dto.setDurationMinutes(past.getDurationMinutes());
+        dto.setQueuePosition(past.getQueuePosition());
+        dto.setStatus(past.getStatus());
+        dto.setNotes(past.getNotes());
+        dto.setCreatedAt(past.getCreatedAt());
+        dto.setUpdatedAt(past.getUpdatedAt());
+        return dto;
+    }
+}
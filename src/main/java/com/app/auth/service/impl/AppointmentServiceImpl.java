@@ -1,14 +1,21 @@
 package com.app.auth.service.impl;
 
+import com.app.auth.config.SlotCodec;
 import com.app.auth.dto.*;
 import com.app.auth.entity.Appointment;
 import com.app.auth.entity.DoctorDetails;
 import com.app.auth.entity.DoctorWorkplace;
 import com.app.auth.entity.UserDetails;
 import com.app.auth.repository.*;
+import com.app.auth.service.AppMetrics;
 import com.app.auth.service.AppointmentService;
-import com.app.auth.service.NotificationService;
+import com.app.auth.service.BookingGuard;
+import com.app.auth.service.DoctorCatalogCache;
+import com.app.auth.service.NotificationOutboxService;
+import com.app.auth.service.SlotAvailabilityIndex;
+import com.app.auth.service.UserAppointmentTimeline;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -23,29 +30,38 @@ import java.util.stream.Collectors;
 public class AppointmentServiceImpl implements AppointmentService {
 
     private final AppointmentRepository appointmentRepo;
-    private final DoctorDetailsRepository doctorRepo;
-    private final DoctorWorkplaceRepository workplaceRepo;
+    private final DoctorCatalogCache catalogCache;
     private final UserDetailsRepository userRepo;
     private final com.app.auth.repository.FamilyMemberRepository familyMemberRepo;
-    private final NotificationService notificationService;
+    private final NotificationOutboxService notificationOutboxService;
+    private final SlotAvailabilityIndex slotIndex;
+    private final BookingGuard bookingGuard;
+    private final UserAppointmentTimeline userTimeline;
+    private final AppMetrics metrics;
 
     // keep future repo bean for compatibility but avoid using it at runtime
     // private final FutureTwoDayAppointmentRepository futureAppointmentRepo;
 
     public AppointmentServiceImpl(AppointmentRepository appointmentRepo,
                                   /* FutureTwoDayAppointmentRepository futureAppointmentRepo, */
-                                  DoctorDetailsRepository doctorRepo,
-                                  DoctorWorkplaceRepository workplaceRepo,
+                                  DoctorCatalogCache catalogCache,
                                   UserDetailsRepository userRepo,
                                   com.app.auth.repository.FamilyMemberRepository familyMemberRepo,
-                                  NotificationService notificationService) {
+                                  NotificationOutboxService notificationOutboxService,
+                                  SlotAvailabilityIndex slotIndex,
+                                  BookingGuard bookingGuard,
+                                  UserAppointmentTimeline userTimeline,
+                                  AppMetrics metrics) {
         this.appointmentRepo = appointmentRepo;
         // this.futureAppointmentRepo = futureAppointmentRepo;
-        this.doctorRepo = doctorRepo;
-        this.workplaceRepo = workplaceRepo;
+        this.catalogCache = catalogCache;
         this.userRepo = userRepo;
         this.familyMemberRepo = familyMemberRepo;
-        this.notificationService = notificationService;
+        this.notificationOutboxService = notificationOutboxService;
+        this.slotIndex = slotIndex;
+        this.bookingGuard = bookingGuard;
+        this.userTimeline = userTimeline;
+        this.metrics = metrics;
     }
 
     private AppointmentDto toDto(Appointment a) {
@@ -75,7 +91,8 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     /**
      * Reschedule: shift appointments at/after startFrom (or from now) by shiftMinutes.
-     * Uses DB locking for doctor's day to avoid races.
+     * Serialized with other day-reordering operations through BookingGuard's per-day lock; the shifted rows
+     * themselves are still row-locked because they are rewritten.
      * Sends FCM notifications to affected users.
      */
     @Override
@@ -91,13 +108,17 @@ public class AppointmentServiceImpl implements AppointmentService {
         OffsetDateTime from = startFrom;
         OffsetDateTime to = startFrom.plusDays(7); // limit window to avoid accidental global shifts
 
-        // lock appointments for the window
+        // day locks first (same order as bookAppointment / pushToEnd), then the rows being rewritten
+        bookingGuard.lockDoctorDays(doctorId, from.toLocalDate(), to.toLocalDate());
         List<Appointment> locked = appointmentRepo.lockAppointmentsForDoctorBetween(doctorId, from, to);
 
         if (locked.isEmpty()) return Collections.emptyList();
 
+        // Shifted appointment times no longer match cached slots
+        slotIndex.evictDoctor(doctorId);
+
         // Get doctor name for notifications
-        String doctorName = doctorRepo.findById(doctorId)
+        String doctorName = catalogCache.findDoctor(doctorId)
             .map(DoctorDetails::getFullName)
             .orElse("Doctor");
 
@@ -121,63 +142,13 @@ public class AppointmentServiceImpl implements AppointmentService {
     }
     
     /**
-     * Helper method to send FCM notification for rescheduled appointments
+     * Helper method to queue the push notification for rescheduled appointments
      */
     private void sendRescheduleNotification(Long userId, String doctorName, String newDate, String newTime) {
-        try {
-            Optional<UserDetails> userOpt = userRepo.findById(userId);
-            if (userOpt.isPresent()) {
-                UserDetails user = userOpt.get();
-                if (user.getNotificationsEnabled() != null && user.getNotificationsEnabled()
-                    && user.getFcmToken() != null && !user.getFcmToken().trim().isEmpty()) {
-                    
-                    NotificationRequestDto request = new NotificationRequestDto();
-                    request.setDeviceToken(user.getFcmToken());
-                    request.setTitle("Appointment Rescheduled 📅");
-                    request.setBody(String.format("Your appointment with Dr. %s has been rescheduled to %s at %s.",
-                        doctorName, newDate, newTime));
-                    
-                    // Add platform-specific configuration
-                    if ("android".equalsIgnoreCase(user.getDeviceType())) {
-                        AndroidConfigDto androidConfig = new AndroidConfigDto();
-                        androidConfig.setChannelId("appointment_updates");
-                        androidConfig.setPriority("high");
-                        androidConfig.setSound("default");
-                        request.setAndroidConfig(androidConfig);
-                    } else if ("ios".equalsIgnoreCase(user.getDeviceType())) {
-                        IOSConfigDto iosConfig = new IOSConfigDto();
-                        iosConfig.setSound("default");
-                        iosConfig.setBadge(1);
-                        iosConfig.setContentAvailable(true);
-                        request.setIosConfig(iosConfig);
-                    }
-                    
-                    // Add data payload
-                    Map<String, String> data = new HashMap<>();
-                    data.put("type", "APPOINTMENT_RESCHEDULED_BY_DOCTOR");
-                    data.put("userId", userId.toString());
-                    data.put("timestamp", String.valueOf(System.currentTimeMillis()));
-                    request.setData(data);
-                    
-                    NotificationResponseDto response = notificationService.sendNotificationToDevice(request);
-                    if (response.isSuccess()) {
-                        System.out.println("[NOTIFICATION] Sent reschedule notification to user " + userId);
-                    } else {
-                        System.out.println("[NOTIFICATION] Failed to send reschedule notification to user " + userId + ": " + response.getErrorMessage());
-                        // Clear invalid token if UNREGISTERED
-                        String errorMsg = response.getErrorMessage() != null ? response.getErrorMessage().toLowerCase() : "";
-                        if (errorMsg.contains("unregistered") || errorMsg.contains("not found") || errorMsg.contains("invalid")) {
-                            user.setFcmToken(null);
-                            user.setDeviceType(null);
-                            userRepo.save(user);
-                            System.out.println("[NOTIFICATION] Cleared invalid FCM token for user " + userId);
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("[NOTIFICATION] Failed to send reschedule notification to user " + userId + ": " + e.getMessage());
-        }
+        notificationOutboxService.enqueue(userId,
+            "Appointment Rescheduled 📅",
+            String.format("Your appointment with Dr. %s has been rescheduled to %s at %s.", doctorName, newDate, newTime),
+            "APPOINTMENT_RESCHEDULED_BY_DOCTOR");
     }
 
     /**
@@ -192,7 +163,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         OffsetDateTime dayEnd = dayStart.plusDays(1);
 
         // Get doctor name for notifications
-        String doctorName = doctorRepo.findById(doctorId)
+        String doctorName = catalogCache.findDoctor(doctorId)
             .map(DoctorDetails::getFullName)
             .orElse("Doctor");
 
@@ -202,6 +173,7 @@ public class AppointmentServiceImpl implements AppointmentService {
             a.setStatus("CANCELLED");
             a.setUpdatedAt(OffsetDateTime.now(ZoneOffset.UTC));
             appointmentRepo.save(a);
+            slotIndex.onReleased(a);
             ids.add(a.getId());
             
             // Send FCM notification to the user
@@ -210,68 +182,20 @@ public class AppointmentServiceImpl implements AppointmentService {
                 a.getSlot() != null ? a.getSlot() : "scheduled time",
                 req.getReason());
         }
+        metrics.appointmentsCancelled(AppMetrics.CANCELLED_DOCTOR_DAY, ids.size());
         return ids;
     }
     
     /**
-     * Helper method to send FCM notification for cancelled appointments
+     * Helper method to queue the push notification for cancelled appointments
      */
     private void sendCancelNotification(Long userId, String doctorName, String date, String time, String reason) {
-        try {
-            Optional<UserDetails> userOpt = userRepo.findById(userId);
-            if (userOpt.isPresent()) {
-                UserDetails user = userOpt.get();
-                if (user.getNotificationsEnabled() != null && user.getNotificationsEnabled()
-                    && user.getFcmToken() != null && !user.getFcmToken().trim().isEmpty()) {
-                    
-                    NotificationRequestDto request = new NotificationRequestDto();
-                    request.setDeviceToken(user.getFcmToken());
-                    request.setTitle("Appointment Cancelled ❌");
-                    request.setBody(String.format("Your appointment with Dr. %s on %s at %s has been cancelled.%s",
-                        doctorName, date, time,
-                        reason != null ? " Reason: " + reason : ""));
-                    
-                    // Add platform-specific configuration
-                    if ("android".equalsIgnoreCase(user.getDeviceType())) {
-                        AndroidConfigDto androidConfig = new AndroidConfigDto();
-                        androidConfig.setChannelId("appointment_updates");
-                        androidConfig.setPriority("high");
-                        androidConfig.setSound("default");
-                        request.setAndroidConfig(androidConfig);
-                    } else if ("ios".equalsIgnoreCase(user.getDeviceType())) {
-                        IOSConfigDto iosConfig = new IOSConfigDto();
-                        iosConfig.setSound("default");
-                        iosConfig.setBadge(1);
-                        iosConfig.setContentAvailable(true);
-                        request.setIosConfig(iosConfig);
-                    }
-                    
-                    // Add data payload
-                    Map<String, String> data = new HashMap<>();
-                    data.put("type", "APPOINTMENT_CANCELLED_BY_DOCTOR");
-                    data.put("userId", userId.toString());
-                    data.put("timestamp", String.valueOf(System.currentTimeMillis()));
-                    request.setData(data);
-                    
-                    NotificationResponseDto response = notificationService.sendNotificationToDevice(request);
-                    if (response.isSuccess()) {
-                        System.out.println("[NOTIFICATION] Sent cancel notification to user " + userId);
-                    } else {
-                        System.out.println("[NOTIFICATION] Failed to send cancel notification to user " + userId + ": " + response.getErrorMessage());
-                        // Clear invalid token if UNREGISTERED
-                        String errorMsg = response.getErrorMessage() != null ? response.getErrorMessage().toLowerCase() : "";
-                        if (errorMsg.contains("unregistered") || errorMsg.contains("not found") || errorMsg.contains("invalid")) {
-                            user.setFcmToken(null);
-                            user.setDeviceType(null);
-                            userRepo.save(user);
-                            System.out.println("[NOTIFICATION] Cleared invalid FCM token for user " + userId);
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("[NOTIFICATION] Failed to send cancel notification to user " + userId + ": " + e.getMessage());
-        }
+        notificationOutboxService.enqueue(userId,
+            "Appointment Cancelled ❌",
+            String.format("Your appointment with Dr. %s on %s at %s has been cancelled.%s",
+                doctorName, date, time,
+                reason != null ? " Reason: " + reason : ""),
+            "APPOINTMENT_CANCELLED_BY_DOCTOR");
     }
 
     /**
@@ -280,13 +204,14 @@ public class AppointmentServiceImpl implements AppointmentService {
      * - If requestedTime provided but collides -> append to end of day
      * - If no requestedTime -> append to end of day
      *
-     * concurrency safe: we lock doctor's appointments for that day while computing the slot (pessimistic).
+     * concurrency safe: the doctor's day lock (BookingGuard) is held while computing the slot; the day's
+     * appointment rows themselves are only read, so slot bookings for that day are not blocked.
      */
     @Override
     @Transactional
     public AppointmentDto bookAppointment(Long userId, BookAppointmentRequest req) {
         Long doctorId = req.getDoctorId();
-        if (!doctorRepo.existsById(doctorId)) throw new IllegalArgumentException("Doctor not found");
+        if (catalogCache.findDoctor(doctorId).isEmpty()) throw new IllegalArgumentException("Doctor not found");
         if (!userRepo.existsById(userId)) throw new IllegalArgumentException("User not found");
 
         OffsetDateTime requested = req.getRequestedTime();
@@ -299,8 +224,9 @@ public class AppointmentServiceImpl implements AppointmentService {
 
         OffsetDateTime dayEnd = dayStart.plusDays(1);
 
-        // lock appointments for the day
-        List<Appointment> locked = appointmentRepo.lockAppointmentsForDoctorBetween(doctorId, dayStart, dayEnd);
+        // serialize with other appends for this doctor/day, then read the day
+        bookingGuard.lockDoctorDay(doctorId, dayStart.toLocalDate());
+        List<Appointment> locked = appointmentRepo.findByDoctorIdAndAppointmentTimeBetweenOrderByAppointmentTime(doctorId, dayStart, dayEnd);
 
         // find last end time and last queue position
         OffsetDateTime lastEnd = dayStart;
@@ -352,6 +278,7 @@ public class AppointmentServiceImpl implements AppointmentService {
         a.setUpdatedAt(OffsetDateTime.now(ZoneOffset.UTC));
 
         Appointment saved = appointmentRepo.save(a);
+        metrics.appointmentBooked();
         return toDto(saved);
     }
 
@@ -373,9 +300,9 @@ public class AppointmentServiceImpl implements AppointmentService {
         }
 
         // Validate doctor and user exist
-        DoctorDetails doctor = doctorRepo.findById(req.getDoctorId())
+        DoctorDetails doctor = catalogCache.findDoctor(req.getDoctorId())
                 .orElseThrow(() -> new IllegalArgumentException("Doctor not found"));
-        DoctorWorkplace workspace = workplaceRepo.findById(req.getWorkplaceId())
+        DoctorWorkplace workspace = catalogCache.findWorkplace(req.getWorkplaceId())
                 .orElseThrow(() -> new IllegalArgumentException("Workspace not found"));
         
         if (!userRepo.existsById(userId)) {
@@ -385,10 +312,11 @@ public class AppointmentServiceImpl implements AppointmentService {
         // Determine appointment date from requested time
         LocalDate appointmentDate = req.getRequestedTime().toLocalDate();
         LocalDate today = LocalDate.now();
-        String appointmentDateStr = appointmentDate.format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        String appointmentDateStr = SlotCodec.formatDate(appointmentDate);
 
         // Calculate duration based on slot (default 30 minutes if can't parse)
         int durationMinutes = calculateDurationFromSlot(req.getSlot());
+        Appointment booked;
 
         if (appointmentDate.equals(today)) {
             // Book in current appointments table
@@ -407,7 +335,6 @@ public class AppointmentServiceImpl implements AppointmentService {
             appointment.setStatus("BOOKED");
             appointment.setNotes(req.getNotes());
             appointment.setDoctorSpecialization(doctor.getSpecialization());
-            appointment.setQueuePosition(getNextQueuePosition(req.getDoctorId(), req.getWorkplaceId(), appointmentDateStr));
             appointment.setCreatedAt(OffsetDateTime.now());
             appointment.setUpdatedAt(OffsetDateTime.now());
             // family member info
@@ -421,7 +348,8 @@ public class AppointmentServiceImpl implements AppointmentService {
                 try { com.app.auth.entity.UserDetails u = userRepo.findById(userId).orElse(null); if (u != null) appointment.setPatientName(u.getFullName()); } catch (Exception ignored) {}
             }
 
-            appointmentRepo.save(appointment);
+            booked = bookingGuard.insert(appointment);
+            slotIndex.onBooked(booked);
             
         } else {
             // Book in future appointments: persist into appointments table instead of separate future table
@@ -440,7 +368,6 @@ public class AppointmentServiceImpl implements AppointmentService {
             futureAppt.setDurationMinutes(durationMinutes);
             futureAppt.setStatus("BOOKED");
             futureAppt.setNotes(req.getNotes());
-            futureAppt.setQueuePosition(getNextQueuePositionFuture(req.getDoctorId(), req.getWorkplaceId(), appointmentDateStr));
             futureAppt.setCreatedAt(OffsetDateTime.now());
             futureAppt.setPatientMemberId(req.getFamilyMemberId());
             if (req.getFamilyMemberId() != null) {
@@ -452,8 +379,11 @@ public class AppointmentServiceImpl implements AppointmentService {
                 try { com.app.auth.entity.UserDetails u = userRepo.findById(userId).orElse(null); if (u != null) futureAppt.setPatientName(u.getFullName()); } catch (Exception ignored) {}
             }
 
-            appointmentRepo.save(futureAppt);
+            booked = bookingGuard.insert(futureAppt);
+            slotIndex.onBooked(booked);
         }
+        metrics.appointmentBooked();
+        bookingGuard.assignQueuePosition(booked);
 
         // Return simple success response
         String workplaceName = workspace.getWorkplaceName();
@@ -461,36 +391,9 @@ public class AppointmentServiceImpl implements AppointmentService {
     }
 
     private int calculateDurationFromSlot(String slot) {
-        try {
-            // Parse slot like "02:30PM - 02:50PM"
-            String[] parts = slot.split(" - ");
-            if (parts.length == 2) {
-                String startStr = parts[0].trim();
-                String endStr = parts[1].trim();
-                
-                java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("h:mma");
-                LocalTime startTime = LocalTime.parse(startStr, formatter);
-                LocalTime endTime = LocalTime.parse(endStr, formatter);
-                
-                return (int) java.time.Duration.between(startTime, endTime).toMinutes();
-            }
-        } catch (Exception e) {
-            // If parsing fails, return default
-        }
-        return 30; // Default 30 minutes
-    }
-
-    private int getNextQueuePosition(Long doctorId, Long workspaceId, String appointmentDate) {
-        // Count existing appointments for the doctor on this date at this workspace
-        // Using a custom query since Appointment uses workplace relationship
-        long count = appointmentRepo.countByDoctorIdAndAppointmentDate(doctorId, appointmentDate);
-        return (int) count + 1;
-    }
-
-    private int getNextQueuePositionFuture(Long doctorId, Long workspaceId, String appointmentDate) {
-        // Use appointments table counting for future dates as well
-        long count = appointmentRepo.countByDoctorIdAndWorkplaceIdAndAppointmentDate(doctorId, workspaceId, appointmentDate);
-        return (int) count + 1;
+        // Slot like "02:30PM - 02:50PM"; default 30 minutes if it can't be parsed
+        SlotCodec.Slot parsed = SlotCodec.parse(slot, 30);
+        return parsed != null ? parsed.durationMinutes() : 30;
     }
 
     @Override
@@ -504,15 +407,24 @@ public class AppointmentServiceImpl implements AppointmentService {
         ap.setStatus("CANCELLED");
         ap.setUpdatedAt(OffsetDateTime.now(ZoneOffset.UTC));
         appointmentRepo.save(ap);
+        slotIndex.onReleased(ap);
+        metrics.appointmentsCancelled(AppMetrics.CANCELLED_BY_USER, 1);
         return toDto(ap);
     }
 
     @Override
     @Transactional
     public AppointmentDto pushToEnd(Long userId, Long appointmentId, String reason) {
+        // day lock before the row lock, the same order rescheduleDoctorAppointments uses
+        AppointmentRepository.DoctorTime current = appointmentRepo.findDoctorTimeById(appointmentId)
+                .orElseThrow(() -> new IllegalArgumentException("Appointment not found"));
+        bookingGuard.lockDoctorDay(current.getDoctorId(), current.getAppointmentTime().toLocalDate());
         Optional<Appointment> opt = appointmentRepo.lockById(appointmentId);
         if (opt.isEmpty()) throw new IllegalArgumentException("Appointment not found");
         Appointment ap = opt.get();
+        if (!ap.getAppointmentTime().isEqual(current.getAppointmentTime())) {
+            throw new IllegalArgumentException("Appointment was rescheduled, please retry");
+        }
         if (!ap.getUserId().equals(userId)) throw new IllegalArgumentException("Not your appointment");
         if (!"BOOKED".equals(ap.getStatus())) throw new IllegalArgumentException("Cannot push, status=" + ap.getStatus());
 
@@ -521,8 +433,8 @@ public class AppointmentServiceImpl implements AppointmentService {
         OffsetDateTime dayStart = OffsetDateTime.of(day, LocalTime.MIDNIGHT, ZoneOffset.UTC);
         OffsetDateTime dayEnd = dayStart.plusDays(1);
 
-        // lock all appointments for the day
-        List<Appointment> locked = appointmentRepo.lockAppointmentsForDoctorBetween(ap.getDoctorId(), dayStart, dayEnd);
+        // the day lock is held, a plain read is enough
+        List<Appointment> locked = appointmentRepo.findByDoctorIdAndAppointmentTimeBetweenOrderByAppointmentTime(ap.getDoctorId(), dayStart, dayEnd);
 
         // compute last end time and last queue position
         OffsetDateTime lastEnd = dayStart;
@@ -544,10 +456,17 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     public List<AppointmentDto> getUserAppointments(Long userId) {
-        List<Appointment> list = appointmentRepo.findByUserIdOrderByAppointmentTimeDesc(userId);
+        List<Appointment> list = appointmentRepo.findUserPageNewestFirst(userId, Pageable.unpaged());
         return list.stream().map(this::toDto).collect(Collectors.toList());
     }
 
+    @Override
+    public UserAppointmentTimeline.Page<AppointmentDto> getUserAppointments(Long userId, String cursor, Integer limit) {
+        UserAppointmentTimeline.Page<Appointment> page = userTimeline.liveNewestFirst(userId, cursor, limit);
+        return new UserAppointmentTimeline.Page<>(page.items().stream().map(this::toDto).collect(Collectors.toList()),
+                page.nextCursor());
+    }
+
     @Override
     public Map<String, List<AppointmentSegregatedDto>> getDoctorAppointmentsSegregated(Long doctorId, OffsetDateTime from, OffsetDateTime to) {
         Map<String, List<AppointmentSegregatedDto>> result = new HashMap<>();
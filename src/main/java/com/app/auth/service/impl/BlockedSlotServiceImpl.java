@@ -5,22 +5,22 @@ import com.app.auth.dto.BlockSlotRequest;
 import com.app.auth.entity.Appointment;
 import com.app.auth.entity.BlockedSlot;
 import com.app.auth.entity.DoctorWorkplace;
-import com.app.auth.entity.UserDetails;
-import com.app.auth.repository.AppointmentRepository;
 import com.app.auth.repository.BlockedSlotRepository;
-import com.app.auth.repository.DoctorWorkplaceRepository;
-import com.app.auth.repository.UserDetailsRepository;
+import com.app.auth.service.AccessLog;
+import com.app.auth.service.AppMetrics;
+import com.app.auth.service.AppointmentStatusTransitions;
 import com.app.auth.service.BlockedSlotService;
-import com.app.auth.service.NotificationService;
+import com.app.auth.service.DoctorCatalogCache;
+import com.app.auth.service.NotificationOutboxService;
+import com.app.auth.service.SlotAvailabilityIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -28,24 +28,32 @@ import java.util.stream.Collectors;
 @Transactional
 public class BlockedSlotServiceImpl implements BlockedSlotService {
 
+    private static final Logger logger = LoggerFactory.getLogger(BlockedSlotServiceImpl.class);
+
     private final BlockedSlotRepository blockedSlotRepository;
-    private final DoctorWorkplaceRepository workplaceRepository;
-    private final AppointmentRepository appointmentRepository;
-    private final UserDetailsRepository userDetailsRepository;
-    private final NotificationService notificationService;
+    private final DoctorCatalogCache catalogCache;
+    private final AppointmentStatusTransitions statusTransitions;
+    private final NotificationOutboxService notificationOutboxService;
+    private final SlotAvailabilityIndex slotIndex;
+    private final AppMetrics metrics;
+    private final AccessLog accessLog;
     
     private int lastCancelledCount = 0;
 
     public BlockedSlotServiceImpl(BlockedSlotRepository blockedSlotRepository, 
-                                  DoctorWorkplaceRepository workplaceRepository,
-                                  AppointmentRepository appointmentRepository,
-                                  UserDetailsRepository userDetailsRepository,
-                                  NotificationService notificationService) {
+                                  DoctorCatalogCache catalogCache,
+                                  AppointmentStatusTransitions statusTransitions,
+                                  NotificationOutboxService notificationOutboxService,
+                                  SlotAvailabilityIndex slotIndex,
+                                  AppMetrics metrics,
+                                  AccessLog accessLog) {
         this.blockedSlotRepository = blockedSlotRepository;
-        this.workplaceRepository = workplaceRepository;
-        this.appointmentRepository = appointmentRepository;
-        this.userDetailsRepository = userDetailsRepository;
-        this.notificationService = notificationService;
+        this.catalogCache = catalogCache;
+        this.statusTransitions = statusTransitions;
+        this.notificationOutboxService = notificationOutboxService;
+        this.slotIndex = slotIndex;
+        this.metrics = metrics;
+        this.accessLog = accessLog;
     }
     
     public int getLastCancelledCount() {
@@ -86,10 +94,10 @@ public class BlockedSlotServiceImpl implements BlockedSlotService {
         );
         
         BlockedSlot saved = blockedSlotRepository.save(blockedSlot);
-        System.out.println("[BlockedSlotService] Created blocked slot: " + saved.getId() + 
-                          " for doctor " + doctorId + " on " + blockDate + 
-                          (isFullDay ? " (full day)" : " from " + startTime + " to " + endTime) +
-                          ". Cancelled " + lastCancelledCount + " appointments.");
+        slotIndex.onBlocked(saved);
+        accessLog.debug(logger, "Created blocked slot: {} for doctor {} on {} {}. Cancelled {} appointments.",
+                saved.getId(), doctorId, blockDate,
+                isFullDay ? "(full day)" : "from " + startTime + " to " + endTime, lastCancelledCount);
         
         return convertToDto(saved);
     }
@@ -100,68 +108,23 @@ public class BlockedSlotServiceImpl implements BlockedSlotService {
     private int cancelAppointmentsInBlockedTime(Long doctorId, Long workplaceId, LocalDate date, 
                                                  LocalTime startTime, LocalTime endTime, 
                                                  Boolean isFullDay, String reason) {
-        String dateStr = date.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        List<Appointment> appointmentsToCancel = new ArrayList<>();
-        
-        if (workplaceId != null) {
-            // Get appointments for specific workplace on this date
-            List<Appointment> appointments = appointmentRepository.findByDoctorIdAndWorkplaceIdAndAppointmentDate(
-                doctorId, workplaceId, dateStr);
-            appointmentsToCancel.addAll(appointments);
-        } else {
-            // Get all appointments for doctor on this date (all workplaces)
-            List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentDateOrderByAppointmentTimeAsc(
-                doctorId, dateStr);
-            appointmentsToCancel.addAll(appointments);
-        }
-        
-        int cancelledCount = 0;
-        List<Long> cancelledUserIds = new ArrayList<>();
-        List<Appointment> cancelledAppointments = new ArrayList<>();
-        
-        for (Appointment appointment : appointmentsToCancel) {
-            // Skip already cancelled appointments
-            if ("CANCELLED".equals(appointment.getStatus()) || "COMPLETED".equals(appointment.getStatus())) {
-                continue;
-            }
-            
-            boolean shouldCancel = false;
-            
-            if (isFullDay) {
-                // Full day block - cancel all appointments
-                shouldCancel = true;
-            } else if (startTime != null && endTime != null && appointment.getSlot() != null) {
-                // Time range block - check if appointment falls within blocked time
-                try {
-                    LocalTime appointmentTime = parseSlotTime(appointment.getSlot());
-                    if (appointmentTime != null) {
-                        // Check if appointment time is within blocked range
-                        shouldCancel = !appointmentTime.isBefore(startTime) && appointmentTime.isBefore(endTime);
-                    }
-                } catch (Exception e) {
-                    System.out.println("[BlockedSlotService] Error parsing slot time: " + appointment.getSlot());
-                }
-            }
-            
-            if (shouldCancel) {
-                appointment.setStatus("CANCELLED");
-                appointmentRepository.save(appointment);
-                cancelledCount++;
-                cancelledUserIds.add(appointment.getUserId());
-                cancelledAppointments.add(appointment);
-            }
-        }
+        // One UPDATE ... RETURNING over the typed day / slot start columns; already cancelled / completed
+        // appointments are left alone. Full day blocks pass no time range.
+        List<Appointment> cancelledAppointments = statusTransitions.cancelForBlock(
+                doctorId, workplaceId, date, isFullDay ? null : startTime, isFullDay ? null : endTime);
+        int cancelledCount = cancelledAppointments.size();
         
         // Send notifications to all affected users in batch
         if (!cancelledAppointments.isEmpty()) {
             try {
                 sendBatchCancellationNotifications(cancelledAppointments, reason);
             } catch (Exception e) {
-                System.out.println("[BlockedSlotService] Error sending batch notifications: " + e.getMessage());
+                logger.warn("Error sending batch notifications: {}", e.getMessage());
             }
         }
         
-        System.out.println("[BlockedSlotService] Cancelled " + cancelledCount + " appointments for blocked time");
+        metrics.appointmentsCancelled(AppMetrics.CANCELLED_BLOCKED_SLOT, cancelledCount);
+        accessLog.debug(logger, "Cancelled {} appointments for blocked time", cancelledCount);
         return cancelledCount;
     }
     
@@ -169,66 +132,21 @@ public class BlockedSlotServiceImpl implements BlockedSlotService {
      * Send notifications to multiple users about cancellation
      */
     private void sendBatchCancellationNotifications(List<Appointment> cancelledAppointments, String reason) {
-        // Collect device tokens and prepare notifications
-        List<String> deviceTokens = new ArrayList<>();
+        List<Long> userIds = cancelledAppointments.stream()
+                .map(Appointment::getUserId)
+                .collect(Collectors.toList());
         
-        for (Appointment appointment : cancelledAppointments) {
-            try {
-                Optional<UserDetails> userOpt = userDetailsRepository.findById(appointment.getUserId());
-                if (userOpt.isPresent()) {
-                    UserDetails user = userOpt.get();
-                    String fcmToken = user.getFcmToken();
-                    
-                    if (fcmToken != null && !fcmToken.isEmpty()) {
-                        deviceTokens.add(fcmToken);
-                    }
-                }
-            } catch (Exception e) {
-                System.out.println("[BlockedSlotService] Error getting user token for userId " + 
-                                  appointment.getUserId() + ": " + e.getMessage());
-            }
-        }
+        String title = "Appointment Cancelled by Doctor";
+        String body = String.format(
+            "Your appointment has been cancelled by the doctor.\n\nReason: %s\n\nPlease reschedule at your convenience.",
+            reason != null ? reason : "Doctor unavailable"
+        );
         
-        if (!deviceTokens.isEmpty()) {
-            String title = "Appointment Cancelled by Doctor";
-            String body = String.format(
-                "Your appointment has been cancelled by the doctor.\n\nReason: %s\n\nPlease reschedule at your convenience.",
-                reason != null ? reason : "Doctor unavailable"
-            );
-            
-            try {
-                String[] tokenArray = deviceTokens.toArray(new String[0]);
-                notificationService.sendNotificationToMultipleDevices(tokenArray, title, body);
-                System.out.println("[BlockedSlotService] Sent cancellation notifications to " + 
-                                  deviceTokens.size() + " users");
-            } catch (Exception e) {
-                System.out.println("[BlockedSlotService] Failed to send batch notifications: " + e.getMessage());
-            }
-        }
+        // Queued in this transaction, delivered by the outbox dispatcher after commit
+        notificationOutboxService.enqueueForUsers(userIds, title, body, "APPOINTMENT_CANCELLED_BY_DOCTOR");
+        accessLog.debug(logger, "Queued cancellation notifications for {} appointments", userIds.size());
     }
     
-    /**
-     * Parse slot time string like "9:00AM - 9:30AM" to get start time
-     */
-    private LocalTime parseSlotTime(String slot) {
-        try {
-            String[] parts = slot.split(" - ");
-            if (parts.length >= 1) {
-                String timeStr = parts[0].trim().toUpperCase();
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("h:mma", Locale.ENGLISH);
-                return LocalTime.parse(timeStr, formatter);
-            }
-        } catch (Exception e) {
-            // Try alternate format
-            try {
-                return LocalTime.parse(slot.split(" ")[0]);
-            } catch (Exception ex) {
-                // Ignore
-            }
-        }
-        return null;
-    }
-
     @Override
     public List<BlockedSlotDto> getBlockedSlotsByDoctor(Long doctorId) {
         List<BlockedSlot> blockedSlots = blockedSlotRepository.findAllActiveBlocksByDoctor(doctorId);
@@ -278,7 +196,8 @@ public class BlockedSlotServiceImpl implements BlockedSlotService {
             BlockedSlot blockedSlot = blockedSlotOpt.get();
             blockedSlot.setIsActive(false);
             blockedSlotRepository.save(blockedSlot);
-            System.out.println("[BlockedSlotService] Deactivated blocked slot: " + blockedSlotId);
+            slotIndex.evictDoctorDate(blockedSlot.getDoctorId(), blockedSlot.getBlockDate());
+            accessLog.debug(logger, "Deactivated blocked slot: {}", blockedSlotId);
         }
     }
 
@@ -305,7 +224,7 @@ public class BlockedSlotServiceImpl implements BlockedSlotService {
         
         // Get workplace name if workplaceId is set
         if (blockedSlot.getWorkplaceId() != null) {
-            Optional<DoctorWorkplace> workplace = workplaceRepository.findById(blockedSlot.getWorkplaceId());
+            Optional<DoctorWorkplace> workplace = catalogCache.findWorkplace(blockedSlot.getWorkplaceId());
             workplace.ifPresent(w -> dto.setWorkplaceName(w.getWorkplaceName()));
         } else {
             dto.setWorkplaceName("All Workplaces");
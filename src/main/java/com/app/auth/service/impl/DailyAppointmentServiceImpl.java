@@ -1,24 +1,30 @@
 package com.app.auth.service.impl;
 
 import com.app.auth.dto.DailyAppointmentStatusDto;
-import com.app.auth.entity.Appointment;
-import com.app.auth.repository.AppointmentRepository;
+import com.app.auth.service.AppointmentStatusRollup;
+import com.app.auth.service.AppointmentStatusTransitions;
 import com.app.auth.service.DailyAppointmentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
-import java.util.List;
 
 @Service
 public class DailyAppointmentServiceImpl implements DailyAppointmentService {
 
-    private final AppointmentRepository appointmentRepository;
+    private static final Logger logger = LoggerFactory.getLogger(DailyAppointmentServiceImpl.class);
 
-    public DailyAppointmentServiceImpl(AppointmentRepository appointmentRepository) {
-        this.appointmentRepository = appointmentRepository;
+    private final AppointmentStatusRollup statusRollup;
+    private final AppointmentStatusTransitions statusTransitions;
+
+    public DailyAppointmentServiceImpl(AppointmentStatusRollup statusRollup,
+                                       AppointmentStatusTransitions statusTransitions) {
+        this.statusRollup = statusRollup;
+        this.statusTransitions = statusTransitions;
     }
 
     @Override
@@ -28,18 +34,8 @@ public class DailyAppointmentServiceImpl implements DailyAppointmentService {
 
     @Override
     public DailyAppointmentStatusDto getAppointmentStatusForDate(LocalDate date) {
-        OffsetDateTime dayStart = OffsetDateTime.of(date, java.time.LocalTime.MIDNIGHT, ZoneOffset.UTC);
-        OffsetDateTime dayEnd = dayStart.plusDays(1);
-
-        List<Appointment> appointments = appointmentRepository.findByAppointmentTimeBetween(dayStart, dayEnd);
-        
-        long totalCount = appointments.size();
-        long completedCount = appointments.stream().filter(a -> "COMPLETED".equals(a.getStatus())).count();
-        long cancelledCount = appointments.stream().filter(a -> "CANCELLED".equals(a.getStatus())).count();
-        long bookedCount = appointments.stream().filter(a -> "BOOKED".equals(a.getStatus())).count();
-        long pendingCount = appointments.stream().filter(a -> "BOOKED".equals(a.getStatus()) || "RESCHEDULED".equals(a.getStatus())).count();
-
-        return new DailyAppointmentStatusDto(date, totalCount, completedCount, cancelledCount, pendingCount, bookedCount);
+        // GROUP BY status counts, cached per day (see AppointmentStatusRollup)
+        return statusRollup.forDay(date);
     }
 
     @Override
@@ -49,19 +45,10 @@ public class DailyAppointmentServiceImpl implements DailyAppointmentService {
         OffsetDateTime dayStart = OffsetDateTime.of(yesterday, java.time.LocalTime.MIDNIGHT, ZoneOffset.UTC);
         OffsetDateTime dayEnd = dayStart.plusDays(1);
 
-        List<Appointment> pendingAppointments = appointmentRepository.findPendingAppointmentsBetween(dayStart, dayEnd);
-        
-        int updatedCount = 0;
-        for (Appointment appointment : pendingAppointments) {
-            if ("BOOKED".equals(appointment.getStatus()) || "RESCHEDULED".equals(appointment.getStatus())) {
-                appointment.setStatus("COMPLETED");
-                appointment.setUpdatedAt(OffsetDateTime.now());
-                appointmentRepository.save(appointment);
-                updatedCount++;
-            }
-        }
+        // One UPDATE ... WHERE status IN ('BOOKED', 'RESCHEDULED') instead of saving each appointment
+        int updatedCount = statusTransitions.completePending(dayStart, dayEnd).size();
 
-        System.out.println("[DEBUG] Marked " + updatedCount + " appointments as COMPLETED for date: " + yesterday);
+        logger.debug("Marked {} appointments as COMPLETED for date: {}", updatedCount, yesterday);
         return updatedCount;
     }
 
@@ -72,17 +59,6 @@ public class DailyAppointmentServiceImpl implements DailyAppointmentService {
 
     @Override
     public DailyAppointmentStatusDto getDoctorAppointmentStatusForDate(Long doctorId, LocalDate date) {
-        OffsetDateTime dayStart = OffsetDateTime.of(date, java.time.LocalTime.MIDNIGHT, ZoneOffset.UTC);
-        OffsetDateTime dayEnd = dayStart.plusDays(1);
-
-        List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentTimeBetweenOrderByAppointmentTime(doctorId, dayStart, dayEnd);
-        
-        long totalCount = appointments.size();
-        long completedCount = appointments.stream().filter(a -> "COMPLETED".equals(a.getStatus())).count();
-        long cancelledCount = appointments.stream().filter(a -> "CANCELLED".equals(a.getStatus())).count();
-        long bookedCount = appointments.stream().filter(a -> "BOOKED".equals(a.getStatus())).count();
-        long pendingCount = appointments.stream().filter(a -> "BOOKED".equals(a.getStatus()) || "RESCHEDULED".equals(a.getStatus())).count();
-
-        return new DailyAppointmentStatusDto(date, totalCount, completedCount, cancelledCount, pendingCount, bookedCount);
+        return statusRollup.forDoctorDay(doctorId, date);
     }
 }
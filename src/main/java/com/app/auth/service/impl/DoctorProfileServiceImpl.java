@@ -5,7 +5,10 @@ import com.app.auth.entity.DoctorDetails;
 import com.app.auth.entity.DoctorWorkplace;
 import com.app.auth.repository.DoctorDetailsRepository;
 import com.app.auth.repository.DoctorWorkplaceRepository;
+import com.app.auth.service.DoctorCatalogCache;
 import com.app.auth.service.DoctorProfileService;
+import com.app.auth.service.DoctorSearchEngine;
+import com.app.auth.service.SlotAvailabilityIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +26,15 @@ public class DoctorProfileServiceImpl implements DoctorProfileService {
     @Autowired
     private DoctorWorkplaceRepository doctorWorkplaceRepository;
 
+    @Autowired
+    private SlotAvailabilityIndex slotIndex;
+
+    @Autowired
+    private DoctorSearchEngine searchEngine;
+
+    @Autowired
+    private DoctorCatalogCache catalogCache;
+
     @Override
     public DoctorProfileUpdateResponse updateDoctorProfile(DoctorDetails doctor, DoctorProfileUpdateDto updateRequest) {
         int fieldsUpdated = 0;
@@ -39,6 +51,15 @@ public class DoctorProfileServiceImpl implements DoctorProfileService {
         // Save the updated doctor profile
         doctorDetailsRepository.save(doctor);
 
+        // Name or timings may have changed, drop cached slot layouts and catalog rows
+        catalogCache.evictDoctor(doctor.getId());
+        slotIndex.evictDoctor(doctor.getId());
+
+        // Re-index name, specialization and workplaces for search
+        if (searchEngine.isReady()) {
+            searchEngine.onDoctorChanged(doctor, doctorWorkplaceRepository.findByDoctorId(doctor.getId()));
+        }
+
         return new DoctorProfileUpdateResponse(
             "Doctor profile updated successfully",
             fieldsUpdated,
@@ -7,8 +7,14 @@ import com.app.auth.entity.DoctorDetails;
 import com.app.auth.entity.DoctorWorkplace;
 import com.app.auth.repository.DoctorRepository;
 import com.app.auth.repository.DoctorWorkplaceRepository;
+import com.app.auth.service.AccessLog;
+import com.app.auth.service.DoctorCatalogCache;
+import com.app.auth.service.DoctorSearchEngine;
 import com.app.auth.service.DoctorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -21,31 +27,31 @@ import java.util.stream.Collectors;
 @Service
 public class DoctorServiceImpl implements DoctorService {
 
+    private static final Logger logger = LoggerFactory.getLogger(DoctorServiceImpl.class);
+
     private final DoctorRepository doctorRepository;
     private final DoctorWorkplaceRepository workplaceRepository;
+    private final DoctorSearchEngine searchEngine;
+    private final DoctorCatalogCache catalogCache;
+    private final AccessLog accessLog;
 
-    public DoctorServiceImpl(DoctorRepository doctorRepository, DoctorWorkplaceRepository workplaceRepository) {
+    public DoctorServiceImpl(DoctorRepository doctorRepository, DoctorWorkplaceRepository workplaceRepository,
+                             DoctorSearchEngine searchEngine, DoctorCatalogCache catalogCache,
+                             AccessLog accessLog) {
         this.doctorRepository = doctorRepository;
         this.workplaceRepository = workplaceRepository;
+        this.searchEngine = searchEngine;
+        this.catalogCache = catalogCache;
+        this.accessLog = accessLog;
     }
 
     @Override
     public List<DoctorSearchDto> searchDoctors(String keyword) {
-        System.out.println("[DEBUG] Searching for keyword: '" + keyword + "'");
-        
-        // First, let's try to get all doctors to see if there's data
-        List<DoctorDetails> allDoctors = doctorRepository.findAllDoctors();
-        System.out.println("[DEBUG] Total doctors in database: " + allDoctors.size());
-        
-        if (!allDoctors.isEmpty()) {
-            System.out.println("[DEBUG] Sample doctor names:");
-            allDoctors.stream().limit(5).forEach(d -> 
-                System.out.println("  - ID: " + d.getId() + ", Name: '" + d.getFullName() + "'")
-            );
-        }
+        accessLog.debug(logger, "Searching for keyword: '{}'", keyword);
         
-        List<DoctorDetails> doctors = doctorRepository.searchDoctors(keyword);
-        System.out.println("[DEBUG] Search results count: " + doctors.size());
+        SearchTerms terms = SearchTerms.of(keyword);
+        List<DoctorDetails> doctors = doctorRepository.searchDoctors(terms.keyword(), terms.likePattern(), terms.prefixQuery());
+        accessLog.debug(logger, "Search results count: {}", doctors.size());
         
         return doctors.stream().map(d -> {
             DoctorSearchDto dto = new DoctorSearchDto();
@@ -61,79 +67,120 @@ public class DoctorServiceImpl implements DoctorService {
 
     @Override
     public List<DoctorSearchResponseDto> enhancedSearchDoctors(String keyword) {
-        System.out.println("[DEBUG] Enhanced search for keyword: '" + keyword + "'");
-        
-        List<DoctorSearchResponseDto> results = new ArrayList<>();
-        Map<Long, DoctorSearchResponseDto> doctorMap = new HashMap<>();
+        accessLog.debug(logger, "Enhanced search for keyword: '{}'", keyword);
         
-        // Determine search type
-        boolean isNumericId = isNumeric(keyword);
+        // Served from the in-memory engine when it is enabled and loaded, no DB I/O
+        if (searchEngine.isReady()) {
+            List<DoctorSearchEngine.Match> matches = isNumeric(keyword)
+                    ? searchEngine.findDoctor(Long.parseLong(keyword)).map(List::of).orElseGet(() -> searchEngine.search(keyword))
+                    : searchEngine.search(keyword);
+            return matches.stream().map(match -> {
+                DoctorSearchResponseDto dto = createDoctorDto(match.doctor());
+                dto.setWorkplaces(match.workplaces().stream().map(this::createWorkplaceDto).collect(Collectors.toList()));
+                return dto;
+            }).collect(Collectors.toList());
+        }
         
-        // 1. Search by doctor ID or doctor name (return all workspaces)
-        if (isNumericId) {
+        // 1. Search by doctor ID (return all workspaces)
+        if (isNumeric(keyword)) {
             Long doctorId = Long.parseLong(keyword);
-            DoctorDetails doctor = doctorRepository.findByDoctorId(doctorId);
+            DoctorDetails doctor = catalogCache.findDoctor(doctorId).orElse(null);
             if (doctor != null) {
                 DoctorSearchResponseDto dto = createDoctorDto(doctor);
                 dto.setWorkplaces(getAllWorkplacesForDoctor(doctorId));
-                results.add(dto);
-                return results;
+                return new ArrayList<>(List.of(dto));
             }
         }
         
-        // Search by doctor name, specialization, designation, and clinic name (return all workspaces)
-        List<DoctorDetails> doctorsBySearch = doctorRepository.searchDoctors(keyword);
-        System.out.println("[DEBUG] Found " + doctorsBySearch.size() + " doctors by comprehensive search");
-        for (DoctorDetails doctor : doctorsBySearch) {
-            System.out.println("[DEBUG] Doctor found: " + doctor.getFullName() + " - " + doctor.getSpecialization());
-            DoctorSearchResponseDto dto = createDoctorDto(doctor);
-            dto.setWorkplaces(getAllWorkplacesForDoctor(doctor.getId()));
-            doctorMap.put(doctor.getId(), dto);
+        // 2. One ranked query over doctor name/specialization/designation and clinic name/area/pincode
+        List<DoctorSearchResponseDto> results = indexedSearch(keyword, Pageable.unpaged()).getContent();
+        accessLog.debug(logger, "Enhanced search returning {} results", results.size());
+        return results;
+    }
+
+    @Override
+    public PaginatedDoctorResponseDto searchDoctorsPaginated(String keyword, int page, int size) {
+        Page<DoctorSearchResponseDto> resultPage = indexedSearch(keyword, PageRequest.of(page, size));
+        return new PaginatedDoctorResponseDto(
+            resultPage.getContent(),
+            resultPage.getNumber(),
+            resultPage.getTotalPages(),
+            resultPage.getTotalElements(),
+            resultPage.getSize(),
+            resultPage.hasNext(),
+            resultPage.hasPrevious(),
+            resultPage.isFirst(),
+            resultPage.isLast()
+        );
+    }
+    
+    /**
+     * Run the ranked search and assemble DTOs with two extra queries per page (doctors, workplaces).
+     * A doctor whose own fields matched gets all workplaces; a doctor found only through a clinic name or
+     * area gets just the matching workplaces.
+     */
+    private Page<DoctorSearchResponseDto> indexedSearch(String keyword, Pageable pageable) {
+        SearchTerms terms = SearchTerms.of(keyword);
+        Page<DoctorRepository.SearchHit> hits = doctorRepository.searchDoctorsAndWorkplaces(
+                terms.keyword(), terms.likePattern(), terms.prefixQuery(), pageable);
+        if (hits.isEmpty()) {
+            return new PageImpl<>(List.of(), hits.getPageable(), hits.getTotalElements());
         }
         
-        // 2. Search by hospital name (return only matching workspaces)
-        List<DoctorWorkplace> workplacesByName = workplaceRepository.findByWorkplaceNameContaining(keyword);
-        for (DoctorWorkplace workplace : workplacesByName) {
-            DoctorDetails doctor = workplace.getDoctor();
-            DoctorSearchResponseDto dto = doctorMap.computeIfAbsent(doctor.getId(), 
-                k -> createDoctorDto(doctor));
-            
-            if (dto.getWorkplaces() == null) {
-                dto.setWorkplaces(new ArrayList<>());
-            }
-            
-            // Only add this specific workplace, not all workplaces
-            if (!hasWorkplace(dto.getWorkplaces(), workplace.getId())) {
-                dto.getWorkplaces().add(createWorkplaceDto(workplace));
-            }
-        }
+        List<Long> doctorIds = hits.getContent().stream().map(DoctorRepository.SearchHit::getDoctorId).toList();
+        Map<Long, DoctorDetails> doctors = doctorRepository.findAllById(doctorIds).stream()
+                .collect(Collectors.toMap(DoctorDetails::getId, d -> d));
+        Map<Long, List<DoctorWorkplace>> workplacesByDoctor = workplaceRepository.findByDoctorIdIn(doctorIds).stream()
+                .collect(Collectors.groupingBy(w -> w.getDoctor().getId()));
         
-        // 3. Search by area/pincode (return only matching workspaces)
-        List<DoctorWorkplace> workplacesByArea = workplaceRepository.findByAreaOrPincode(keyword);
-        for (DoctorWorkplace workplace : workplacesByArea) {
-            DoctorDetails doctor = workplace.getDoctor();
-            DoctorSearchResponseDto dto = doctorMap.computeIfAbsent(doctor.getId(), 
-                k -> createDoctorDto(doctor));
-            
-            if (dto.getWorkplaces() == null) {
-                dto.setWorkplaces(new ArrayList<>());
+        List<DoctorSearchResponseDto> content = new ArrayList<>(doctorIds.size());
+        for (DoctorRepository.SearchHit hit : hits.getContent()) {
+            DoctorDetails doctor = doctors.get(hit.getDoctorId());
+            if (doctor == null) {
+                continue;
             }
-            
-            // Only add this specific workplace, not all workplaces
-            if (!hasWorkplace(dto.getWorkplaces(), workplace.getId())) {
-                dto.getWorkplaces().add(createWorkplaceDto(workplace));
+            List<DoctorWorkplace> workplaces = workplacesByDoctor.getOrDefault(doctor.getId(), List.of());
+            if (!Boolean.TRUE.equals(hit.getDoctorMatch())) {
+                List<DoctorWorkplace> matching = workplaces.stream()
+                        .filter(w -> workplaceMatches(w, terms.keyword()))
+                        .toList();
+                // Fuzzy-only match: no single workplace contains the keyword, show them all
+                if (!matching.isEmpty()) {
+                    workplaces = matching;
+                }
             }
+            DoctorSearchResponseDto dto = createDoctorDto(doctor);
+            dto.setWorkplaces(workplaces.stream().map(this::createWorkplaceDto).collect(Collectors.toList()));
+            content.add(dto);
         }
-        
-        // If search by area didn't match exactly, try pincode lookup for similar areas
-        if (workplacesByArea.isEmpty() && !isNumericId) {
-            // This would require a service to get pincode from area name
-            // For now, we'll skip this advanced feature
+        return new PageImpl<>(content, hits.getPageable(), hits.getTotalElements());
+    }
+    
+    private static boolean workplaceMatches(DoctorWorkplace workplace, String keyword) {
+        return containsIgnoreCase(workplace.getWorkplaceName(), keyword)
+                || containsIgnoreCase(workplace.getCity(), keyword)
+                || containsIgnoreCase(workplace.getState(), keyword)
+                || keyword.equals(workplace.getPincode());
+    }
+    
+    private static boolean containsIgnoreCase(String value, String lowerKeyword) {
+        return value != null && value.toLowerCase().contains(lowerKeyword);
+    }
+    
+    /**
+     * Query parameters derived from the raw keyword: lower-cased keyword, escaped LIKE pattern and
+     * a prefix tsquery (every word must start a word in the document).
+     */
+    private record SearchTerms(String keyword, String likePattern, String prefixQuery) {
+        static SearchTerms of(String raw) {
+            String keyword = raw == null ? "" : raw.trim().toLowerCase();
+            String escaped = keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            String prefixQuery = Arrays.stream(keyword.split("[^\\p{L}\\p{N}]+"))
+                    .filter(word -> !word.isEmpty())
+                    .map(word -> word + ":*")
+                    .collect(Collectors.joining(" & "));
+            return new SearchTerms(keyword, "%" + escaped + "%", prefixQuery);
         }
-        
-        List<DoctorSearchResponseDto> finalResults = new ArrayList<>(doctorMap.values());
-        System.out.println("[DEBUG] Enhanced search returning " + finalResults.size() + " results");
-        return finalResults;
     }
     
     private boolean isNumeric(String str) {
@@ -158,7 +205,7 @@ public class DoctorServiceImpl implements DoctorService {
     }
     
     private List<DoctorSearchResponseDto.WorkplaceDto> getAllWorkplacesForDoctor(Long doctorId) {
-        List<DoctorWorkplace> workplaces = workplaceRepository.findByDoctorId(doctorId);
+        List<DoctorWorkplace> workplaces = catalogCache.findWorkplacesByDoctor(doctorId);
         return workplaces.stream()
                 .map(this::createWorkplaceDto)
                 .collect(Collectors.toList());
@@ -229,12 +276,12 @@ public class DoctorServiceImpl implements DoctorService {
 
     @Override
     public PaginatedDoctorResponseDto getAllDoctorsPaginated(int page, int size) {
-        System.out.println("[DEBUG] Getting all doctors paginated - page: " + page + ", size: " + size);
+        accessLog.debug(logger, "Getting all doctors paginated - page: {}, size: {}", page, size);
         
         Pageable pageable = PageRequest.of(page, size);
         Page<DoctorDetails> doctorPage = doctorRepository.findAllDoctorsPaginated(pageable);
         
-        System.out.println("[DEBUG] Found " + doctorPage.getTotalElements() + " total doctors");
+        accessLog.debug(logger, "Found {} total doctors", doctorPage.getTotalElements());
         
         List<DoctorSearchResponseDto> doctors = doctorPage.getContent().stream()
             .map(doctor -> {
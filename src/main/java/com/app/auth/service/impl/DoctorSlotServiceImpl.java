@@ -8,7 +8,10 @@ import com.app.auth.entity.DoctorWorkplace;
 import com.app.auth.repository.DoctorDetailsRepository;
 import com.app.auth.repository.DoctorSlotRepository;
 import com.app.auth.repository.DoctorWorkplaceRepository;
+import com.app.auth.service.AccessLog;
 import com.app.auth.service.DoctorSlotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,26 +25,31 @@ import java.util.stream.Collectors;
 @Service
 public class DoctorSlotServiceImpl implements DoctorSlotService {
 
+    private static final Logger logger = LoggerFactory.getLogger(DoctorSlotServiceImpl.class);
+
     private final DoctorSlotRepository slotRepository;
     private final DoctorDetailsRepository doctorRepository;
     private final DoctorWorkplaceRepository workplaceRepository;
+    private final AccessLog accessLog;
 
     public DoctorSlotServiceImpl(DoctorSlotRepository slotRepository,
                                 DoctorDetailsRepository doctorRepository,
-                                DoctorWorkplaceRepository workplaceRepository) {
+                                DoctorWorkplaceRepository workplaceRepository,
+                                AccessLog accessLog) {
         this.slotRepository = slotRepository;
         this.doctorRepository = doctorRepository;
         this.workplaceRepository = workplaceRepository;
+        this.accessLog = accessLog;
     }
 
     @Override
     @Transactional
     public void generateSlotsForDoctorAndDate(Long doctorId, LocalDate date) {
-        System.out.println("[DEBUG] Generating slots for doctor " + doctorId + " on " + date);
+        accessLog.debug(logger, "Generating slots for doctor {} on {}", doctorId, date);
         
         Optional<DoctorDetails> doctorOpt = doctorRepository.findById(doctorId);
         if (!doctorOpt.isPresent()) {
-            System.out.println("[DEBUG] Doctor not found: " + doctorId);
+            accessLog.debug(logger, "Doctor not found: {}", doctorId);
             return;
         }
 
@@ -49,14 +57,14 @@ public class DoctorSlotServiceImpl implements DoctorSlotService {
         List<DoctorWorkplace> workplaces = workplaceRepository.findByDoctorId(doctorId);
         
         if (workplaces.isEmpty()) {
-            System.out.println("[DEBUG] No workplaces found for doctor: " + doctorId);
+            accessLog.debug(logger, "No workplaces found for doctor: {}", doctorId);
             return;
         }
 
         // Check if slots already exist for this date
         List<DoctorSlot> existingSlots = slotRepository.findSlotsByDoctorAndDate(doctorId, date);
         if (!existingSlots.isEmpty()) {
-            System.out.println("[DEBUG] Slots already exist for doctor " + doctorId + " on " + date);
+            accessLog.debug(logger, "Slots already exist for doctor {} on {}", doctorId, date);
             return;
         }
 
@@ -76,7 +84,7 @@ public class DoctorSlotServiceImpl implements DoctorSlotService {
 //                durationMinutes, "EVENING");
 //        }
 
-        System.out.println("[DEBUG] Slot generation completed for doctor " + doctorId + " on " + date);
+        accessLog.debug(logger, "Slot generation completed for doctor {} on {}", doctorId, date);
     }
 
     private void generateSlotsForSession(Long doctorId, List<DoctorWorkplace> workplaces, 
@@ -141,7 +149,7 @@ public class DoctorSlotServiceImpl implements DoctorSlotService {
             DoctorSlot slot = slotOpt.get();
             slot.setIsAvailable(false);
             slotRepository.save(slot);
-            System.out.println("[DEBUG] Slot " + slotId + " marked as booked");
+            accessLog.debug(logger, "Slot {} marked as booked", slotId);
         }
     }
 
@@ -158,7 +166,7 @@ public class DoctorSlotServiceImpl implements DoctorSlotService {
             }
         }
         
-        System.out.println("[DEBUG] Generated slots for " + doctors.size() + " doctors for " + (daysAhead + 1) + " days");
+        accessLog.debug(logger, "Generated slots for {} doctors for {} days", doctors.size(), daysAhead + 1);
     }
 
     private DoctorSlotDto convertToDto(DoctorSlot slot) {
@@ -1,70 +1,84 @@
 package com.app.auth.service.impl;
 
+import com.app.auth.config.SlotCodec;
 import com.app.auth.dto.*;
 import com.app.auth.entity.*;
 import com.app.auth.repository.*;
-import com.app.auth.service.BlockedSlotService;
+import com.app.auth.service.AccessLog;
 import com.app.auth.service.EnhancedAppointmentService;
-import com.app.auth.service.NotificationService;
+import com.app.auth.service.AppMetrics;
+import com.app.auth.service.AppointmentArchiver;
+import com.app.auth.service.AppointmentStatusTransitions;
+import com.app.auth.service.BookingGuard;
+import com.app.auth.service.DoctorCatalogCache;
+import com.app.auth.service.NotificationOutboxService;
+import com.app.auth.service.SlotAvailabilityIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.Locale;
 
 @Service
 public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EnhancedAppointmentServiceImpl.class);
+
     private final AppointmentRepository appointmentRepository;
     // FutureTwoDayAppointmentRepository kept for safety but not used anymore
     // private final FutureTwoDayAppointmentRepository futureAppointmentRepository;
-    private final PastAppointmentRepository pastAppointmentRepository;
-    private final DoctorDetailsRepository doctorRepository;
-    private final DoctorWorkplaceRepository workplaceRepository;
+    private final DoctorCatalogCache catalogCache;
     private final UserDetailsRepository userRepository;
     private final com.app.auth.repository.FamilyMemberRepository familyMemberRepository;
-    private final NotificationService notificationService;
-    private final BlockedSlotService blockedSlotService;
+    private final NotificationOutboxService notificationOutboxService;
+    private final SlotAvailabilityIndex slotIndex;
+    private final AppointmentArchiver appointmentArchiver;
+    private final AppointmentStatusTransitions statusTransitions;
+    private final BookingGuard bookingGuard;
+    private final AppMetrics metrics;
+    private final AccessLog accessLog;
 
     public EnhancedAppointmentServiceImpl(
             AppointmentRepository appointmentRepository,
             /* FutureTwoDayAppointmentRepository futureAppointmentRepository, */
-            PastAppointmentRepository pastAppointmentRepository,
-            DoctorDetailsRepository doctorRepository,
-            DoctorWorkplaceRepository workplaceRepository,
+            DoctorCatalogCache catalogCache,
             UserDetailsRepository userRepository,
             com.app.auth.repository.FamilyMemberRepository familyMemberRepository,
-            NotificationService notificationService,
-            BlockedSlotService blockedSlotService) {
+            NotificationOutboxService notificationOutboxService,
+            SlotAvailabilityIndex slotIndex,
+            AppointmentArchiver appointmentArchiver,
+            AppointmentStatusTransitions statusTransitions,
+            BookingGuard bookingGuard,
+            AppMetrics metrics,
+            AccessLog accessLog) {
         this.appointmentRepository = appointmentRepository;
     // this.futureAppointmentRepository = futureAppointmentRepository;
-        this.pastAppointmentRepository = pastAppointmentRepository;
-        this.doctorRepository = doctorRepository;
-        this.workplaceRepository = workplaceRepository;
+        this.catalogCache = catalogCache;
         this.userRepository = userRepository;
         this.familyMemberRepository = familyMemberRepository;
-        this.notificationService = notificationService;
-        this.blockedSlotService = blockedSlotService;
+        this.notificationOutboxService = notificationOutboxService;
+        this.slotIndex = slotIndex;
+        this.appointmentArchiver = appointmentArchiver;
+        this.statusTransitions = statusTransitions;
+        this.bookingGuard = bookingGuard;
+        this.metrics = metrics;
+        this.accessLog = accessLog;
     }
 
     @Override
     public UserAppointmentsResponseDto getUserAppointments(Long userId) {
         Map<String, List<UserAppointmentDto>> appointmentsByDate = new LinkedHashMap<>();
         
-        // Get today's date for filtering
-        String today = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        
-        // Get all appointments from appointments table for this user
-        List<Appointment> allCurrentAppointments = appointmentRepository.findByUserIdOrderByAppointmentTimeDesc(userId);
+        // Only today and future, filtered in the query (history is paged via the timeline API)
+        List<Appointment> currentAppointments = appointmentRepository.findByUserIdFromDay(userId, LocalDate.now());
         
-        // Filter to only include appointments from today onwards
-        List<UserAppointmentDto> currentAppointmentDtos = allCurrentAppointments.stream()
-                .filter(appointment -> appointment.getAppointmentDate().compareTo(today) >= 0) // Only today and future
+        List<UserAppointmentDto> currentAppointmentDtos = currentAppointments.stream()
 //                .filter(appointment -> "BOOKED".equals(appointment.getStatus())) // Only booked appointments
                 .map(this::convertToUserAppointmentDto)
                 .collect(Collectors.toList());
@@ -87,234 +101,78 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
 
     @Override
     public AvailableSlotsResponseDto getAvailableSlots(Long doctorId, Long workplaceId, String date) {
-        Map<String, List<String>> slotsByDate = new LinkedHashMap<>();
-        
-        // Get doctor and workplace details
-        Optional<DoctorDetails> doctorOpt = doctorRepository.findById(doctorId);
-        Optional<DoctorWorkplace> workplaceOpt = workplaceRepository.findById(workplaceId);
-        
-        if (!doctorOpt.isPresent() || !workplaceOpt.isPresent()) {
-            throw new IllegalArgumentException("Doctor or workplace not found");
-        }
-        
-        DoctorDetails doctor = doctorOpt.get();
-        DoctorWorkplace workplace = workplaceOpt.get();
-        
-        AvailableSlotsResponseDto response;
+        // Doctor/workplace layout and booked slots come from the in-memory index (no DB round trips when warm)
+        SlotAvailabilityIndex.WorkplaceSchedule schedule = slotIndex.getSchedule(doctorId, workplaceId);
         
+        LocalDate fromDate;
+        LocalDate toDate;
         if (date != null && !date.trim().isEmpty()) {
-            // Generate slots for specific date
+            // Slots for specific date
             try {
-                LocalDate targetDate = LocalDate.parse(date);
-                String dateStr = targetDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-                
-                List<String> availableSlots = generateAvailableSlots(doctor, workplace, dateStr);
-                // Always include the date in response, even if no slots available
-                slotsByDate.put(dateStr, availableSlots);
-                
-                response = new AvailableSlotsResponseDto(slotsByDate, doctorId, workplaceId, workplace.getWorkplaceName(), doctor.getFullName());
-                
-                // Check for blocked slots and add to response
-                addBlockedSlotsInfo(response, doctorId, workplaceId, targetDate, targetDate);
-                
+                fromDate = LocalDate.parse(date);
             } catch (Exception e) {
                 throw new IllegalArgumentException("Invalid date format. Please use yyyy-MM-dd format");
             }
+            toDate = fromDate;
         } else {
-            // Generate slots for current day + next 2 days (3 days total) - existing behavior
-            LocalDate currentDate = LocalDate.now();
-            LocalDate endDate = currentDate.plusDays(2);
-            
-            for (int i = 0; i < 3; i++) {
-                LocalDate targetDate = currentDate.plusDays(i);
-                String dateStr = targetDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-                
-                List<String> availableSlots = generateAvailableSlots(doctor, workplace, dateStr);
-                // Always include the date in response, even if no slots available
-                slotsByDate.put(dateStr, availableSlots);
-            }
-            
-            response = new AvailableSlotsResponseDto(slotsByDate, doctorId, workplaceId, workplace.getWorkplaceName(), doctor.getFullName());
-            
-            // Check for blocked slots and add to response
-            addBlockedSlotsInfo(response, doctorId, workplaceId, currentDate, endDate);
+            // Current day + next 2 days (3 days total) - existing behavior
+            fromDate = LocalDate.now();
+            toDate = fromDate.plusDays(2);
         }
         
+        Map<String, List<String>> slotsByDate = new LinkedHashMap<>();
+        Map<LocalDate, SlotAvailabilityIndex.DayView> days = slotIndex.getDays(schedule, fromDate, toDate);
+        // Always include the date in response, even if no slots available
+        days.forEach((day, view) -> slotsByDate.put(SlotCodec.formatDate(day), view.slots()));
+        
+        AvailableSlotsResponseDto response = new AvailableSlotsResponseDto(slotsByDate, doctorId, workplaceId,
+                schedule.getWorkplaceName(), schedule.getDoctorName());
+        
+        // Add blocked slots information (slots inside blocks are already filtered by the index)
+        days.forEach((day, view) -> addBlockedSlotsInfo(response, day, view.blocks()));
+        
         return response;
     }
     
     /**
-     * Add blocked slots information to response and filter out blocked time slots
+     * Add blocked slots information to response for one date
      */
-    private void addBlockedSlotsInfo(AvailableSlotsResponseDto response, Long doctorId, Long workplaceId, 
-                                     LocalDate fromDate, LocalDate toDate) {
-        // Get all blocked slots for the date range
-        List<BlockedSlotDto> blockedSlots = blockedSlotService.getBlockedSlotsForDateRange(
-            doctorId, workplaceId, fromDate, toDate);
+    private void addBlockedSlotsInfo(AvailableSlotsResponseDto response, LocalDate date,
+                                     List<SlotAvailabilityIndex.BlockWindow> blocks) {
+        String dateStr = SlotCodec.formatDate(date);
         
-        for (BlockedSlotDto blocked : blockedSlots) {
-            String dateStr = blocked.getBlockDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            
-            if (blocked.getIsFullDay()) {
-                // Full day is blocked - clear all slots for this date and add blocked info
-                response.getSlotsByDate().put(dateStr, new ArrayList<>()); // Empty slots
+        for (SlotAvailabilityIndex.BlockWindow blocked : blocks) {
+            if (blocked.fullDay()) {
+                // Full day is blocked
                 response.addBlockedDate(dateStr, new AvailableSlotsResponseDto.BlockedDateInfo(
                     true,
                     true,
-                    blocked.getReason() != null ? blocked.getReason() : "Doctor unavailable for this day",
+                    blocked.reason() != null ? blocked.reason() : "Doctor unavailable for this day",
                     null,
                     null
                 ));
-            } else {
-                // Partial block - filter out slots that fall within blocked time
-                List<String> slots = response.getSlotsByDate().get(dateStr);
-                if (slots != null && blocked.getStartTime() != null && blocked.getEndTime() != null) {
-                    List<String> filteredSlots = filterBlockedTimeSlots(slots, blocked.getStartTime(), blocked.getEndTime());
-                    response.getSlotsByDate().put(dateStr, filteredSlots);
-                    
-                    // Add partial block info
-                    response.addBlockedDate(dateStr, new AvailableSlotsResponseDto.BlockedDateInfo(
-                        true,
-                        false,
-                        blocked.getReason() != null ? blocked.getReason() : "Doctor unavailable during this time",
-                        blocked.getStartTime().format(DateTimeFormatter.ofPattern("h:mma", Locale.ENGLISH)),
-                        blocked.getEndTime().format(DateTimeFormatter.ofPattern("h:mma", Locale.ENGLISH))
-                    ));
-                }
-            }
-        }
-    }
-    
-    /**
-     * Filter out slots that fall within a blocked time range
-     */
-    private List<String> filterBlockedTimeSlots(List<String> slots, LocalTime blockStart, LocalTime blockEnd) {
-        List<String> filtered = new ArrayList<>();
-        
-        for (String slot : slots) {
-            try {
-                // Parse slot time (e.g., "9:00AM - 9:30AM")
-                String[] parts = slot.split(" - ");
-                if (parts.length == 2) {
-                    LocalTime slotStart = parseTime(parts[0].trim());
-                    LocalTime slotEnd = parseTime(parts[1].trim());
-                    
-                    // Check if slot overlaps with blocked time
-                    boolean overlaps = !(slotEnd.isBefore(blockStart) || slotEnd.equals(blockStart) ||
-                                        slotStart.isAfter(blockEnd) || slotStart.equals(blockEnd));
-                    
-                    if (!overlaps) {
-                        filtered.add(slot);
-                    }
-                } else {
-                    filtered.add(slot); // Keep slot if format is unexpected
-                }
-            } catch (Exception e) {
-                filtered.add(slot); // Keep slot if parsing fails
-            }
-        }
-        
-        return filtered;
-    }
-    
-    /**
-     * Parse time string like "9:00AM" or "2:30PM" to LocalTime
-     */
-    private LocalTime parseTime(String timeStr) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("h:mma", Locale.ENGLISH);
-        return LocalTime.parse(timeStr.toUpperCase(), formatter);
-    }
-
-    private List<String> generateAvailableSlots(DoctorDetails doctor, DoctorWorkplace workplace, String date) {
-        List<String> allSlots = new ArrayList<>();
-        
-        // Get checking duration (from workplace first, then doctor, then default)
-        int durationMinutes = workplace.getCheckingDurationMinutes() != null ?
-            workplace.getCheckingDurationMinutes() :
-            (workplace.getCheckingDurationMinutes() != null ? workplace.getCheckingDurationMinutes() : 30);
-        
-        // Generate morning slots
-        if (workplace.getMorningStartTime() != null && workplace.getMorningEndTime() != null) {
-            allSlots.addAll(generateSlotsForPeriod(workplace.getMorningStartTime(), workplace.getMorningEndTime(), durationMinutes));
-        }
-        
-        // Generate evening slots
-        if (workplace.getEveningStartTime() != null && workplace.getEveningEndTime() != null) {
-            allSlots.addAll(generateSlotsForPeriod(workplace.getEveningStartTime(), workplace.getEveningEndTime(), durationMinutes));
-        }
-        
-        // Remove booked slots
-        Set<String> bookedSlots = getBookedSlots(doctor.getId(), workplace.getId(), date);
-        allSlots.removeAll(bookedSlots);
-        
-        // If requested date is today, remove slots that already started (cannot book past slots)
-        String todayStr = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        if (date != null && date.equals(todayStr)) {
-            OffsetDateTime now = OffsetDateTime.now();
-            List<String> filtered = new ArrayList<>();
-            for (String slot : allSlots) {
-                try {
-                    OffsetDateTime slotStart = parseSlotToDateTime(slot, date);
-                    if (!slotStart.isBefore(now)) { // keep slots that start at or after now
-                        filtered.add(slot);
-                    }
-                } catch (Exception e) {
-                    // If parsing fails, skip the slot
-                }
+            } else if (blocked.hasTimeRange()) {
+                // Partial block info
+                response.addBlockedDate(dateStr, new AvailableSlotsResponseDto.BlockedDateInfo(
+                    true,
+                    false,
+                    blocked.reason() != null ? blocked.reason() : "Doctor unavailable during this time",
+                    SlotCodec.formatTime(blocked.startTime()),
+                    SlotCodec.formatTime(blocked.endTime())
+                ));
             }
-            allSlots = filtered;
         }
-
-        return allSlots;
-    }
-
-    private List<String> generateSlotsForPeriod(LocalTime startTime, LocalTime endTime, int durationMinutes) {
-        List<String> slots = new ArrayList<>();
-        LocalTime current = startTime;
-        
-        while (current.plusMinutes(durationMinutes).isBefore(endTime) || current.plusMinutes(durationMinutes).equals(endTime)) {
-            LocalTime slotEnd = current.plusMinutes(durationMinutes);
-            String slot = formatSlot(current, slotEnd);
-            slots.add(slot);
-            current = slotEnd;
-        }
-        
-        return slots;
-    }
-
-    private String formatSlot(LocalTime start, LocalTime end) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("h:mma", Locale.ENGLISH);
-        return start.format(formatter) + " - " + end.format(formatter);
-    }
-
-    private Set<String> getBookedSlots(Long doctorId, Long workplaceId, String date) {
-        Set<String> bookedSlots = new HashSet<>();
-        
-        // Check current day appointments
-        List<Appointment> currentAppointments = appointmentRepository.findByDoctorIdAndWorkplaceIdAndAppointmentDate(doctorId, workplaceId, date);
-        bookedSlots.addAll(currentAppointments.stream()
-                .filter(a -> a.getSlot() != null && !a.getStatus().equals("CANCELLED"))
-                .map(Appointment::getSlot)
-                .collect(Collectors.toSet()));
-        
-    // Appointments table contains both current and future entries; no separate future table lookup needed
-        
-        return bookedSlots;
     }
 
     @Override
     @Transactional
     public UserAppointmentDto bookAppointment(BookAppointmentRequestDto request) {
-        // Validate that slot is available
-        Set<String> bookedSlots = getBookedSlots(request.getDoctorId(), request.getWorkplaceId(), request.getAppointmentDate());
-        if (bookedSlots.contains(request.getSlot())) {
-            throw new IllegalArgumentException("Slot is already booked");
-        }
+        // A taken slot is rejected by the insert itself (BookingGuard), no pre-read of the day
         
         // Get doctor and workplace details
-        DoctorDetails doctor = doctorRepository.findById(request.getDoctorId())
+        DoctorDetails doctor = catalogCache.findDoctor(request.getDoctorId())
                 .orElseThrow(() -> new IllegalArgumentException("Doctor not found"));
-        DoctorWorkplace workplace = workplaceRepository.findById(request.getWorkplaceId())
+        DoctorWorkplace workplace = catalogCache.findWorkplace(request.getWorkplaceId())
                 .orElseThrow(() -> new IllegalArgumentException("Workplace not found"));
         
         LocalDate appointmentDate = LocalDate.parse(request.getAppointmentDate());
@@ -359,9 +217,9 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
         appointment.setNotes(request.getNotes());
         appointment.setDoctorName(doctor.getFullName());
         appointment.setDoctorSpecialization(doctor.getSpecialization());
-        appointment.setQueuePosition(getNextQueuePosition(request.getDoctorId(), request.getWorkplaceId(), request.getAppointmentDate()));
         
-        Appointment saved = appointmentRepository.save(appointment);
+        Appointment saved = bookingGuard.insert(appointment);
+        slotIndex.onBooked(saved);
         
         // Send booking confirmation notification
         sendAppointmentNotification(request.getUserId(),
@@ -371,6 +229,7 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
             "APPOINTMENT_BOOKED"
         );
         
+        bookingGuard.assignQueuePosition(saved);
         return convertToUserAppointmentDto(saved);
     }
 
@@ -404,9 +263,9 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
         appointment.setNotes(request.getNotes());
         appointment.setDoctorName(doctor.getFullName());
         appointment.setDoctorSpecialization(doctor.getSpecialization());
-        appointment.setQueuePosition(getNextQueuePosition(request.getDoctorId(), request.getWorkplaceId(), request.getAppointmentDate()));
 
-        Appointment saved = appointmentRepository.save(appointment);
+        Appointment saved = bookingGuard.insert(appointment);
+        slotIndex.onBooked(saved);
         
         // Send booking confirmation notification
         sendAppointmentNotification(request.getUserId(),
@@ -416,56 +275,23 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
             "APPOINTMENT_BOOKED"
         );
         
+        bookingGuard.assignQueuePosition(saved);
         return convertToUserAppointmentDto(saved);
     }
 
     private OffsetDateTime parseSlotToDateTime(String slot, String date) {
+        int startMinute = SlotCodec.parseStartMinute(slot);
+        if (startMinute < 0) {
+            throw new IllegalArgumentException("Invalid time slot format: " + slot + ". Expected format: '9:30AM - 10:00AM'");
+        }
         try {
-            // Parse slot like "9:30AM - 9:45AM" and combine with date
-            String[] parts = slot.split(" - ");
-            String startTimeStr = parts[0].trim();
-            
-            // Try multiple formatters to handle different time formats
-            DateTimeFormatter[] formatters = {
-                DateTimeFormatter.ofPattern("h:mma", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("h:mm a", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("H:mm", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("h:mma", Locale.US)
-            };
-            
-            LocalTime startTime = null;
-            for (DateTimeFormatter formatter : formatters) {
-                try {
-                    startTime = LocalTime.parse(startTimeStr, formatter);
-                    break;
-                } catch (Exception e) {
-                    // Try next formatter
-                    continue;
-                }
-            }
-            
-            if (startTime == null) {
-                throw new IllegalArgumentException("Unable to parse time slot: " + startTimeStr);
-            }
-            
             LocalDate appointmentDate = LocalDate.parse(date);
-            return appointmentDate.atTime(startTime).atOffset(OffsetDateTime.now().getOffset());
-            
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Invalid time slot format: " + slot + ". Expected format: '9:30AM - 10:00AM'", e);
+            return appointmentDate.atTime(SlotCodec.timeOf(startMinute)).atOffset(OffsetDateTime.now().getOffset());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date format: " + date + ". Please use yyyy-MM-dd format", e);
         }
     }
 
-    private int getNextQueuePosition(Long doctorId, Long workplaceId, String date) {
-        List<Appointment> appointments = appointmentRepository.findByDoctorIdAndWorkplaceIdAndAppointmentDate(doctorId, workplaceId, date);
-        return appointments.size() + 1;
-    }
-
-    private int getNextQueuePositionFuture(Long doctorId, Long workplaceId, String date) {
-        List<Appointment> appointments = appointmentRepository.findByDoctorIdAndWorkplaceIdAndAppointmentDate(doctorId, workplaceId, date);
-        return appointments.size() + 1;
-    }
-
     @Override
     @Transactional
     public String cancelAppointment(Long appointmentId) {
@@ -475,6 +301,8 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
             Appointment appointment = currentAppointment.get();
             appointment.setStatus("CANCELLED");
             appointmentRepository.save(appointment);
+            slotIndex.onReleased(appointment);
+            metrics.appointmentsCancelled(AppMetrics.CANCELLED_BY_USER, 1);
             
             // Send automatic push notification to user
             String notificationTitle = "Appointment Cancelled";
@@ -525,7 +353,7 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
             appointmentRepository.save(appointment);
             
             // Create new appointment with the new date and time - always in appointments table
-            createRescheduledAppointment(appointment, request);
+            Appointment rescheduled = createRescheduledAppointment(appointment, request);
             
             // Send automatic push notification to user
             String notificationTitle = "Appointment Rescheduled";
@@ -541,6 +369,7 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
                 "APPOINTMENT_RESCHEDULED"
             );
             
+            bookingGuard.assignQueuePosition(rescheduled);
             return "Appointment rescheduled successfully";
         }
         
@@ -553,79 +382,14 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
     @Transactional
     public void moveAppointmentsToCurrentDay() {
         // No-op: appointments table now contains both current and future appointments; no moving required
-        System.out.println("[SCHEDULER] moveAppointmentsToCurrentDay is a no-op when all appointments are stored in the appointments table");
+        logger.info("[SCHEDULER] moveAppointmentsToCurrentDay is a no-op when all appointments are stored in the appointments table");
     }
 
     @Override
-    @Transactional
     public void movePastAppointments() {
-        String yesterday = LocalDate.now().minusDays(1).format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        
-        // Find all appointments from yesterday and before that are still in the appointments table
-        List<Appointment> appointmentsToMove = appointmentRepository.findByAppointmentDate(yesterday);
-        
-        // Also get any appointments that are older than yesterday
-        LocalDate currentDate = LocalDate.now();
-        List<Appointment> allCurrentAppointments = appointmentRepository.findAll();
-        List<Appointment> olderAppointments = allCurrentAppointments.stream()
-                .filter(a -> {
-                    try {
-                        LocalDate appointmentDate = LocalDate.parse(a.getAppointmentDate());
-                        return appointmentDate.isBefore(currentDate);
-                    } catch (Exception e) {
-                        System.err.println("[SCHEDULER] Error parsing date: " + a.getAppointmentDate());
-                        return false;
-                    }
-                })
-                .collect(Collectors.toList());
-        
-        // Combine both lists and remove duplicates
-        Set<Long> processedIds = new HashSet<>();
-        List<Appointment> allAppointmentsToMove = new ArrayList<>();
-        
-        for (Appointment apt : appointmentsToMove) {
-            if (!processedIds.contains(apt.getId())) {
-                allAppointmentsToMove.add(apt);
-                processedIds.add(apt.getId());
-            }
-        }
-        
-        for (Appointment apt : olderAppointments) {
-            if (!processedIds.contains(apt.getId())) {
-                allAppointmentsToMove.add(apt);
-                processedIds.add(apt.getId());
-            }
-        }
-        
-        System.out.println("[SCHEDULER] Found " + allAppointmentsToMove.size() + " past appointments to move");
-        
-        for (Appointment appointment : allAppointmentsToMove) {
-            // Create past appointment
-            PastAppointment pastAppointment = new PastAppointment();
-            pastAppointment.setUserId(appointment.getUserId());
-            pastAppointment.setDoctorId(appointment.getDoctorId());
-            pastAppointment.setWorkplaceId(appointment.getWorkplaceId());
-            pastAppointment.setWorkplaceName(appointment.getWorkplaceName());
-            pastAppointment.setWorkplaceType(appointment.getWorkplaceType());
-            pastAppointment.setWorkplaceAddress(appointment.getWorkplaceAddress());
-            pastAppointment.setAppointmentDate(appointment.getAppointmentDate());
-            pastAppointment.setSlot(appointment.getSlot());
-            pastAppointment.setAppointmentTime(appointment.getAppointmentTime());
-            pastAppointment.setDurationMinutes(appointment.getDurationMinutes());
-            pastAppointment.setQueuePosition(appointment.getQueuePosition());
-            pastAppointment.setStatus(appointment.getStatus());
-            pastAppointment.setNotes(appointment.getNotes());
-            pastAppointment.setDoctorName(appointment.getDoctorName());
-            pastAppointment.setDoctorSpecialization(appointment.getDoctorSpecialization());
-            pastAppointment.setCreatedAt(appointment.getCreatedAt());
-            
-            pastAppointmentRepository.save(pastAppointment);
-            appointmentRepository.delete(appointment);
-            
-            System.out.println("[SCHEDULER] Moved past appointment ID " + appointment.getId() + " for date " + appointment.getAppointmentDate());
-        }
-        
-        System.out.println("[SCHEDULER] Successfully moved " + allAppointmentsToMove.size() + " appointments to past table");
+        // Set-based, chunked move inside the database (see AppointmentArchiver)
+        AppointmentArchiver.Progress progress = appointmentArchiver.archiveBefore(LocalDate.now());
+        logger.info("[SCHEDULER] Successfully moved {} appointments to past table", progress.getMovedRows());
     }
 
     private UserAppointmentDto convertToUserAppointmentDto(Appointment appointment) {
@@ -660,95 +424,106 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
     @Override
     public List<DoctorAppointmentViewDto> getDoctorAppointmentsWithUserDetails(Long doctorId, String appointmentDate) {
         List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentDateOrderByAppointmentTimeAsc(doctorId, appointmentDate);
+        if (appointments.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // One query for all patients of the day instead of one per appointment
+        Map<Long, UserDetailsRepository.PatientSummary> patients = findPatientSummaries(appointments);
         
         return appointments.stream()
-                .map(this::convertToDoctorAppointmentViewDto)
+                .map(appointment -> convertToDoctorAppointmentViewDto(appointment, patients))
                 .collect(Collectors.toList());
     }
     
     @Override
     @Transactional
     public String bulkUpdateAppointmentStatus(Long doctorId, String appointmentDate, BulkAppointmentStatusUpdateDto request) {
-        List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentDateAndUserIdIn(
-                doctorId, appointmentDate, request.getUserIds());
-        
-        if (appointments.isEmpty()) {
-            return "No appointments found for the specified users and date";
-        }
-        
-        int updatedCount = 0;
         String status = request.getStatus();
-        
-        for (Appointment appointment : appointments) {
-            switch (status) {
-                case "COMPLETED":
-                    appointment.setStatus("COMPLETED");
+        List<Appointment> updated;
+        
+        switch (status) {
+            case "COMPLETED":
+                // One DELETE ... INSERT INTO past_appointments for all patients, notifications as one outbox batch
+                updated = statusTransitions.completeAndArchiveForUsers(doctorId, appointmentDate, request.getUserIds(),
+                        request.getNotes(),
+                        appointment -> new NotificationOutboxEntry(appointment.getUserId(),
+                            "Appointment Completed",
+                            String.format("Your appointment with %s on %s has been marked as completed.",
+                                appointment.getDoctorName(), appointment.getAppointmentDate()),
+                            "APPOINTMENT_COMPLETED"));
+                break;
+                
+            case "CANCELLED":
+                updated = statusTransitions.setStatusForUsers(doctorId, appointmentDate, request.getUserIds(),
+                        "CANCELLED", request.getNotes(),
+                        appointment -> new NotificationOutboxEntry(appointment.getUserId(),
+                            "Appointment Cancelled",
+                            String.format("Your appointment with %s on %s at %s has been cancelled by the doctor.",
+                                appointment.getDoctorName(), appointment.getAppointmentDate(), appointment.getSlot()),
+                            "APPOINTMENT_CANCELLED_BY_DOCTOR"));
+                metrics.appointmentsCancelled(AppMetrics.CANCELLED_BY_DOCTOR, updated.size());
+                break;
+                
+            case "RESCHEDULED":
+                if (request.getNewAppointmentDate() == null || request.getNewTimeSlot() == null) {
+                    throw new RuntimeException("New appointment date and time slot are required for rescheduling");
+                }
+                // Each patient gets a new appointment, so this stays per row (updates are JDBC batched at flush)
+                updated = appointmentRepository.findByDoctorIdAndAppointmentDateAndUserIdIn(
+                        doctorId, appointmentDate, request.getUserIds());
+                // One slot holds one patient (ux_appointments_active_slot): the first patient gets the requested
+                // slot, the others the next free slots of the workplace schedule after it
+                Map<Long, RescheduleSlots> slotsByWorkplace = new HashMap<>();
+                List<Appointment> rescheduled = new ArrayList<>(updated.size());
+                for (Appointment appointment : updated) {
+                    // Cancel current appointment
+                    appointment.setStatus("RESCHEDULED");
                     appointment.setNotes(request.getNotes());
                     appointmentRepository.save(appointment);
                     
-                    // Move to past appointments for historical tracking
-                    moveToPastAppointment(appointment);
-                    
-                    // Send notification to user
-                    sendAppointmentNotification(appointment.getUserId(),
-                        "Appointment Completed",
-                        String.format("Your appointment with %s on %s has been marked as completed.",
-                            appointment.getDoctorName(), appointment.getAppointmentDate()),
-                        "APPOINTMENT_COMPLETED"
-                    );
-                    
-                    updatedCount++;
-                    break;
-                    
-                case "CANCELLED":
-                    appointment.setStatus("CANCELLED");
-                    appointment.setNotes(request.getNotes());
-                    appointmentRepository.save(appointment);
+                    // Create new appointment
+                    Long newWorkplaceId = rescheduleWorkplaceId(appointment, request);
+                    String newSlot = slotsByWorkplace
+                            .computeIfAbsent(newWorkplaceId, id -> new RescheduleSlots(doctorId, id, request, appointment))
+                            .next();
+                    rescheduled.add(createRescheduledAppointment(appointment, request, newSlot));
                     
                     // Send notification to user
                     sendAppointmentNotification(appointment.getUserId(),
-                        "Appointment Cancelled",
-                        String.format("Your appointment with %s on %s at %s has been cancelled by the doctor.",
-                            appointment.getDoctorName(), appointment.getAppointmentDate(), appointment.getSlot()),
-                        "APPOINTMENT_CANCELLED_BY_DOCTOR"
+                        "Appointment Rescheduled",
+                        String.format("Your appointment with %s has been rescheduled to %s at %s.",
+                            appointment.getDoctorName(), request.getNewAppointmentDate(), newSlot),
+                        "APPOINTMENT_RESCHEDULED_BY_DOCTOR"
                     );
-                    
-                    updatedCount++;
-                    break;
-                    
-                case "RESCHEDULED":
-                    if (request.getNewAppointmentDate() != null && request.getNewTimeSlot() != null) {
-                        // Cancel current appointment
-                        appointment.setStatus("RESCHEDULED");
-                        appointment.setNotes(request.getNotes());
-                        appointmentRepository.save(appointment);
-                        
-                        // Create new appointment
-                        createRescheduledAppointment(appointment, request);
-                        
-                        // Send notification to user
-                        sendAppointmentNotification(appointment.getUserId(),
-                            "Appointment Rescheduled",
-                            String.format("Your appointment with %s has been rescheduled to %s at %s.",
-                                appointment.getDoctorName(), request.getNewAppointmentDate(), request.getNewTimeSlot()),
-                            "APPOINTMENT_RESCHEDULED_BY_DOCTOR"
-                        );
-                        
-                        updatedCount++;
-                    } else {
-                        throw new RuntimeException("New appointment date and time slot are required for rescheduling");
-                    }
-                    break;
-                    
-                default:
-                    throw new RuntimeException("Invalid status: " + status);
-            }
+                }
+                // Positions last: no counter row is held while an insert waits on another booking's slot,
+                // and counters are taken in workplace order
+                rescheduled.sort(Comparator.comparing(Appointment::getWorkplaceId));
+                rescheduled.forEach(bookingGuard::assignQueuePosition);
+                break;
+                
+            default:
+                throw new RuntimeException("Invalid status: " + status);
         }
         
-        return String.format("Successfully updated %d appointments to %s status", updatedCount, status);
+        if (updated.isEmpty()) {
+            return "No appointments found for the specified users and date";
+        }
+        return String.format("Successfully updated %d appointments to %s status", updated.size(), status);
+    }
+    
+    private Map<Long, UserDetailsRepository.PatientSummary> findPatientSummaries(List<Appointment> appointments) {
+        Set<Long> userIds = appointments.stream()
+                .map(Appointment::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return userRepository.findPatientSummariesByIdIn(userIds).stream()
+                .collect(Collectors.toMap(UserDetailsRepository.PatientSummary::getId, p -> p));
     }
     
-    private DoctorAppointmentViewDto convertToDoctorAppointmentViewDto(Appointment appointment) {
+    private DoctorAppointmentViewDto convertToDoctorAppointmentViewDto(Appointment appointment,
+                                                                       Map<Long, UserDetailsRepository.PatientSummary> patients) {
         DoctorAppointmentViewDto dto = new DoctorAppointmentViewDto();
         
         dto.setAppointmentId(appointment.getId());
@@ -773,10 +548,9 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
         dto.setDoctorName(appointment.getDoctorName());
         dto.setDoctorSpecialization(appointment.getDoctorSpecialization());
         
-        // Get user details
-        Optional<UserDetails> userOpt = userRepository.findById(appointment.getUserId());
-        if (userOpt.isPresent()) {
-            UserDetails user = userOpt.get();
+        // Get user details from the pre-fetched map
+        UserDetailsRepository.PatientSummary user = patients.get(appointment.getUserId());
+        if (user != null) {
             dto.setUserName(user.getFullName());
             dto.setUserPhoneNumber(user.getMobileNumber());
             dto.setUserEmail(user.getEmail());
@@ -785,35 +559,77 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
         return dto;
     }
     
-    private void moveToPastAppointment(Appointment appointment) {
-        // This method already exists in the service, we can reuse the logic
-        PastAppointment pastAppointment = new PastAppointment();
-        pastAppointment.setUserId(appointment.getUserId());
-        pastAppointment.setDoctorId(appointment.getDoctorId());
-        pastAppointment.setWorkplaceId(appointment.getWorkplaceId());
-        pastAppointment.setWorkplaceName(appointment.getWorkplaceName());
-        pastAppointment.setWorkplaceType(appointment.getWorkplaceType());
-        pastAppointment.setWorkplaceAddress(appointment.getWorkplaceAddress());
-        pastAppointment.setAppointmentDate(appointment.getAppointmentDate());
-        pastAppointment.setSlot(appointment.getSlot());
-        pastAppointment.setAppointmentTime(appointment.getAppointmentTime());
-        pastAppointment.setDurationMinutes(appointment.getDurationMinutes());
-        pastAppointment.setQueuePosition(appointment.getQueuePosition());
-        pastAppointment.setStatus(appointment.getStatus());
-        pastAppointment.setNotes(appointment.getNotes());
-        pastAppointment.setDoctorName(appointment.getDoctorName());
-        pastAppointment.setDoctorSpecialization(appointment.getDoctorSpecialization());
-        pastAppointment.setCreatedAt(appointment.getCreatedAt());
-        pastAppointment.setUpdatedAt(appointment.getUpdatedAt());
-        
-        pastAppointmentRepository.save(pastAppointment);
-        appointmentRepository.delete(appointment);
+    private Long rescheduleWorkplaceId(Appointment originalAppointment, BulkAppointmentStatusUpdateDto request) {
+        if (request.getNewWorkplaceId() != null && catalogCache.findWorkplace(request.getNewWorkplaceId()).isPresent()) {
+            return request.getNewWorkplaceId();
+        }
+        return originalAppointment.getWorkplaceId();
     }
-    
-    private void createRescheduledAppointment(Appointment originalAppointment, BulkAppointmentStatusUpdateDto request) {
+
+    /**
+     * Slots for one bulk reschedule at one workplace: the requested slot, then the free slots of the workplace
+     * schedule after it (working hours, not blocked, not booked), in order
+     */
+    private final class RescheduleSlots {
+        private final String firstSlot;
+        private final LocalDate day;
+        private final Iterator<String> followingSlots;
+        private boolean firstHandedOut;
+
+        RescheduleSlots(Long doctorId, Long workplaceId, BulkAppointmentStatusUpdateDto request, Appointment original) {
+            int defaultDuration = original.getDurationMinutes() != null ? original.getDurationMinutes() : 30;
+            SlotCodec.Slot slot = SlotCodec.parse(request.getNewTimeSlot(), defaultDuration);
+            if (slot == null) {
+                throw new IllegalArgumentException("Invalid time slot format: " + request.getNewTimeSlot() + ". Expected format: '9:30AM - 10:00AM'");
+            }
+            this.firstSlot = request.getNewTimeSlot();
+            try {
+                this.day = LocalDate.parse(request.getNewAppointmentDate());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid date format: " + request.getNewAppointmentDate() + ". Please use yyyy-MM-dd format", e);
+            }
+
+            // Same source as the available-slots listing; the booked starts are re-read because the index
+            // does not see this transaction's writes
+            SlotAvailabilityIndex.WorkplaceSchedule schedule = slotIndex.getSchedule(doctorId, workplaceId);
+            List<String> free = slotIndex.getDays(schedule, day, day).get(day).slots();
+            Set<Integer> takenStarts = new HashSet<>();
+            for (Appointment booked : appointmentRepository.findByDoctorIdAndWorkplaceIdAndAppointmentDayBetween(
+                    doctorId, workplaceId, day, day)) {
+                if (booked.getSlotStart() != null) {
+                    takenStarts.add(SlotCodec.minuteOf(booked.getSlotStart()));
+                }
+            }
+            int firstEnd = slot.startMinute() + slot.durationMinutes();
+            List<String> following = new ArrayList<>(free.size());
+            for (String label : free) {
+                int start = SlotCodec.parse(label, schedule.getDurationMinutes()).startMinute();
+                if (start >= firstEnd && !takenStarts.contains(start)) {
+                    following.add(label);
+                }
+            }
+            this.followingSlots = following.iterator();
+        }
+
+        String next() {
+            if (!firstHandedOut) {
+                // The requested slot itself is not skipped: if it is taken, the insert reports the conflict
+                firstHandedOut = true;
+                return firstSlot;
+            }
+            if (!followingSlots.hasNext()) {
+                throw new IllegalArgumentException(String.format(
+                        "Not enough free slots on %s after %s to reschedule all patients", day, firstSlot));
+            }
+            return followingSlots.next();
+        }
+    }
+
+    private Appointment createRescheduledAppointment(Appointment originalAppointment, BulkAppointmentStatusUpdateDto request, String newSlot) {
         LocalDate newDate = LocalDate.parse(request.getNewAppointmentDate());
         LocalDate today = LocalDate.now();
         LocalDate dayAfterTomorrow = today.plusDays(2);
+        Appointment saved;
         
         if (newDate.isEqual(today)) {
             // Create current day appointment
@@ -827,7 +643,7 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
             
             // Set workplace details
             if (request.getNewWorkplaceId() != null) {
-                Optional<DoctorWorkplace> workplaceOpt = workplaceRepository.findById(request.getNewWorkplaceId());
+                Optional<DoctorWorkplace> workplaceOpt = catalogCache.findWorkplace(request.getNewWorkplaceId());
                 if (workplaceOpt.isPresent()) {
                     DoctorWorkplace workplace = workplaceOpt.get();
                     newAppointment.setWorkplaceId(workplace.getId());
@@ -843,17 +659,16 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
             }
             
             newAppointment.setAppointmentDate(request.getNewAppointmentDate());
-            newAppointment.setSlot(request.getNewTimeSlot());
-            newAppointment.setAppointmentTime(parseSlotToDateTime(request.getNewTimeSlot(), request.getNewAppointmentDate()));
+            newAppointment.setSlot(newSlot);
+            newAppointment.setAppointmentTime(parseSlotToDateTime(newSlot, request.getNewAppointmentDate()));
             newAppointment.setDurationMinutes(originalAppointment.getDurationMinutes());
             newAppointment.setStatus("BOOKED");
             newAppointment.setNotes("Rescheduled from " + originalAppointment.getAppointmentDate());
             newAppointment.setDoctorName(originalAppointment.getDoctorName());
             newAppointment.setDoctorSpecialization(originalAppointment.getDoctorSpecialization());
-            newAppointment.setQueuePosition(getNextQueuePosition(originalAppointment.getDoctorId(), 
-                    newAppointment.getWorkplaceId(), request.getNewAppointmentDate()));
             
-            appointmentRepository.save(newAppointment);
+            saved = bookingGuard.insert(newAppointment);
+            slotIndex.onBooked(saved);
             
         } else if (newDate.isAfter(today) && !newDate.isAfter(dayAfterTomorrow)) {
             // Create future appointment (within 2 days) but persist into appointments table
@@ -872,7 +687,7 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
             String workplaceAddressToUse = originalAppointment.getWorkplaceAddress();
 
             if (request.getNewWorkplaceId() != null) {
-                Optional<DoctorWorkplace> workplaceOpt = workplaceRepository.findById(request.getNewWorkplaceId());
+                Optional<DoctorWorkplace> workplaceOpt = catalogCache.findWorkplace(request.getNewWorkplaceId());
                 if (workplaceOpt.isPresent()) {
                     DoctorWorkplace workplace = workplaceOpt.get();
                     workplaceIdToUse = workplace.getId();
@@ -887,8 +702,8 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
             futureAppt.setWorkplaceType(workplaceTypeToUse);
             futureAppt.setWorkplaceAddress(workplaceAddressToUse);
             futureAppt.setAppointmentDate(request.getNewAppointmentDate());
-            futureAppt.setSlot(request.getNewTimeSlot());
-            futureAppt.setAppointmentTime(parseSlotToDateTime(request.getNewTimeSlot(), request.getNewAppointmentDate()));
+            futureAppt.setSlot(newSlot);
+            futureAppt.setAppointmentTime(parseSlotToDateTime(newSlot, request.getNewAppointmentDate()));
             futureAppt.setDurationMinutes(originalAppointment.getDurationMinutes());
             futureAppt.setStatus("BOOKED");
             futureAppt.setNotes("Rescheduled from " + originalAppointment.getAppointmentDate());
@@ -897,16 +712,16 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
             futureAppt.setDoctorName(originalAppointment.getDoctorName());
             futureAppt.setDoctorSpecialization(originalAppointment.getDoctorSpecialization());
 
-            futureAppt.setQueuePosition(getNextQueuePositionFuture(originalAppointment.getDoctorId(), 
-                    workplaceIdToUse, request.getNewAppointmentDate()));
-
-            appointmentRepository.save(futureAppt);
+            saved = bookingGuard.insert(futureAppt);
+            slotIndex.onBooked(saved);
         } else {
             throw new RuntimeException("Rescheduling is only allowed for today or within next 2 days");
         }
+        metrics.appointmentRescheduled();
+        return saved;
     }
     
-    private void createRescheduledAppointment(Appointment originalAppointment, UserRescheduleRequestDto request) {
+    private Appointment createRescheduledAppointment(Appointment originalAppointment, UserRescheduleRequestDto request) {
         // Create new appointment in the appointments table (no date restrictions)
         Appointment newAppointment = new Appointment();
         newAppointment.setUserId(originalAppointment.getUserId());
@@ -928,13 +743,14 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
         newAppointment.setNotes("Rescheduled by user: " + request.getReason());
         newAppointment.setDoctorName(originalAppointment.getDoctorName());
         newAppointment.setDoctorSpecialization(originalAppointment.getDoctorSpecialization());
-        newAppointment.setQueuePosition(getNextQueuePosition(originalAppointment.getDoctorId(), 
-                originalAppointment.getWorkplaceId(), request.getNewAppointmentDate()));
         
-        appointmentRepository.save(newAppointment);
+        Appointment saved = bookingGuard.insert(newAppointment);
+        slotIndex.onBooked(saved);
+        metrics.appointmentRescheduled();
+        return saved;
     }
     
-    private void createRescheduledAppointmentFromFuture(Appointment originalAppointment, UserRescheduleRequestDto request) {
+    private Appointment createRescheduledAppointmentFromFuture(Appointment originalAppointment, UserRescheduleRequestDto request) {
         // Create new appointment in the appointments table (no date restrictions)
         Appointment newAppointment = new Appointment();
         newAppointment.setUserId(originalAppointment.getUserId());
@@ -956,10 +772,11 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
         newAppointment.setNotes("Rescheduled by user: " + request.getReason());
         newAppointment.setDoctorName(originalAppointment.getDoctorName());
         newAppointment.setDoctorSpecialization(originalAppointment.getDoctorSpecialization());
-        newAppointment.setQueuePosition(getNextQueuePosition(originalAppointment.getDoctorId(), 
-                originalAppointment.getWorkplaceId(), request.getNewAppointmentDate()));
         
-        appointmentRepository.save(newAppointment);
+        Appointment saved = bookingGuard.insert(newAppointment);
+        slotIndex.onBooked(saved);
+        metrics.appointmentRescheduled();
+        return saved;
     }
     
     // ==================== FCM TOKEN MANAGEMENT ====================
@@ -1004,88 +821,8 @@ public class EnhancedAppointmentServiceImpl implements EnhancedAppointmentServic
     
     @Override
     public void sendAppointmentNotification(Long userId, String title, String body, String notificationType) {
-        try {
-            System.out.println("[NOTIFICATION] Attempting to send notification to user " + userId);
-            System.out.println("[NOTIFICATION] Title: " + title);
-            System.out.println("[NOTIFICATION] Body: " + body);
-            System.out.println("[NOTIFICATION] Type: " + notificationType);
-            
-            Optional<UserDetails> userOpt = userRepository.findById(userId);
-            if (userOpt.isPresent()) {
-                UserDetails user = userOpt.get();
-                
-                System.out.println("[NOTIFICATION] User found: " + user.getFullName());
-                System.out.println("[NOTIFICATION] Notifications enabled: " + user.getNotificationsEnabled());
-                System.out.println("[NOTIFICATION] FCM Token present: " + (user.getFcmToken() != null && !user.getFcmToken().trim().isEmpty()));
-                System.out.println("[NOTIFICATION] Device type: " + user.getDeviceType());
-                
-                if (user.getFcmToken() != null && !user.getFcmToken().trim().isEmpty()) {
-                    System.out.println("[NOTIFICATION] FCM Token preview: " + user.getFcmToken().substring(0, Math.min(30, user.getFcmToken().length())) + "...");
-                }
-                
-                // Check if user has notifications enabled and has FCM token
-                if (user.getNotificationsEnabled() != null && user.getNotificationsEnabled() 
-                    && user.getFcmToken() != null && !user.getFcmToken().trim().isEmpty()) {
-                    
-                    // Create notification with appointment-specific data
-                    NotificationRequestDto notificationRequest = new NotificationRequestDto();
-                    notificationRequest.setDeviceToken(user.getFcmToken());
-                    notificationRequest.setTitle(title);
-                    notificationRequest.setBody(body);
-                    
-                    // Add platform-specific configuration for proper system notifications
-                    if ("android".equalsIgnoreCase(user.getDeviceType())) {
-                        AndroidConfigDto androidConfig = new AndroidConfigDto();
-                        androidConfig.setChannelId("appointment_updates");
-                        androidConfig.setPriority("high");
-                        androidConfig.setSound("default");
-                        notificationRequest.setAndroidConfig(androidConfig);
-                    } else if ("ios".equalsIgnoreCase(user.getDeviceType())) {
-                        IOSConfigDto iosConfig = new IOSConfigDto();
-                        iosConfig.setSound("default");
-                        iosConfig.setBadge(1);
-                        iosConfig.setContentAvailable(true);
-                        notificationRequest.setIosConfig(iosConfig);
-                    }
-                    
-                    // Add data payload for app-specific handling
-                    Map<String, String> data = new HashMap<>();
-                    data.put("type", notificationType);
-                    data.put("userId", userId.toString());
-                    data.put("timestamp", String.valueOf(System.currentTimeMillis()));
-                    notificationRequest.setData(data);
-                    
-                    // Send notification
-                    System.out.println("[NOTIFICATION] Sending notification to FCM...");
-                    NotificationResponseDto response = notificationService.sendNotificationToDevice(notificationRequest);
-                    
-                    // Log result and handle invalid tokens
-                    if (response.isSuccess()) {
-                        System.out.println("[NOTIFICATION] SUCCESS - Message ID: " + response.getMessageId());
-                    } else {
-                        System.out.println("[NOTIFICATION] FAILED - Error: " + response.getErrorMessage());
-                        
-                        // If token is invalid/unregistered, clear it from database
-                        // Common error messages for invalid tokens: "UNREGISTERED", "not found", "invalid"
-                        String errorMsg = response.getErrorMessage() != null ? response.getErrorMessage().toLowerCase() : "";
-                        if (errorMsg.contains("unregistered") || errorMsg.contains("not found") || 
-                            errorMsg.contains("invalid") || response.getStatusCode() == 404 || response.getStatusCode() == 400) {
-                            System.out.println("[NOTIFICATION] Clearing invalid FCM token for user " + userId);
-                            user.setFcmToken(null);
-                            user.setDeviceType(null);
-                            userRepository.save(user);
-                            System.out.println("[NOTIFICATION] FCM token cleared. User will get new token on next app open.");
-                        }
-                    }
-                } else {
-                    System.out.println("[NOTIFICATION] Skipped - Notifications disabled or no FCM token");
-                }
-            } else {
-                System.out.println("[NOTIFICATION] User not found with ID: " + userId);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.err.println("[NOTIFICATION] Exception while sending notification to user " + userId + ": " + e.getMessage());
-        }
+        // Written to the outbox in the caller's transaction; NotificationOutboxDispatcher delivers it after commit
+        accessLog.debug(logger, "Queued {} notification for user {}", notificationType, userId);
+        notificationOutboxService.enqueue(userId, title, body, notificationType);
     }
 }
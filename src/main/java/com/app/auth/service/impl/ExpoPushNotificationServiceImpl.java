@@ -1,33 +1,72 @@
 package com.app.auth.service.impl;
 
+import com.app.auth.dto.ExpoPushMessage;
 import com.app.auth.dto.NotificationResponseDto;
+import com.app.auth.service.AppMetrics;
 import com.app.auth.service.ExpoPushNotificationService;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Implementation of ExpoPushNotificationService
  * Sends push notifications via Expo's Push Notification API
- * 
+ *
+ * Messages are sent in chunks of up to 100 per request (Expo's limit) over one shared keep-alive HTTP client.
+ * Chunks of a large batch go out in parallel on a small bounded pool.
+ *
  * API Documentation: https://docs.expo.dev/push-notifications/sending-notifications/
  */
 @Service
 public class ExpoPushNotificationServiceImpl implements ExpoPushNotificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(ExpoPushNotificationServiceImpl.class);
-    
-    // Expo Push API endpoint
-    private static final String EXPO_PUSH_API_URL = "https://exp.host/--/api/v2/push/send";
-    
+
+    // Expo accepts at most 100 messages per request
+    private static final int MAX_MESSAGES_PER_REQUEST = 100;
+
+    // Expo Push API endpoint (overridable so load tests can point it at a stub)
+    private final String expoPushApiUrl;
     private final RestTemplate restTemplate;
+    private final ExecutorService chunkExecutor;
+
+    public ExpoPushNotificationServiceImpl(@Value("${app.notifications.expo.max-concurrency:4}") int maxConcurrency,
+                                           @Value("${app.notifications.expo.url:https://exp.host/--/api/v2/push/send}") String expoPushApiUrl,
+                                           AppMetrics metrics) {
+        this.expoPushApiUrl = expoPushApiUrl;
+        // One pooled HTTP/2 client: connections to exp.host are kept alive and reused across requests
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofSeconds(15));
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.restTemplate.getInterceptors().add(metrics.outboundTimer("expo"));
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.chunkExecutor = Executors.newFixedThreadPool(Math.max(1, maxConcurrency), r -> {
+            Thread thread = new Thread(r, "expo-push-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
-    public ExpoPushNotificationServiceImpl() {
-        this.restTemplate = new RestTemplate();
+    @PreDestroy
+    void shutdown() {
+        chunkExecutor.shutdown();
     }
 
     @Override
@@ -37,135 +76,199 @@ public class ExpoPushNotificationServiceImpl implements ExpoPushNotificationServ
 
     @Override
     public NotificationResponseDto sendNotification(String expoPushToken, String title, String body, Map<String, String> data) {
-        logger.info("[EXPO PUSH] Sending notification to token: {}...", 
+        logger.info("[EXPO PUSH] Sending notification to token: {}...",
                    expoPushToken != null ? expoPushToken.substring(0, Math.min(30, expoPushToken.length())) : "null");
+        logger.info("[EXPO PUSH] Payload: title='{}', body='{}'", title, body);
 
-        // Validate token format
-        if (!isExpoPushToken(expoPushToken)) {
-            logger.error("[EXPO PUSH] Invalid Expo Push Token format: {}", expoPushToken);
-            return NotificationResponseDto.error(
-                "Invalid Expo Push Token format. Expected: ExponentPushToken[xxx]", 
-                400, 
-                expoPushToken
-            );
+        return sendBatch(List.of(new ExpoPushMessage(expoPushToken, title, body, data))).get(0);
+    }
+
+    @Override
+    public List<NotificationResponseDto> sendBulkNotifications(List<String> expoPushTokens, String title, String body) {
+        logger.info("[EXPO PUSH] Sending bulk notifications to {} tokens", expoPushTokens.size());
+
+        List<ExpoPushMessage> messages = new ArrayList<>(expoPushTokens.size());
+        for (String token : expoPushTokens) {
+            messages.add(new ExpoPushMessage(token, title, body, null));
         }
+        return sendBatch(messages);
+    }
 
-        try {
-            // Build the notification payload
-            Map<String, Object> notification = new HashMap<>();
-            notification.put("to", expoPushToken);
-            notification.put("title", title);
-            notification.put("body", body);
-            notification.put("sound", "default");
-            notification.put("priority", "high");
-            
-            // Add channel for Android
-            notification.put("channelId", "appointment_updates");
-            
-            // Add custom data if provided
-            if (data != null && !data.isEmpty()) {
-                notification.put("data", data);
+    @Override
+    public List<NotificationResponseDto> sendBatch(List<ExpoPushMessage> messages) {
+        NotificationResponseDto[] results = new NotificationResponseDto[messages.size()];
+
+        // Invalid tokens are answered locally, the rest is grouped into request-sized chunks (by index)
+        List<List<Integer>> chunks = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            String token = messages.get(i).getTo();
+            if (!isExpoPushToken(token)) {
+                logger.error("[EXPO PUSH] Invalid Expo Push Token format: {}", token);
+                results[i] = NotificationResponseDto.error(
+                    "Invalid Expo Push Token format. Expected: ExponentPushToken[xxx]",
+                    400,
+                    token
+                );
+                continue;
+            }
+            current.add(i);
+            if (current.size() == MAX_MESSAGES_PER_REQUEST) {
+                chunks.add(current);
+                current = new ArrayList<>();
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+
+        if (chunks.size() == 1) {
+            // Single request - no need to hop threads
+            sendChunk(messages, chunks.get(0), results);
+        } else if (chunks.size() > 1) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<Integer> chunk : chunks) {
+                futures.add(chunkExecutor.submit(() -> sendChunk(messages, chunk, results)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    logger.error("[EXPO PUSH] Chunk send failed: {}", e.getMessage(), e);
+                }
+            }
+        }
+
+        // Anything left unanswered (interrupted / unexpected failure) is reported as a retryable error
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = NotificationResponseDto.error("Notification was not sent", 500, messages.get(i).getTo());
             }
+        }
+
+        List<NotificationResponseDto> responses = Arrays.asList(results);
+        if (messages.size() > 1) {
+            long successCount = responses.stream().filter(NotificationResponseDto::isSuccess).count();
+            logger.info("[EXPO PUSH] Batch send complete. Success: {}/{} in {} request(s)",
+                       successCount, messages.size(), chunks.size());
+        }
+        return responses;
+    }
 
-            logger.info("[EXPO PUSH] Payload: title='{}', body='{}'", title, body);
+    /**
+     * Send one request with up to 100 messages and map the returned tickets back by position
+     */
+    @SuppressWarnings("unchecked")
+    private void sendChunk(List<ExpoPushMessage> messages, List<Integer> indexes, NotificationResponseDto[] results) {
+        try {
+            List<Map<String, Object>> payload = new ArrayList<>(indexes.size());
+            for (int index : indexes) {
+                payload.add(toPayload(messages.get(index)));
+            }
 
             // Set headers
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
 
-            // Create request entity
-            HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(notification, headers);
-
             // Send request to Expo Push API
             ResponseEntity<Map> response = restTemplate.exchange(
-                EXPO_PUSH_API_URL,
+                expoPushApiUrl,
                 HttpMethod.POST,
-                requestEntity,
+                new HttpEntity<>(payload, headers),
                 Map.class
             );
 
-            // Parse response - Expo returns { "data": [ { "status": "ok", "id": "xxx" } ] }
+            // Parse response - Expo returns { "data": [ { "status": "ok", "id": "xxx" }, ... ] } in request order
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-                Object dataField = responseBody.get("data");
-                
-                Map<String, Object> responseData = null;
-                
-                // Handle both array format (standard) and object format
+                Object dataField = response.getBody().get("data");
+                List<Map<String, Object>> tickets;
                 if (dataField instanceof List) {
-                    List<Map<String, Object>> dataList = (List<Map<String, Object>>) dataField;
-                    if (!dataList.isEmpty()) {
-                        responseData = dataList.get(0);
-                    }
+                    tickets = (List<Map<String, Object>>) dataField;
                 } else if (dataField instanceof Map) {
-                    responseData = (Map<String, Object>) dataField;
+                    tickets = List.of((Map<String, Object>) dataField);
+                } else {
+                    tickets = List.of();
                 }
-                
-                if (responseData != null) {
-                    String status = (String) responseData.get("status");
-                    
-                    if ("ok".equals(status)) {
-                        String ticketId = (String) responseData.get("id");
-                        logger.info("[EXPO PUSH] SUCCESS - Ticket ID: {}", ticketId);
-                        return NotificationResponseDto.success(ticketId, expoPushToken);
-                    } else {
-                        // Error in delivery
-                        String errorMessage = (String) responseData.get("message");
-                        Object errorDetailsObj = responseData.get("details");
-                        String errorDetails = errorDetailsObj != null ? errorDetailsObj.toString() : null;
-                        logger.error("[EXPO PUSH] FAILED - Status: {}, Message: {}, Details: {}", 
-                                    status, errorMessage, errorDetails);
-                        
-                        // Check for DeviceNotRegistered error - means token is invalid
-                        if ("DeviceNotRegistered".equals(errorMessage) || 
-                            (errorDetails != null && errorDetails.contains("DeviceNotRegistered"))) {
-                            return NotificationResponseDto.error(
-                                "Device not registered. Token is invalid or expired.", 
-                                410, // Gone
-                                expoPushToken
-                            );
-                        }
-                        
-                        return NotificationResponseDto.error(
-                            errorMessage != null ? errorMessage : "Unknown error", 
-                            400, 
-                            expoPushToken
-                        );
-                    }
+
+                for (int i = 0; i < indexes.size(); i++) {
+                    int index = indexes.get(i);
+                    String token = messages.get(index).getTo();
+                    results[index] = i < tickets.size()
+                        ? toResponse(tickets.get(i), token)
+                        : NotificationResponseDto.error("Missing ticket in Expo response", 500, token);
                 }
+                return;
             }
 
             logger.error("[EXPO PUSH] Unexpected response: {}", response);
-            return NotificationResponseDto.error("Unexpected response from Expo Push API", 500, expoPushToken);
+            fill(messages, indexes, results, "Unexpected response from Expo Push API");
 
         } catch (Exception e) {
-            logger.error("[EXPO PUSH] Exception while sending notification: {}", e.getMessage(), e);
-            return NotificationResponseDto.error(
-                "Failed to send notification: " + e.getMessage(), 
-                500, 
-                expoPushToken
-            );
+            logger.error("[EXPO PUSH] Exception while sending {} notification(s): {}", indexes.size(), e.getMessage(), e);
+            fill(messages, indexes, results, "Failed to send notification: " + e.getMessage());
         }
     }
 
-    @Override
-    public List<NotificationResponseDto> sendBulkNotifications(List<String> expoPushTokens, String title, String body) {
-        logger.info("[EXPO PUSH] Sending bulk notifications to {} tokens", expoPushTokens.size());
+    private Map<String, Object> toPayload(ExpoPushMessage message) {
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("to", message.getTo());
+        notification.put("title", message.getTitle());
+        notification.put("body", message.getBody());
+        notification.put("sound", "default");
+        notification.put("priority", "high");
 
-        List<NotificationResponseDto> responses = new ArrayList<>();
+        // Add channel for Android
+        notification.put("channelId", "appointment_updates");
 
-        // Expo supports sending up to 100 notifications in a single request
-        // For simplicity, we'll send them one by one (can be optimized later)
-        for (String token : expoPushTokens) {
-            NotificationResponseDto response = sendNotification(token, title, body);
-            responses.add(response);
+        // Add custom data if provided
+        if (message.getData() != null && !message.getData().isEmpty()) {
+            notification.put("data", message.getData());
         }
+        return notification;
+    }
 
-        long successCount = responses.stream().filter(NotificationResponseDto::isSuccess).count();
-        logger.info("[EXPO PUSH] Bulk send complete. Success: {}/{}", successCount, expoPushTokens.size());
+    private NotificationResponseDto toResponse(Map<String, Object> ticket, String expoPushToken) {
+        String status = (String) ticket.get("status");
 
-        return responses;
+        if ("ok".equals(status)) {
+            String ticketId = (String) ticket.get("id");
+            logger.info("[EXPO PUSH] SUCCESS - Ticket ID: {}", ticketId);
+            return NotificationResponseDto.success(ticketId, expoPushToken);
+        }
+
+        // Error in delivery
+        String errorMessage = (String) ticket.get("message");
+        Object errorDetailsObj = ticket.get("details");
+        String errorDetails = errorDetailsObj != null ? errorDetailsObj.toString() : null;
+        logger.error("[EXPO PUSH] FAILED - Status: {}, Message: {}, Details: {}",
+                    status, errorMessage, errorDetails);
+
+        // Check for DeviceNotRegistered error - means token is invalid
+        if ("DeviceNotRegistered".equals(errorMessage) ||
+            (errorDetails != null && errorDetails.contains("DeviceNotRegistered"))) {
+            return NotificationResponseDto.error(
+                "Device not registered. Token is invalid or expired.",
+                410, // Gone
+                expoPushToken
+            );
+        }
+
+        return NotificationResponseDto.error(
+            errorMessage != null ? errorMessage : "Unknown error",
+            400,
+            expoPushToken
+        );
+    }
+
+    private static void fill(List<ExpoPushMessage> messages, List<Integer> indexes,
+                             NotificationResponseDto[] results, String errorMessage) {
+        for (int index : indexes) {
+            results[index] = NotificationResponseDto.error(errorMessage, 500, messages.get(index).getTo());
+        }
     }
 
     @Override
@@ -0,0 +1,74 @@
+package com.app.auth.service.impl;
+
+import com.app.auth.entity.NotificationOutboxEntry;
+import com.app.auth.repository.NotificationOutboxRepository;
+import com.app.auth.service.AppMetrics;
+import com.app.auth.service.NotificationOutboxService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+@Service
+public class NotificationOutboxServiceImpl implements NotificationOutboxService {
+
+    // Outbox ids are IDENTITY, which Hibernate never batches; bulk enqueues go through one JDBC batch instead
+    private static final String INSERT_SQL =
+            "INSERT INTO notification_outbox (user_id, title, body, notification_type, status, attempts, next_attempt_at, created_at) " +
+            "VALUES (?, ?, ?, ?, '" + NotificationOutboxEntry.STATUS_PENDING + "', 0, ?, ?)";
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final AppMetrics metrics;
+
+    public NotificationOutboxServiceImpl(NotificationOutboxRepository outboxRepository, JdbcTemplate jdbcTemplate,
+                                         AppMetrics metrics) {
+        this.outboxRepository = outboxRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(Long userId, String title, String body, String notificationType) {
+        if (userId == null) {
+            return;
+        }
+        outboxRepository.save(new NotificationOutboxEntry(userId, title, body, notificationType));
+        metrics.notifications("queued", 1);
+    }
+
+    @Override
+    @Transactional
+    public void enqueueForUsers(Collection<Long> userIds, String title, String body, String notificationType) {
+        List<NotificationOutboxEntry> entries = new ArrayList<>();
+        for (Long userId : new LinkedHashSet<>(userIds)) {
+            if (userId != null) {
+                entries.add(new NotificationOutboxEntry(userId, title, body, notificationType));
+            }
+        }
+        enqueueAll(entries);
+    }
+
+    @Override
+    @Transactional
+    public void enqueueAll(Collection<NotificationOutboxEntry> entries) {
+        List<NotificationOutboxEntry> batch = entries.stream().filter(e -> e.getUserId() != null).toList();
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getUserId());
+            ps.setString(2, entry.getTitle());
+            ps.setString(3, entry.getBody());
+            ps.setString(4, entry.getNotificationType());
+            ps.setObject(5, entry.getNextAttemptAt());
+            ps.setObject(6, entry.getCreatedAt());
+        });
+        metrics.notifications("queued", batch.size());
+    }
+}
@@ -12,10 +12,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
 
 /**
  * Implementation of NotificationService using Firebase Cloud Messaging
@@ -87,26 +86,8 @@ public class NotificationServiceImpl implements NotificationService {
             };
         }
 
-        List<NotificationResponseDto> responses = new ArrayList<>();
-        List<CompletableFuture<NotificationResponseDto>> futures = new ArrayList<>();
-
-        // Send notifications asynchronously for better performance
-        for (String deviceToken : deviceTokens) {
-            CompletableFuture<NotificationResponseDto> future = CompletableFuture.supplyAsync(() ->
-                sendNotificationToDevice(deviceToken, title, body)
-            );
-            futures.add(future);
-        }
-
-        // Wait for all notifications to complete
-        for (CompletableFuture<NotificationResponseDto> future : futures) {
-            try {
-                responses.add(future.get());
-            } catch (InterruptedException | ExecutionException e) {
-                logger.error("Error waiting for notification completion: {}", e.getMessage(), e);
-                responses.add(NotificationResponseDto.error("Failed to process notification: " + e.getMessage(), 500, null));
-            }
-        }
+        // Expo batches up to 100 messages per request; chunks go out concurrently on a bounded pool
+        List<NotificationResponseDto> responses = expoPushNotificationService.sendBulkNotifications(Arrays.asList(deviceTokens), title, body);
 
         logger.info("Completed sending notifications to {} devices. Success: {}, Errors: {}", 
                    deviceTokens.length,
@@ -116,6 +97,20 @@ public class NotificationServiceImpl implements NotificationService {
         return responses.toArray(new NotificationResponseDto[0]);
     }
 
+    @Override
+    public List<NotificationResponseDto> sendNotifications(List<NotificationRequestDto> notificationRequests) {
+        if (notificationRequests == null || notificationRequests.isEmpty()) {
+            return new ArrayList<>();
+        }
+        logger.info("Sending {} notifications in batch", notificationRequests.size());
+
+        List<ExpoPushMessage> messages = new ArrayList<>(notificationRequests.size());
+        for (NotificationRequestDto request : notificationRequests) {
+            messages.add(new ExpoPushMessage(request.getDeviceToken(), request.getTitle(), request.getBody(), request.getData()));
+        }
+        return expoPushNotificationService.sendBatch(messages);
+    }
+
     /**
      * Maps Firebase messaging error codes to appropriate HTTP status codes
      * 
@@ -1,5 +1,6 @@
 package com.app.auth.service.impl;
 
+import com.app.auth.service.AppMetrics;
 import com.app.auth.service.OtpService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,8 +39,9 @@ public class OtpServiceImpl implements OtpService {
     
     private final RestTemplate restTemplate;
     
-    public OtpServiceImpl() {
+    public OtpServiceImpl(AppMetrics metrics) {
         this.restTemplate = new RestTemplate();
+        this.restTemplate.getInterceptors().add(metrics.outboundTimer("twilio"));
     }
     
     @Override
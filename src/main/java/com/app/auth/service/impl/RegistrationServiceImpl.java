@@ -8,6 +8,7 @@ import com.app.auth.entity.UserDetails;
 import com.app.auth.repository.DoctorDetailsRepository;
 import com.app.auth.repository.DoctorWorkplaceRepository;
 import com.app.auth.repository.UserDetailsRepository;
+import com.app.auth.service.DoctorSearchEngine;
 import com.app.auth.service.RegistrationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -16,6 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -26,13 +28,16 @@ public class RegistrationServiceImpl implements RegistrationService {
     private final UserDetailsRepository userDetailsRepository;
     private final DoctorDetailsRepository doctorDetailsRepository;
     private final DoctorWorkplaceRepository doctorWorkplaceRepository;
+    private final DoctorSearchEngine searchEngine;
 
     public RegistrationServiceImpl(UserDetailsRepository userDetailsRepository, 
                                    DoctorDetailsRepository doctorDetailsRepository,
-                                   DoctorWorkplaceRepository doctorWorkplaceRepository) {
+                                   DoctorWorkplaceRepository doctorWorkplaceRepository,
+                                   DoctorSearchEngine searchEngine) {
         this.userDetailsRepository = userDetailsRepository;
         this.doctorDetailsRepository = doctorDetailsRepository;
         this.doctorWorkplaceRepository = doctorWorkplaceRepository;
+        this.searchEngine = searchEngine;
     }
 
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
@@ -135,6 +140,7 @@ public class RegistrationServiceImpl implements RegistrationService {
             DoctorDetails savedDoctor = doctorDetailsRepository.save(doctorDetails);
 
             // Create workspaces (unchanged)
+            List<DoctorWorkplace> savedWorkplaces = new ArrayList<>();
             if (doctorRegistrationDto.getWorkspaces() != null && !doctorRegistrationDto.getWorkspaces().isEmpty()) {
                 boolean hasPrimary = false;
 
@@ -165,10 +171,13 @@ public class RegistrationServiceImpl implements RegistrationService {
                     }
 
                     workplace.setCreatedAt(OffsetDateTime.now());
-                    doctorWorkplaceRepository.save(workplace);
+                    savedWorkplaces.add(doctorWorkplaceRepository.save(workplace));
                 }
             }
 
+            // Make the new doctor searchable right away
+            searchEngine.onDoctorChanged(savedDoctor, savedWorkplaces);
+
             // ── NEW: Generate token so frontend can log in immediately ─────────
             String token = jwtUtil.generateToken(savedDoctor.getMobileNumber(), savedDoctor.getId(), savedDoctor.getRole());
 
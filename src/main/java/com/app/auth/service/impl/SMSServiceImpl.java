@@ -1,5 +1,6 @@
 package com.app.auth.service.impl;
 
+import com.app.auth.service.AppMetrics;
 import com.app.auth.service.SMSService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,8 +52,9 @@ public class SMSServiceImpl implements SMSService {
     
     private final RestTemplate restTemplate;
     
-    public SMSServiceImpl() {
+    public SMSServiceImpl(AppMetrics metrics) {
         this.restTemplate = new RestTemplate();
+        this.restTemplate.getInterceptors().add(metrics.outboundTimer("twilio"));
     }
     
     @Override
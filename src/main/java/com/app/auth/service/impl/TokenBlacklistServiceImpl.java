@@ -1,45 +1,306 @@
 package com.app.auth.service.impl;
 
+import com.app.auth.config.JwtClaimsCache;
+import com.app.auth.config.JwtUtil;
+import com.app.auth.entity.RevokedToken;
+import com.app.auth.repository.RevokedTokenRepository;
 import com.app.auth.service.TokenBlacklistService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+/**
+ * Revoked token store.
+ *
+ * Only a 128-bit SHA-256 prefix of each token is kept, together with the token's real expiry (its exp claim).
+ * Revocations are written to the revoked_tokens table so they survive restarts and reach every instance;
+ * each instance loads the live rows on startup and pulls new ones every sync interval.
+ *
+ * The per-request check first asks a Bloom filter - almost every token was never revoked, and for those the
+ * answer is a few bit reads with no map lookup. Expiry is tracked in hour buckets, so cleanup only touches
+ * the buckets that have run out instead of scanning every revoked token.
+ */
 @Service
 public class TokenBlacklistServiceImpl implements TokenBlacklistService {
-    
-    // In-memory storage for blacklisted tokens with expiration time
-    private final Map<String, OffsetDateTime> blacklistedTokens = new ConcurrentHashMap<>();
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBlacklistServiceImpl.class);
+
+    private static final long BUCKET_MILLIS = 60 * 60 * 1000L;
+
+    // fingerprint -> expiry (epoch millis)
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    // expiry wheel: hour bucket -> fingerprints expiring in that hour
+    private final ConcurrentSkipListMap<Long, Set<String>> expiryBuckets = new ConcurrentSkipListMap<>();
+
+    private volatile BloomFilter bloomFilter;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtUtil jwtUtil;
+    private final JwtClaimsCache claimsCache;
+    private final long defaultExpirationMs;
+    private final int bloomExpectedEntries;
+
+    // Rows revoked after this instant have not been pulled from the database yet
+    private volatile OffsetDateTime lastSyncAt;
+
+    public TokenBlacklistServiceImpl(RevokedTokenRepository revokedTokenRepository,
+                                     JwtUtil jwtUtil,
+                                     JwtClaimsCache claimsCache,
+                                     @Value("${app.jwt.expiration-ms}") long defaultExpirationMs,
+                                     @Value("${app.jwt.revocation.bloom-expected-entries:100000}") int bloomExpectedEntries) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtUtil = jwtUtil;
+        this.claimsCache = claimsCache;
+        this.defaultExpirationMs = defaultExpirationMs;
+        this.bloomExpectedEntries = Math.max(1024, bloomExpectedEntries);
+        this.bloomFilter = new BloomFilter(this.bloomExpectedEntries);
+    }
+
+    @PostConstruct
+    void loadFromDatabase() {
+        OffsetDateTime now = OffsetDateTime.now();
+        try {
+            List<RevokedToken> rows = revokedTokenRepository.findByExpiresAtAfter(now);
+            for (RevokedToken row : rows) {
+                remember(row.getFingerprint(), row.getExpiresAt().toInstant().toEpochMilli());
+            }
+            lastSyncAt = now;
+            logger.info("[REVOCATION] Loaded {} revoked tokens", rows.size());
+        } catch (Exception e) {
+            // Keep starting up; the next sync retries the full load
+            logger.error("[REVOCATION] Could not load revoked tokens: {}", e.getMessage());
+        }
+    }
+
     @Override
     public void blacklistToken(String token) {
-        // Store token with current time + 30 days (same as token expiry)
-        blacklistedTokens.put(token, OffsetDateTime.now().plusDays(30));
-        System.out.println("[DEBUG] Token blacklisted: " + token.substring(0, Math.min(20, token.length())) + "...");
+        String fingerprint = fingerprint(token);
+        long expiresAt = expiryOf(token);
+        if (expiresAt <= System.currentTimeMillis()) {
+            // Already expired - the filter rejects it anyway
+            claimsCache.evict(token);
+            return;
+        }
+
+        revokedTokenRepository.save(new RevokedToken(fingerprint,
+                OffsetDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneOffset.UTC)));
+        remember(fingerprint, expiresAt);
+        // Make sure the next request re-checks instead of using cached claims
+        claimsCache.evict(token);
+        logger.info("[REVOCATION] Token revoked: {}", fingerprint.substring(0, 8));
     }
-    
+
     @Override
     public boolean isTokenBlacklisted(String token) {
-        OffsetDateTime expiryTime = blacklistedTokens.get(token);
-        if (expiryTime == null) {
+        byte[] digest = sha256(token);
+        if (!bloomFilter.mightContain(digest)) {
             return false;
         }
-        
-        // If token has expired in blacklist, remove it and return false
-        if (expiryTime.isBefore(OffsetDateTime.now())) {
-            blacklistedTokens.remove(token);
-            return false;
-        }
-        
-        return true;
+        Long expiresAt = revoked.get(toHex(digest));
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
     }
-    
+
+    /**
+     * Drop revocations whose tokens have expired. Only the expired hour buckets are visited.
+     */
     @Override
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.cleanup-interval-ms:3600000}")
     public void cleanupExpiredTokens() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+
+        // Buckets strictly before the current hour are fully expired
+        Map<Long, Set<String>> expired = expiryBuckets.headMap(bucketOf(now));
+        for (Iterator<Map.Entry<Long, Set<String>>> it = expired.entrySet().iterator(); it.hasNext(); ) {
+            for (String fingerprint : it.next().getValue()) {
+                Long expiresAt = revoked.get(fingerprint);
+                if (expiresAt != null && expiresAt <= now && revoked.remove(fingerprint, expiresAt)) {
+                    removed++;
+                }
+            }
+            it.remove();
+        }
+
+        // The Bloom filter cannot forget entries; rebuild it once most of its bits belong to expired tokens
+        if (removed > 0 && bloomFilter.insertions() > 2L * revoked.size()) {
+            rebuildBloomFilter();
+        }
+
+        try {
+            int deleted = revokedTokenRepository.deleteExpired(OffsetDateTime.now());
+            logger.info("[REVOCATION] Cleanup removed {} in memory, {} rows. Active: {}", removed, deleted, revoked.size());
+        } catch (Exception e) {
+            logger.error("[REVOCATION] Could not delete expired rows: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Pull revocations made by other instances
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval-ms:10000}",
+               initialDelayString = "${app.jwt.revocation.sync-interval-ms:10000}")
+    public void syncFromDatabase() {
+        OffsetDateTime since = lastSyncAt;
+        if (since == null) {
+            loadFromDatabase();
+            return;
+        }
+        // Overlap a little so a row committed just before the previous query is not missed
         OffsetDateTime now = OffsetDateTime.now();
-        blacklistedTokens.entrySet().removeIf(entry -> entry.getValue().isBefore(now));
-        System.out.println("[DEBUG] Cleaned up expired blacklisted tokens. Current count: " + blacklistedTokens.size());
+        try {
+            List<RevokedToken> rows = revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(since.minusSeconds(30), now);
+            for (RevokedToken row : rows) {
+                remember(row.getFingerprint(), row.getExpiresAt().toInstant().toEpochMilli());
+            }
+            lastSyncAt = now;
+        } catch (Exception e) {
+            logger.error("[REVOCATION] Sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void remember(String fingerprint, long expiresAt) {
+        if (revoked.put(fingerprint, expiresAt) != null) {
+            return;
+        }
+        expiryBuckets.computeIfAbsent(bucketOf(expiresAt), b -> ConcurrentHashMap.newKeySet()).add(fingerprint);
+        BloomFilter filter = bloomFilter;
+        filter.put(fromHex(fingerprint));
+        if (filter.insertions() > filter.capacity()) {
+            // Past its sizing the false positive rate climbs - grow it
+            rebuildBloomFilter();
+        }
+    }
+
+    private synchronized void rebuildBloomFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(bloomExpectedEntries, revoked.size() * 2));
+        for (String fingerprint : revoked.keySet()) {
+            rebuilt.put(fromHex(fingerprint));
+        }
+        bloomFilter = rebuilt;
+        // A concurrent remember() may have written to the old filter after the first pass - add what is missing
+        for (String fingerprint : revoked.keySet()) {
+            byte[] bytes = fromHex(fingerprint);
+            if (!rebuilt.mightContain(bytes)) {
+                rebuilt.put(bytes);
+            }
+        }
+    }
+
+    private long expiryOf(String token) {
+        try {
+            Claims claims = jwtUtil.getVerifiedClaims(token);
+            if (claims.getExpiration() != null) {
+                return claims.getExpiration().getTime();
+            }
+        } catch (ExpiredJwtException e) {
+            return e.getClaims().getExpiration().getTime();
+        } catch (JwtException | IllegalArgumentException e) {
+            // Unparseable token: fall through to the configured lifetime
+        }
+        return System.currentTimeMillis() + defaultExpirationMs;
+    }
+
+    private static long bucketOf(long epochMillis) {
+        return epochMillis / BUCKET_MILLIS;
+    }
+
+    private static String fingerprint(String token) {
+        return toHex(sha256(token));
+    }
+
+    private static byte[] sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Arrays.copyOf(digest, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    private static byte[] fromHex(String hex) {
+        return HexFormat.of().parseHex(hex);
+    }
+
+    /**
+     * Fixed-size Bloom filter over 128-bit fingerprints (about 1% false positives at capacity).
+     * The fingerprint is already a uniform hash, so its two 64-bit halves drive double hashing directly.
+     */
+    static final class BloomFilter {
+
+        private static final int HASHES = 7;
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int capacity;
+        private final AtomicLong insertions = new AtomicLong();
+
+        BloomFilter(int capacity) {
+            this.capacity = capacity;
+            // ~9.6 bits per entry for 1% with 7 hashes
+            long words = Math.max(1, (capacity * 10L + 63) / 64);
+            this.bits = new AtomicLongArray((int) words);
+            this.bitCount = words * 64;
+        }
+
+        void put(byte[] fingerprint) {
+            long h1 = half(fingerprint, 0);
+            long h2 = half(fingerprint, 8);
+            for (int i = 0; i < HASHES; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                    // retry
+                }
+            }
+            insertions.incrementAndGet();
+        }
+
+        boolean mightContain(byte[] fingerprint) {
+            long h1 = half(fingerprint, 0);
+            long h2 = half(fingerprint, 8);
+            for (int i = 0; i < HASHES; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long insertions() { return insertions.get(); }
+        int capacity() { return capacity; }
+
+        private static long half(byte[] bytes, int offset) {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (bytes[offset + i] & 0xFF);
+            }
+            return value;
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.app.auth.service.impl;
 
+import com.app.auth.service.AppMetrics;
 import com.app.auth.service.WhatsAppService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,8 +33,9 @@ public class WhatsAppServiceImpl implements WhatsAppService {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     
-    public WhatsAppServiceImpl() {
+    public WhatsAppServiceImpl(AppMetrics metrics) {
         this.restTemplate = new RestTemplate();
+        this.restTemplate.getInterceptors().add(metrics.outboundTimer("whatsapp"));
         this.objectMapper = new ObjectMapper();
     }
     
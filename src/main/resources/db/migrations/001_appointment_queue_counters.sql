@@ -0,0 +1,15 @@
+-- Queue position counters, one row per (doctor, workplace, date).
+-- Used by QueuePositionAllocator: advanced with INSERT ... ON CONFLICT DO UPDATE ... RETURNING
+-- so booking gets its queue position in one statement instead of counting the day's rows.
+-- appointment_date matches appointments.appointment_date (yyyy-MM-dd).
+
+CREATE TABLE IF NOT EXISTS appointment_queue_counters (
+    doctor_id        BIGINT      NOT NULL,
+    workplace_id     BIGINT      NOT NULL,
+    appointment_date VARCHAR(10) NOT NULL,
+    last_position    INTEGER     NOT NULL,
+    PRIMARY KEY (doctor_id, workplace_id, appointment_date)
+);
+
+-- Nightly purge removes counters for past days
+CREATE INDEX IF NOT EXISTS idx_queue_counters_date ON appointment_queue_counters (appointment_date);
@@ -0,0 +1,20 @@
+-- Transactional outbox for push notifications.
+-- Rows are inserted in the same transaction as the appointment change (NotificationOutboxService)
+-- and drained by NotificationOutboxDispatcher with FOR UPDATE SKIP LOCKED.
+-- Must exist before deploying: spring.jpa.hibernate.ddl-auto=validate.
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id                BIGSERIAL PRIMARY KEY,
+    user_id           BIGINT        NOT NULL,
+    title             VARCHAR(200)  NOT NULL,
+    body              VARCHAR(1000) NOT NULL,
+    notification_type VARCHAR(50),
+    status            VARCHAR(20)   NOT NULL DEFAULT 'PENDING',
+    attempts          INTEGER       NOT NULL DEFAULT 0,
+    next_attempt_at   TIMESTAMPTZ   NOT NULL DEFAULT now(),
+    last_error        VARCHAR(500),
+    created_at        TIMESTAMPTZ   NOT NULL DEFAULT now(),
+    sent_at           TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_status_next ON notification_outbox (status, next_attempt_at);
@@ -0,0 +1,13 @@
+-- Revoked JWTs, stored as a hex SHA-256 prefix of the token (never the raw token).
+-- Written by TokenBlacklistServiceImpl on logout, loaded into its in-memory Bloom filter on startup
+-- and pulled by every instance on a short interval. Rows are deleted once the token has expired.
+-- Must exist before deploying: spring.jpa.hibernate.ddl-auto=validate.
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    fingerprint VARCHAR(64) PRIMARY KEY,
+    expires_at  TIMESTAMPTZ NOT NULL,
+    revoked_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
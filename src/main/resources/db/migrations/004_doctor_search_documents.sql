@@ -0,0 +1,84 @@
+-- Denormalized doctor search documents for /api/doctors/search and /api/doctors/search/enhanced.
+-- One row per doctor with the searchable doctor fields and all of the doctor's workplaces flattened
+-- into text, indexed with pg_trgm (substring / typo matches) and tsvector (prefix word matches).
+-- Kept in sync by triggers on doctor_details and doctor_workplaces; no application code writes it.
+-- Must exist before deploying: DoctorRepository search queries read it.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE TABLE IF NOT EXISTS doctor_search_documents (
+    doctor_id      BIGINT      PRIMARY KEY REFERENCES doctor_details (doctor_id) ON DELETE CASCADE,
+    doctor_text    TEXT        NOT NULL,  -- name, specialization, designation, address, city
+    workplace_text TEXT        NOT NULL,  -- workplace names, cities, states, pincodes
+    search_text    TEXT        NOT NULL,  -- doctor_text + workplace_text
+    doctor_tsv     TSVECTOR    NOT NULL,
+    search_tsv     TSVECTOR    NOT NULL,
+    updated_at     TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_doctor_search_doctor_trgm ON doctor_search_documents USING GIN (doctor_text gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_doctor_search_search_trgm ON doctor_search_documents USING GIN (search_text gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_doctor_search_doctor_tsv ON doctor_search_documents USING GIN (doctor_tsv);
+CREATE INDEX IF NOT EXISTS idx_doctor_search_search_tsv ON doctor_search_documents USING GIN (search_tsv);
+
+CREATE OR REPLACE FUNCTION refresh_doctor_search_document(p_doctor_id BIGINT) RETURNS void AS $$
+BEGIN
+    INSERT INTO doctor_search_documents
+        (doctor_id, doctor_text, workplace_text, search_text, doctor_tsv, search_tsv, updated_at)
+    SELECT x.doctor_id,
+           x.doctor_text,
+           x.workplace_text,
+           x.doctor_text || ' ' || x.workplace_text,
+           to_tsvector('simple', x.doctor_text),
+           setweight(to_tsvector('simple', x.doctor_text), 'A') || setweight(to_tsvector('simple', x.workplace_text), 'B'),
+           now()
+    FROM (
+        SELECT d.doctor_id,
+               lower(concat_ws(' ', d.full_name, d.specialization, d.designation, d.address, d.city)) AS doctor_text,
+               lower(coalesce((SELECT string_agg(concat_ws(' ', w.workplace_name, w.city, w.state, w.pincode), ' ')
+                               FROM doctor_workplaces w
+                               WHERE w.doctor_id = d.doctor_id), '')) AS workplace_text
+        FROM doctor_details d
+        WHERE d.doctor_id = p_doctor_id
+    ) x
+    ON CONFLICT (doctor_id) DO UPDATE
+        SET doctor_text    = EXCLUDED.doctor_text,
+            workplace_text = EXCLUDED.workplace_text,
+            search_text    = EXCLUDED.search_text,
+            doctor_tsv     = EXCLUDED.doctor_tsv,
+            search_tsv     = EXCLUDED.search_tsv,
+            updated_at     = EXCLUDED.updated_at;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION doctor_details_search_trigger() RETURNS trigger AS $$
+BEGIN
+    PERFORM refresh_doctor_search_document(NEW.doctor_id);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION doctor_workplaces_search_trigger() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM refresh_doctor_search_document(OLD.doctor_id);
+    END IF;
+    IF TG_OP = 'INSERT' OR (TG_OP = 'UPDATE' AND NEW.doctor_id IS DISTINCT FROM OLD.doctor_id) THEN
+        PERFORM refresh_doctor_search_document(NEW.doctor_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_doctor_details_search ON doctor_details;
+CREATE TRIGGER trg_doctor_details_search
+    AFTER INSERT OR UPDATE OF full_name, specialization, designation, address, city ON doctor_details
+    FOR EACH ROW EXECUTE FUNCTION doctor_details_search_trigger();
+
+DROP TRIGGER IF EXISTS trg_doctor_workplaces_search ON doctor_workplaces;
+CREATE TRIGGER trg_doctor_workplaces_search
+    AFTER INSERT OR UPDATE OF doctor_id, workplace_name, city, state, pincode OR DELETE ON doctor_workplaces
+    FOR EACH ROW EXECUTE FUNCTION doctor_workplaces_search_trigger();
+
+-- Backfill existing doctors
+SELECT refresh_doctor_search_document(doctor_id) FROM doctor_details;
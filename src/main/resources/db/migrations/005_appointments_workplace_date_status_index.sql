@@ -0,0 +1,5 @@
+-- Composite index for the workspace appointments API and workspace reschedule:
+-- WHERE workplace_id = ? AND appointment day >= ? AND status = ? ORDER BY appointment day.
+-- Intentionally empty: the index is built once, on the typed day column, as idx_appointments_workplace_day_status
+-- in 006, which also drops the single-column idx_appointments_workplace it replaces. Building a text-date
+-- version here would only be dropped again by the next migration.
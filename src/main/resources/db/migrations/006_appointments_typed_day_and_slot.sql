@@ -0,0 +1,80 @@
+-- Typed copies of appointments.appointment_date (yyyy-MM-dd text) and appointments.slot ("9:00AM - 9:30AM").
+-- Range queries, slot-availability loads, block cancellation and archival read these instead of parsing strings.
+-- The text columns stay (they are the API format); a trigger keeps the typed ones in step for SQL writers,
+-- and the Appointment entity sets them from the same setters.
+-- Must exist before deploying: the Appointment entity maps the new columns (ddl-auto=validate).
+
+ALTER TABLE appointments ADD COLUMN IF NOT EXISTS appointment_day DATE;
+ALTER TABLE appointments ADD COLUMN IF NOT EXISTS slot_start TIME;
+ALTER TABLE appointments ADD COLUMN IF NOT EXISTS slot_end TIME;
+
+-- NULL when the text is not a valid yyyy-MM-dd date
+CREATE OR REPLACE FUNCTION appointment_day_of(p_date TEXT) RETURNS DATE AS $$
+BEGIN
+    IF p_date !~ '^[0-9]{4}-[0-9]{2}-[0-9]{2}$' THEN
+        RETURN NULL;
+    END IF;
+    RETURN p_date::date;
+EXCEPTION WHEN others THEN
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+-- One side of a slot label: "9:00AM", "9:00 AM" or "13:00". NULL when it does not parse.
+CREATE OR REPLACE FUNCTION appointment_slot_time(p_label TEXT) RETURNS TIME AS $$
+DECLARE
+    m TEXT[];
+    h INT;
+    mi INT;
+BEGIN
+    m := regexp_match(upper(coalesce(p_label, '')), '^\s*([0-9]{1,2}):([0-9]{2})\s*(AM|PM)?\s*$');
+    IF m IS NULL THEN
+        RETURN NULL;
+    END IF;
+    h := m[1]::int;
+    mi := m[2]::int;
+    IF mi > 59 THEN
+        RETURN NULL;
+    END IF;
+    IF m[3] IS NULL THEN
+        RETURN CASE WHEN h <= 23 THEN make_time(h, mi, 0) END;
+    END IF;
+    IF h < 1 OR h > 12 THEN
+        RETURN NULL;
+    END IF;
+    RETURN make_time(h % 12 + CASE WHEN m[3] = 'PM' THEN 12 ELSE 0 END, mi, 0);
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+CREATE OR REPLACE FUNCTION appointments_typed_slot_trigger() RETURNS trigger AS $$
+BEGIN
+    NEW.appointment_day := appointment_day_of(NEW.appointment_date);
+    IF position('-' IN coalesce(NEW.slot, '')) > 0 THEN
+        NEW.slot_start := appointment_slot_time(split_part(NEW.slot, '-', 1));
+        NEW.slot_end := appointment_slot_time(split_part(NEW.slot, '-', 2));
+    ELSE
+        NEW.slot_start := appointment_slot_time(NEW.slot);
+        NEW.slot_end := NULL;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_appointments_typed_slot ON appointments;
+CREATE TRIGGER trg_appointments_typed_slot
+    BEFORE INSERT OR UPDATE OF appointment_date, slot ON appointments
+    FOR EACH ROW EXECUTE FUNCTION appointments_typed_slot_trigger();
+
+-- Backfill (the trigger fills the typed columns). On a very large table run it in id ranges instead.
+UPDATE appointments SET appointment_date = appointment_date WHERE appointment_day IS NULL;
+
+-- Composite indexes on the typed columns. CONCURRENTLY avoids blocking bookings on a live table;
+-- run each statement below outside a transaction block. Slot lookups by (doctor, workplace, day, slot start)
+-- are served by the index of the ux_appointments_active_slot constraint (007), so no separate index is built for them.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_appointments_workplace_day_status
+    ON appointments (workplace_id, appointment_day, status);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_appointments_day
+    ON appointments (appointment_day);
+
+-- Superseded by idx_appointments_workplace_day_status (a prefix of it; see 005)
+DROP INDEX CONCURRENTLY IF EXISTS idx_appointments_workplace;
@@ -0,0 +1,31 @@
+-- One live booking per slot: at most one non-cancelled appointment per (doctor, workplace, day, slot start).
+-- Bookings insert and let this constraint reject a taken slot (BookingGuard) instead of locking the doctor's day,
+-- so bookings for different slots never wait for each other. Same "occupied" rule as the slot availability index
+-- (status <> 'CANCELLED'); rows whose slot did not parse (slot_start NULL) are not constrained.
+--
+-- An exclusion constraint on = is a partial unique constraint that can be DEFERRABLE. A plain unique index is
+-- checked row by row, so moving back-to-back appointments by one slot hit the next row's old slot half way
+-- through the UPDATE. Being deferrable, it is checked at the end of each statement (INITIALLY IMMEDIATE, which is
+-- what bookings need), and AppointmentStatusTransitions.shiftBooked defers it to commit because
+-- increase_time_range may move the rows in more than one statement. Its btree index also serves slot lookups by
+-- (doctor, workplace, day, slot start).
+--
+-- Adding the constraint fails if the table already holds double bookings. List them first and cancel the extras:
+--   SELECT doctor_id, workplace_id, appointment_day, slot_start, array_agg(id ORDER BY id)
+--   FROM appointments WHERE status <> 'CANCELLED' AND slot_start IS NOT NULL
+--   GROUP BY 1, 2, 3, 4 HAVING count(*) > 1;
+-- ADD CONSTRAINT cannot be built CONCURRENTLY: it locks appointments while the index is built, so run it in a
+-- quiet window.
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conname = 'ux_appointments_active_slot' AND conrelid = 'appointments'::regclass) THEN
+        -- Plain unique index of the same name from an earlier build of this migration
+        DROP INDEX IF EXISTS ux_appointments_active_slot;
+        ALTER TABLE appointments ADD CONSTRAINT ux_appointments_active_slot
+            EXCLUDE USING btree (doctor_id WITH =, workplace_id WITH =, appointment_day WITH =, slot_start WITH =)
+            WHERE (status <> 'CANCELLED')
+            DEFERRABLE INITIALLY IMMEDIATE;
+    END IF;
+END $$;
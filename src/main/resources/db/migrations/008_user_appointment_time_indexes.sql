@@ -0,0 +1,13 @@
+-- Keyset pagination of a user's appointments (timeline and /appointments APIs):
+-- WHERE user_id = ? AND (appointment_time, id) beyond the cursor ORDER BY appointment_time, id.
+-- appointments had no user_id index at all; on past_appointments this replaces the single-column
+-- idx_past_appointments_user (a prefix of the new one).
+-- CONCURRENTLY avoids blocking bookings on a live table; run each statement outside a transaction block.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_appointments_user_time
+    ON appointments (user_id, appointment_time, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_past_appointments_user_time
+    ON past_appointments (user_id, appointment_time, id);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_past_appointments_user;
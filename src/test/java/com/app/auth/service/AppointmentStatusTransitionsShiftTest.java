@@ -0,0 +1,158 @@
+package com.app.auth.service;
+
+import com.app.auth.entity.Appointment;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Bulk reschedule against a real Postgres: the slot constraint and the typed-slot trigger only exist there.
+ * Runs in a scratch schema of the database given by -Dtest.jdbc-url (user/password from -Dtest.db-username
+ * and -Dtest.db-password, default postgres); skipped without it.
+ *
+ * increase_time_range is not part of db/migrations, so a stand-in that moves appointment_time and the slot
+ * label (which the trigger turns into slot_start) is created in the scratch schema.
+ */
+class AppointmentStatusTransitionsShiftTest {
+
+    private static final String SCHEMA = "shift_test";
+    private static final long DOCTOR_ID = 11L;
+    private static final long WORKPLACE_ID = 21L;
+    private static final LocalDate DAY = LocalDate.now().plusDays(3);
+
+    private static final String STAND_IN_SHIFT =
+            "CREATE FUNCTION increase_time_range(ids int[], add_interval text) RETURNS void AS $$" +
+            "  UPDATE appointments SET" +
+            "    appointment_time = appointment_time + add_interval::interval," +
+            "    slot = to_char(DATE '2000-01-01' + (slot_start + add_interval::interval), 'FMHH12:MIAM') || ' - ' ||" +
+            "           to_char(DATE '2000-01-01' + (slot_end + add_interval::interval), 'FMHH12:MIAM')" +
+            "  WHERE id = ANY(ids)" +
+            "$$ LANGUAGE sql";
+
+    private static final String STAND_IN_SHIFT_TO_DATE =
+            "CREATE FUNCTION increase_time_range(ids int[], add_interval text, new_date date) RETURNS void AS $$" +
+            "  UPDATE appointments SET appointment_date = to_char(new_date, 'YYYY-MM-DD') WHERE id = ANY(ids);" +
+            "  SELECT increase_time_range(ids, add_interval)" +
+            "$$ LANGUAGE sql";
+
+    private static SingleConnectionDataSource dataSource;
+    private static JdbcTemplate jdbc;
+    private static TransactionTemplate tx;
+    private static AppointmentStatusTransitions transitions;
+
+    @BeforeAll
+    static void createSchema() throws IOException {
+        String url = System.getProperty("test.jdbc-url");
+        assumeTrue(url != null && !url.isBlank(), "set -Dtest.jdbc-url to run against Postgres");
+        dataSource = new SingleConnectionDataSource(url,
+                System.getProperty("test.db-username", "postgres"),
+                System.getProperty("test.db-password", "postgres"), true);
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        jdbc.execute("CREATE SCHEMA " + SCHEMA);
+        jdbc.execute("SET search_path TO " + SCHEMA);
+        jdbc.execute("CREATE TABLE appointments (" +
+                " id BIGSERIAL PRIMARY KEY, user_id BIGINT NOT NULL, doctor_id BIGINT NOT NULL, workplace_id BIGINT," +
+                " workplace_name VARCHAR(255), appointment_date VARCHAR(255), slot VARCHAR(255)," +
+                " appointment_time TIMESTAMPTZ, status VARCHAR(255), notes TEXT," +
+                " doctor_name VARCHAR(255), doctor_specialization VARCHAR(255))");
+        migrate("006_appointments_typed_day_and_slot.sql");
+        migrate("007_appointments_active_slot_unique.sql");
+        jdbc.execute(STAND_IN_SHIFT);
+        jdbc.execute(STAND_IN_SHIFT_TO_DATE);
+
+        tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transitions = new AppointmentStatusTransitions(jdbc, mock(NotificationOutboxService.class),
+                mock(SlotAvailabilityIndex.class), mock(AppointmentStatusRollup.class));
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        if (dataSource != null) {
+            jdbc.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            dataSource.destroy();
+        }
+    }
+
+    @BeforeEach
+    void clear() {
+        jdbc.update("DELETE FROM appointments");
+    }
+
+    @Test
+    void shiftsAdjacentBookingsByOneSlot() {
+        book(1, DAY, "9:00AM - 9:15AM", "BOOKED");
+        book(2, DAY, "9:15AM - 9:30AM", "BOOKED");
+
+        List<Appointment> moved = shift(15, null);
+
+        assertEquals(2, moved.size());
+        assertEquals(List.of("9:15AM - 9:30AM", "9:30AM - 9:45AM"), slotsOn(DAY));
+    }
+
+    @Test
+    void shiftsAdjacentBookingsOntoNewDate() {
+        book(1, DAY, "9:00AM - 9:15AM", "BOOKED");
+        book(2, DAY, "9:15AM - 9:30AM", "BOOKED");
+        LocalDate newDate = DAY.plusDays(1);
+
+        shift(15, newDate);
+
+        assertEquals(List.of("9:15AM - 9:30AM", "9:30AM - 9:45AM"), slotsOn(newDate));
+    }
+
+    @Test
+    void rejectsShiftOntoSlotThatStaysTaken() {
+        book(1, DAY, "9:00AM - 9:15AM", "BOOKED");
+        // RESCHEDULED rows are not moved but still hold their slot
+        book(2, DAY, "9:15AM - 9:30AM", "RESCHEDULED");
+
+        assertThrows(AppointmentStatusTransitions.SlotClashException.class, () -> shift(15, null));
+        assertEquals(List.of("9:00AM - 9:15AM", "9:15AM - 9:30AM"), slotsOn(DAY));
+    }
+
+    @Test
+    void ignoresCancelledBookingOnTargetSlot() {
+        book(1, DAY, "9:00AM - 9:15AM", "BOOKED");
+        book(2, DAY, "9:15AM - 9:30AM", "CANCELLED");
+
+        assertEquals(1, shift(15, null).size());
+    }
+
+    private static List<Appointment> shift(int minutes, LocalDate newDate) {
+        return tx.execute(status -> transitions.shiftBooked(WORKPLACE_ID, DOCTOR_ID, DAY, minutes, newDate, null));
+    }
+
+    private static void book(long userId, LocalDate day, String slot, String status) {
+        jdbc.update("INSERT INTO appointments (user_id, doctor_id, workplace_id, appointment_date, slot, appointment_time, status) " +
+                        "VALUES (?, ?, ?, ?, ?, CAST(? AS date) + appointment_slot_time(split_part(?, '-', 1)), ?)",
+                userId, DOCTOR_ID, WORKPLACE_ID, day.toString(), slot, day.toString(), slot, status);
+    }
+
+    private static List<String> slotsOn(LocalDate day) {
+        return jdbc.queryForList("SELECT slot FROM appointments WHERE appointment_day = ? AND status <> 'CANCELLED' " +
+                "ORDER BY slot_start", String.class, day);
+    }
+
+    private static void migrate(String script) throws IOException {
+        String sql = new ClassPathResource("db/migrations/" + script)
+                .getContentAsString(StandardCharsets.UTF_8).replace(" CONCURRENTLY", "");
+        jdbc.execute(sql);
+    }
+}